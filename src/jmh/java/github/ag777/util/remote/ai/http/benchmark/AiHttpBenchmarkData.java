@@ -0,0 +1,25 @@
+package github.ag777.util.remote.ai.http.benchmark;
+
+/**
+ * 基准测试数据。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+final class AiHttpBenchmarkData {
+    private static final String SAMPLE = "流式响应基准测试 The quick brown fox jumps over the lazy dog. \"引号\"与\\转义\n";
+
+    private AiHttpBenchmarkData() {
+    }
+
+    /**
+     * 生成指定长度的中英文混合文本，包含需要JSON转义的字符。
+     */
+    static String text(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(SAMPLE, 0, Math.min(SAMPLE.length(), length - sb.length()));
+        }
+        return sb.toString();
+    }
+}
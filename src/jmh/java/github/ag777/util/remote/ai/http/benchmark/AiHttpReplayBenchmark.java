@@ -0,0 +1,72 @@
+package github.ag777.util.remote.ai.http.benchmark;
+
+import github.ag777.util.remote.ai.http.client.AiHttpClient;
+import github.ag777.util.remote.ai.http.config.AiHttpClientConfig;
+import github.ag777.util.remote.ai.http.mock.AiHttpReplayServer;
+import github.ag777.util.remote.ai.http.mock.AiHttpReplayTranscript;
+import github.ag777.util.remote.ai.http.model.AiHttpRequest;
+import github.ag777.util.remote.ai.http.stream.AiHttpStreamHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端流式吞吐基准：客户端经本地回放服务端（不限速）完成流式请求，
+ * 每次调用以 {@code concurrency} 个虚拟线程并发发起请求并等待全部完成。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class AiHttpReplayBenchmark {
+
+    @Param({"1", "16", "64"})
+    public int concurrency;
+
+    @Param({"1", "16"})
+    public int chunkChars;
+
+    @Param({"512"})
+    public int chunks;
+
+    private AiHttpReplayServer server;
+    private AiHttpClient client;
+
+    @Setup
+    public void setup() throws Exception {
+        server = new AiHttpReplayServer(AiHttpReplayTranscript.synthetic("bench", AiHttpBenchmarkData.text(chunkChars * chunks), chunkChars))
+                .start();
+        client = AiHttpClient.openAiCompatible(AiHttpClientConfig.create(server.baseUrl()).apiKey("bench"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public int chatStream() throws Exception {
+        AiHttpStreamHandler handler = new AiHttpStreamHandler() {
+        };
+        List<Thread> threads = new ArrayList<>(concurrency);
+        int[] lengths = new int[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            int index = i;
+            threads.add(Thread.ofVirtual().start(() ->
+                    lengths[index] = client.chatStream(AiHttpRequest.ofModel("bench").user("你好"), handler).content().length()));
+        }
+        int total = 0;
+        for (int i = 0; i < concurrency; i++) {
+            threads.get(i).join();
+            total += lengths[i];
+        }
+        return total;
+    }
+}
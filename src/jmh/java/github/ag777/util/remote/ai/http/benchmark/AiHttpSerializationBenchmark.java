@@ -0,0 +1,59 @@
+package github.ag777.util.remote.ai.http.benchmark;
+
+import github.ag777.util.remote.ai.http.model.AiHttpRequest;
+import github.ag777.util.remote.ai.http.openai.model.AiMessage;
+import github.ag777.util.remote.ai.http.provider.OpenAiCompatibleProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求体序列化基准：多轮对话中历史消息的JSON片段已缓存（warm）与每次重新序列化（cold）的对比。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AiHttpSerializationBenchmark {
+
+    @Param({"4", "32", "128"})
+    public int messages;
+
+    @Param({"64", "2048"})
+    public int messageChars;
+
+    private final OpenAiCompatibleProvider provider = new OpenAiCompatibleProvider();
+    private AiHttpRequest request;
+
+    @Setup
+    public void setup() {
+        request = AiHttpRequest.ofModel("bench").system("你是一个助手");
+        String text = AiHttpBenchmarkData.text(messageChars);
+        for (int i = 0; i < messages; i++) {
+            if (i % 2 == 0) {
+                request.user(text);
+            } else {
+                request.assistant(text);
+            }
+        }
+        provider.buildRequestJson(request, true);
+    }
+
+    @Benchmark
+    public String buildRequestJsonWarm() {
+        return provider.buildRequestJson(request, true);
+    }
+
+    @Benchmark
+    public String buildRequestJsonCold() {
+        for (AiMessage message : request.messages()) {
+            message.invalidateJson();
+        }
+        return provider.buildRequestJson(request, true);
+    }
+}
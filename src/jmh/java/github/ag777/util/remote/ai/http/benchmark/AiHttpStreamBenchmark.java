@@ -0,0 +1,93 @@
+package github.ag777.util.remote.ai.http.benchmark;
+
+import github.ag777.util.remote.ai.http.mock.AiHttpReplayTranscript;
+import github.ag777.util.remote.ai.http.model.AiHttpChunk;
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+import github.ag777.util.remote.ai.http.provider.OpenAiCompatibleProvider;
+import github.ag777.util.remote.ai.http.support.AiHttpResponseAccumulator;
+import github.ag777.util.remote.ai.http.support.AiHttpSseReader;
+import github.ag777.util.remote.ai.http.support.AiHttpStreamDispatcher;
+import github.ag777.util.remote.ai.http.support.AiHttpStreamEngine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式链路各环节的吞吐基准：SSE切分、分片解析、累积，以及与 {@code AiHttpClient.readStream} 相同的 {@link AiHttpStreamEngine} 完整链路。
+ *
+ * <p>每次调用处理一整个响应（{@code chunks} 个分片），{@code chunkChars} 控制每个分片的内容长度。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AiHttpStreamBenchmark {
+
+    @Param({"1", "8", "64"})
+    public int chunkChars;
+
+    @Param({"1024"})
+    public int chunks;
+
+    private final OpenAiCompatibleProvider provider = new OpenAiCompatibleProvider();
+    private byte[] sse;
+    private byte[][] payloads;
+    private AiHttpChunk[] parsed;
+
+    @Setup
+    public void setup() throws Exception {
+        AiHttpReplayTranscript transcript = AiHttpReplayTranscript.synthetic("bench", AiHttpBenchmarkData.text(chunkChars * chunks), chunkChars);
+        sse = transcript.toSse().getBytes(StandardCharsets.UTF_8);
+        List<String> items = transcript.payloads();
+        payloads = new byte[items.size()][];
+        parsed = new AiHttpChunk[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            payloads[i] = items.get(i).getBytes(StandardCharsets.UTF_8);
+            parsed[i] = provider.parseStreamChunk(payloads[i], 0, payloads[i].length);
+        }
+    }
+
+    @Benchmark
+    public int sseRead() throws Exception {
+        int[] count = {0};
+        new AiHttpSseReader(new ByteArrayInputStream(sse)).read((buffer, offset, length) -> {
+            count[0] += length;
+            return true;
+        });
+        return count[0];
+    }
+
+    @Benchmark
+    public void parseStreamChunk(Blackhole blackhole) throws Exception {
+        for (byte[] payload : payloads) {
+            blackhole.consume(provider.parseStreamChunk(payload, 0, payload.length));
+        }
+    }
+
+    @Benchmark
+    public AiHttpResponse accumulatorAppend() {
+        AiHttpResponseAccumulator accumulator = new AiHttpResponseAccumulator();
+        for (AiHttpChunk chunk : parsed) {
+            accumulator.append(chunk);
+        }
+        return accumulator.toResponse();
+    }
+
+    @Benchmark
+    public AiHttpResponse readStream() throws Exception {
+        AiHttpStreamDispatcher dispatcher = new AiHttpStreamDispatcher(null);
+        new AiHttpStreamEngine<AiHttpChunk>(provider::parseStreamChunk)
+                .cancelWhen(() -> false)
+                .run(new ByteArrayInputStream(sse), dispatcher::dispatch);
+        return dispatcher.complete();
+    }
+}
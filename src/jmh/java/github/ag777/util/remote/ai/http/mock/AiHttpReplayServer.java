@@ -0,0 +1,311 @@
+package github.ag777.util.remote.ai.http.mock;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地回放服务端，用于在没有真实大模型的情况下压测和调试 {@link github.ag777.util.remote.ai.http.client.AiHttpClient}。
+ *
+ * <p>基于netty实现，收到聊天请求后按 {@link AiHttpReplayTranscript} 回放：
+ * 请求体中 {@code stream} 为true时以SSE逐个发送分片，两个分片之间的间隔由 {@link #tokensPerSecond(double)} 决定
+ * （每个分片视为一个token，为0时不等待），首个分片前额外等待 {@link #firstTokenDelay(long, TimeUnit)}；
+ * 否则一次性返回合并后的完整响应。所有等待都在netty事件循环上调度，不占用线程。
+ *
+ * <p>与使用它的基准测试一起放在jmh源码目录下，不随主jar发布。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * try (AiHttpReplayServer server = new AiHttpReplayServer(AiHttpReplayTranscript.synthetic("mock", "你好，世界", 1))
+ *         .tokensPerSecond(50)
+ *         .firstTokenDelay(300, TimeUnit.MILLISECONDS)
+ *         .start()) {
+ *     AiHttpClient client = AiHttpClient.openAiCompatible(AiHttpClientConfig.create(server.baseUrl()).apiKey("mock"));
+ *     client.chatStream(AiHttpRequest.ofModel("mock").user("你好"), handler);
+ * }
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpReplayServer implements AutoCloseable {
+    private static final byte[] DONE = "data: [DONE]\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final List<byte[]> events;
+    private final byte[] completionJson;
+    private String chatPath = "/v1/chat/completions";
+    private int port;
+    private long tokenIntervalNanos;
+    private long firstTokenDelayNanos;
+    private final LongAdder requests = new LongAdder();
+
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private Channel serverChannel;
+
+    /**
+     * 创建回放服务端。
+     *
+     * @param transcript 回放记录
+     */
+    public AiHttpReplayServer(AiHttpReplayTranscript transcript) {
+        this.events = transcript.payloads().stream()
+                .map(payload -> ("data: " + payload + "\n\n").getBytes(StandardCharsets.UTF_8))
+                .toList();
+        this.completionJson = transcript.toCompletionJson().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 设置监听端口，默认为0（随机空闲端口）。
+     *
+     * @param port 端口
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpReplayServer port(int port) {
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * 设置聊天接口路径，默认为 "/v1/chat/completions"。
+     *
+     * @param chatPath 聊天接口路径
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpReplayServer chatPath(String chatPath) {
+        this.chatPath = chatPath;
+        return this;
+    }
+
+    /**
+     * 设置回放速度。
+     *
+     * @param tokensPerSecond 每秒发送的分片数，不大于0时不等待
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpReplayServer tokensPerSecond(double tokensPerSecond) {
+        this.tokenIntervalNanos = tokensPerSecond > 0 ? (long) (1_000_000_000L / tokensPerSecond) : 0;
+        return this;
+    }
+
+    /**
+     * 设置首个分片前的等待时间，模拟首token延迟。
+     *
+     * @param delay 等待时间
+     * @param unit 时间单位
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpReplayServer firstTokenDelay(long delay, TimeUnit unit) {
+        this.firstTokenDelayNanos = Math.max(0, unit.toNanos(delay));
+        return this;
+    }
+
+    /**
+     * 启动服务端，绑定成功后返回。
+     *
+     * @return 当前对象
+     * @throws InterruptedException 等待绑定时被中断
+     */
+    public synchronized AiHttpReplayServer start() throws InterruptedException {
+        if (serverChannel != null) {
+            throw new IllegalStateException("服务端已启动");
+        }
+        bossGroup = new NioEventLoopGroup(1);
+        workerGroup = new NioEventLoopGroup();
+        try {
+            serverChannel = new ServerBootstrap()
+                    .group(bossGroup, workerGroup)
+                    .channel(NioServerSocketChannel.class)
+                    .childHandler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            ch.pipeline()
+                                    .addLast(new HttpServerCodec())
+                                    .addLast(new HttpObjectAggregator(64 * 1024 * 1024))
+                                    .addLast(new ReplayHandler());
+                        }
+                    })
+                    .bind("127.0.0.1", port)
+                    .sync()
+                    .channel();
+        } catch (InterruptedException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        return this;
+    }
+
+    /**
+     * 获取实际监听的端口。
+     *
+     * @return 端口
+     */
+    public int port() {
+        if (serverChannel == null) {
+            throw new IllegalStateException("服务端未启动");
+        }
+        return ((InetSocketAddress) serverChannel.localAddress()).getPort();
+    }
+
+    /**
+     * 获取可直接用于 {@link github.ag777.util.remote.ai.http.config.AiHttpClientConfig#create(String)} 的基础URL。
+     *
+     * @return 基础URL
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    /**
+     * 获取已处理的聊天请求数。
+     *
+     * @return 请求数
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * 关闭服务端。
+     */
+    @Override
+    public synchronized void close() {
+        if (serverChannel != null) {
+            serverChannel.close().syncUninterruptibly();
+            serverChannel = null;
+        }
+        if (bossGroup != null) {
+            bossGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+            bossGroup = null;
+        }
+        if (workerGroup != null) {
+            workerGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+            workerGroup = null;
+        }
+    }
+
+    private class ReplayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+            boolean keepAlive = HttpUtil.isKeepAlive(request);
+            String path = request.uri();
+            int query = path.indexOf('?');
+            if (query >= 0) {
+                path = path.substring(0, query);
+            }
+            if (!chatPath.equals(path)) {
+                writeFull(ctx, HttpResponseStatus.NOT_FOUND, "text/plain", "not found".getBytes(StandardCharsets.UTF_8), keepAlive);
+                return;
+            }
+            requests.increment();
+            if (!isStream(request.content().toString(StandardCharsets.UTF_8))) {
+                writeFull(ctx, HttpResponseStatus.OK, "application/json", completionJson, keepAlive);
+                return;
+            }
+            HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+            response.headers()
+                    .set(HttpHeaderNames.CONTENT_TYPE, "text/event-stream; charset=utf-8")
+                    .set(HttpHeaderNames.CACHE_CONTROL, HttpHeaderValues.NO_CACHE)
+                    .set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+            HttpUtil.setKeepAlive(response, keepAlive);
+            ctx.writeAndFlush(response);
+            if (firstTokenDelayNanos > 0) {
+                ctx.executor().schedule(() -> writeEvent(ctx, 0, keepAlive), firstTokenDelayNanos, TimeUnit.NANOSECONDS);
+            } else {
+                writeEvent(ctx, 0, keepAlive);
+            }
+        }
+
+        /**
+         * 发送第index个分片，按设定的间隔调度下一个；无间隔时连续写完再统一刷新。
+         */
+        private void writeEvent(ChannelHandlerContext ctx, int index, boolean keepAlive) {
+            if (!ctx.channel().isActive()) {
+                return;
+            }
+            if (tokenIntervalNanos <= 0 || index >= events.size()) {
+                // 无间隔或空转录：剩余分片连续写完后直接结束
+                for (int i = index; i < events.size(); i++) {
+                    ctx.write(new DefaultHttpContent(Unpooled.wrappedBuffer(events.get(i))));
+                }
+                writeDone(ctx, keepAlive);
+                return;
+            }
+            ctx.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(events.get(index))));
+            if (index + 1 < events.size()) {
+                ctx.executor().schedule(() -> writeEvent(ctx, index + 1, keepAlive), tokenIntervalNanos, TimeUnit.NANOSECONDS);
+            } else {
+                writeDone(ctx, keepAlive);
+            }
+        }
+
+        private void writeDone(ChannelHandlerContext ctx, boolean keepAlive) {
+            ctx.write(new DefaultHttpContent(Unpooled.wrappedBuffer(DONE)));
+            var future = ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+            if (!keepAlive) {
+                future.addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+
+        private void writeFull(ChannelHandlerContext ctx, HttpResponseStatus status, String contentType, byte[] body, boolean keepAlive) {
+            ByteBuf content = Unpooled.wrappedBuffer(body);
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, content);
+            response.headers()
+                    .set(HttpHeaderNames.CONTENT_TYPE, contentType + "; charset=utf-8")
+                    .setInt(HttpHeaderNames.CONTENT_LENGTH, body.length);
+            HttpUtil.setKeepAlive(response, keepAlive);
+            var future = ctx.writeAndFlush(response);
+            if (!keepAlive) {
+                future.addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+
+        private boolean isStream(String body) {
+            try {
+                JsonObject json = JsonParser.parseString(body).getAsJsonObject();
+                JsonElement stream = json.get("stream");
+                return stream != null && stream.isJsonPrimitive() && stream.getAsBoolean();
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package github.ag777.util.remote.ai.http.mock;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 录制的流式响应记录，供 {@link AiHttpReplayServer} 回放。
+ *
+ * <p>保存的是SSE事件中 {@code data:} 之后的JSON负载（不含 {@code [DONE]}），
+ * 可以从抓包得到的SSE文本加载，也可以按指定内容合成OpenAI兼容格式的分片。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * AiHttpReplayTranscript transcript = AiHttpReplayTranscript.fromSse(Path.of("recorded.sse"));
+ * AiHttpReplayTranscript synthetic = AiHttpReplayTranscript.synthetic("mock", "你好，世界", 2);
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpReplayTranscript {
+    private final List<String> payloads;
+
+    /**
+     * 创建记录。
+     *
+     * @param payloads SSE数据负载，按发送顺序排列
+     */
+    public AiHttpReplayTranscript(List<String> payloads) {
+        if (payloads == null || payloads.isEmpty()) {
+            throw new IllegalArgumentException("payloads不能为空");
+        }
+        this.payloads = List.copyOf(payloads);
+    }
+
+    /**
+     * 从SSE文件加载记录。
+     *
+     * @param path SSE文本文件
+     * @return 记录
+     * @throws IOException 读取文件失败
+     */
+    public static AiHttpReplayTranscript fromSse(Path path) throws IOException {
+        return fromSse(Files.readString(path, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 从SSE文本加载记录，只保留 {@code data:} 行。
+     *
+     * @param sse SSE文本
+     * @return 记录
+     */
+    public static AiHttpReplayTranscript fromSse(String sse) {
+        List<String> payloads = new ArrayList<>();
+        for (String line : sse.split("\r?\n")) {
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+            String payload = line.substring(5).trim();
+            if (!payload.isEmpty() && !"[DONE]".equals(payload)) {
+                payloads.add(payload);
+            }
+        }
+        return new AiHttpReplayTranscript(payloads);
+    }
+
+    /**
+     * 合成OpenAI兼容格式的记录：首个分片带角色，内容按固定字符数切分，最后一个分片带结束原因和usage。
+     *
+     * @param model 模型名称
+     * @param content 完整内容
+     * @param charsPerChunk 每个分片的字符数
+     * @return 记录
+     */
+    public static AiHttpReplayTranscript synthetic(String model, String content, int charsPerChunk) {
+        if (charsPerChunk <= 0) {
+            throw new IllegalArgumentException("charsPerChunk必须大于0");
+        }
+        List<String> payloads = new ArrayList<>();
+        JsonObject roleDelta = new JsonObject();
+        roleDelta.addProperty("role", "assistant");
+        payloads.add(chunkJson(model, roleDelta, null, null));
+        int count = 0;
+        for (int i = 0; i < content.length(); i += charsPerChunk) {
+            JsonObject delta = new JsonObject();
+            delta.addProperty("content", content.substring(i, Math.min(content.length(), i + charsPerChunk)));
+            payloads.add(chunkJson(model, delta, null, null));
+            count++;
+        }
+        JsonObject usage = new JsonObject();
+        usage.addProperty("prompt_tokens", 0);
+        usage.addProperty("completion_tokens", count);
+        usage.addProperty("total_tokens", count);
+        payloads.add(chunkJson(model, new JsonObject(), "stop", usage));
+        return new AiHttpReplayTranscript(payloads);
+    }
+
+    /**
+     * 获取SSE数据负载。
+     *
+     * @return 数据负载
+     */
+    public List<String> payloads() {
+        return Collections.unmodifiableList(payloads);
+    }
+
+    /**
+     * 转换为完整的SSE文本，以 {@code data: [DONE]} 结尾。
+     *
+     * @return SSE文本
+     */
+    public String toSse() {
+        StringBuilder sb = new StringBuilder();
+        for (String payload : payloads) {
+            sb.append("data: ").append(payload).append("\n\n");
+        }
+        return sb.append("data: [DONE]\n\n").toString();
+    }
+
+    /**
+     * 把各分片的增量合并为非流式响应JSON。
+     *
+     * @return chat.completion格式的响应JSON
+     */
+    public String toCompletionJson() {
+        StringBuilder content = new StringBuilder();
+        StringBuilder reasoning = new StringBuilder();
+        String model = null;
+        String finishReason = null;
+        JsonElement usage = null;
+        for (String payload : payloads) {
+            JsonObject json = JsonParser.parseString(payload).getAsJsonObject();
+            if (json.has("model") && !json.get("model").isJsonNull()) {
+                model = json.get("model").getAsString();
+            }
+            if (json.has("usage") && !json.get("usage").isJsonNull()) {
+                usage = json.get("usage");
+            }
+            JsonArray choices = json.has("choices") && json.get("choices").isJsonArray() ? json.getAsJsonArray("choices") : null;
+            if (choices == null || choices.isEmpty()) {
+                continue;
+            }
+            JsonObject choice = choices.get(0).getAsJsonObject();
+            if (choice.has("finish_reason") && !choice.get("finish_reason").isJsonNull()) {
+                finishReason = choice.get("finish_reason").getAsString();
+            }
+            JsonElement delta = choice.get("delta");
+            if (delta == null || !delta.isJsonObject()) {
+                continue;
+            }
+            appendString(content, delta.getAsJsonObject().get("content"));
+            appendString(reasoning, delta.getAsJsonObject().get("reasoning_content"));
+        }
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", content.toString());
+        if (!reasoning.isEmpty()) {
+            message.addProperty("reasoning_content", reasoning.toString());
+        }
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+        choice.addProperty("finish_reason", finishReason == null ? "stop" : finishReason);
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject result = new JsonObject();
+        result.addProperty("id", "chatcmpl-replay");
+        result.addProperty("object", "chat.completion");
+        result.addProperty("created", 0);
+        result.addProperty("model", model);
+        result.add("choices", choices);
+        if (usage != null) {
+            result.add("usage", usage);
+        }
+        return result.toString();
+    }
+
+    private static String chunkJson(String model, JsonObject delta, String finishReason, JsonObject usage) {
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("delta", delta);
+        choice.addProperty("finish_reason", finishReason);
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject json = new JsonObject();
+        json.addProperty("id", "chatcmpl-replay");
+        json.addProperty("object", "chat.completion.chunk");
+        json.addProperty("created", 0);
+        json.addProperty("model", model);
+        json.add("choices", choices);
+        if (usage != null) {
+            json.add("usage", usage);
+        }
+        return json.toString();
+    }
+
+    private static void appendString(StringBuilder target, JsonElement value) {
+        if (value != null && value.isJsonPrimitive()) {
+            target.append(value.getAsString());
+        }
+    }
+}
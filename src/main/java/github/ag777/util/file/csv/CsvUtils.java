@@ -1,5 +1,8 @@
 package github.ag777.util.file.csv;
 
+import github.ag777.util.file.table.ColumnType;
+import github.ag777.util.file.table.ColumnarTable;
+import github.ag777.util.file.table.ColumnarTableBuilder;
 import github.ag777.util.lang.Console;
 import github.ag777.util.lang.IOUtils;
 import org.apache.commons.csv.CSVFormat;
@@ -47,6 +50,32 @@ public class CsvUtils {
         return list;
     }
 
+    /**
+     * 读取为列式表格，边读边写入列数组，不为每行创建map
+     *
+     * @param file csv文件
+     * @param titles 列名
+     * @param types 列类型，与列名一一对应
+     * @param skipFirstRow 是否跳过第一条记录
+     * @return 列式表格
+     * @throws IOException io异常
+     * @see ColumnarTable
+     */
+    public static ColumnarTable readColumnar(File file, String[] titles, ColumnType[] types, boolean skipFirstRow) throws IOException {
+        ColumnarTableBuilder builder = new ColumnarTableBuilder(titles, types);
+        read(file, record->{
+            if (record.getRecordNumber() == 1 && skipFirstRow) {
+                return;
+            }
+            int size = Math.min(titles.length, record.size());
+            for (int i = 0; i < size; i++) {
+                builder.set(i, record.get(i));
+            }
+            builder.endRow();
+        });
+        return builder.build();
+    }
+
     /**
      *
      * @param file csv文件
@@ -5,15 +5,28 @@ import cn.afterturn.easypoi.excel.entity.TemplateExportParams;
 import cn.afterturn.easypoi.exception.excel.ExcelExportException;
 import github.ag777.util.lang.IOUtils;
 import github.ag777.util.lang.collection.MapUtils;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
 
@@ -24,6 +37,9 @@ import java.util.stream.IntStream;
  */
 public class ExcelExportUtils {
 
+    /** 流式导出时内存中保留的行数 */
+    public static final int DEFAULT_WINDOW_SIZE = 500;
+
     private ExcelExportUtils() {}
 
     public static void main(String[] args) throws IOException {
@@ -138,6 +154,194 @@ public class ExcelExportUtils {
         return exportExcel(realMap, params, outputFile);
     }
 
+    /**
+     * 流式导出单个sheet的excel文件(模板只渲染表头等固定内容,数据行逐行追加)
+     * <p>
+     * 模板先由easypoi按dataMap渲染,再包装为 {@link SXSSFWorkbook}：内存中只保留最近 windowSize 行,
+     * 超出的行写入压缩的临时文件,导出百万行数据时堆内存也不随行数增长。
+     * 数据行从模板第一个sheet的最后一行之后开始写入,仅支持xlsx模板。
+     * </p>
+     * <pre>{@code
+     * ExcelExportUtils.exportStream("report.xlsx", new File("out.xlsx"), MapUtils.of("title", "月报"),
+     *         ExcelExportUtils.paged(pageNo -> dao.queryRows(pageNo, 1000)));
+     * }</pre>
+     *
+     * @param templatePath 模板文件路径，如果在resource下，不加第一个/
+     * @param outputFile   输出文件
+     * @param dataMap      模板数据(表头等)
+     * @param rows         数据行,每行为按列顺序排列的单元格值
+     * @return excel文件
+     * @throws IOException IO异常
+     */
+    public static File exportStream(String templatePath, File outputFile, Map<String, Object> dataMap, Iterator<? extends List<?>> rows) throws ExcelExportException, IOException {
+        return exportStream(templatePath, outputFile, dataMap, 0, -1, rows, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * 流式导出单个sheet的excel文件
+     *
+     * @param templatePath 模板文件路径，如果在resource下，不加第一个/
+     * @param outputFile   输出文件
+     * @param dataMap      模板数据(表头等)
+     * @param sheetIndex   写入数据行的sheet下标
+     * @param startRow     数据起始行(从0开始),小于0时为模板该sheet最后一行的下一行,不能小于该值
+     * @param rows         数据行,每行为按列顺序排列的单元格值
+     * @param windowSize   内存中保留的行数
+     * @return excel文件
+     * @throws IOException IO异常
+     * @see #exportStream(String, File, Map, Iterator)
+     */
+    public static File exportStream(String templatePath, File outputFile, Map<String, Object> dataMap, int sheetIndex, int startRow, Iterator<? extends List<?>> rows, int windowSize) throws ExcelExportException, IOException {
+        Workbook template = export2WorkBook(templatePath, dataMap);
+        return writeStream(template, Collections.singletonMap(sheetIndex, rows), startRow, outputFile, windowSize);
+    }
+
+    /**
+     * 流式导出含有多个sheet的excel文件
+     * @param templatePath 模板文件路径
+     * @param outputFile 输出文件路径
+     * @param dataList 模板数据(表头等)，每项对应sheet中的值
+     * @param sheetRows 每个sheet的数据行,key为sheet下标,数据从该sheet最后一行之后开始写入
+     * @return 根据模板生成的文件
+     * @throws IOException io异常
+     * @see #exportStream(String, File, Map, Iterator)
+     */
+    public static File exportStreamWithMultiSheet(String templatePath, File outputFile, List<Map<String, Object>> dataList, Map<Integer, ? extends Iterator<? extends List<?>>> sheetRows) throws ExcelExportException, IOException {
+        TemplateExportParams params = new TemplateExportParams(templatePath);
+        // 开启横向遍历 开启横向遍历 开启横向遍历
+        params.setColForEach(true);
+        // 设置sheet页对应角标
+        params.setSheetNum(IntStream.range(0, dataList.size()).boxed().toArray(Integer[]::new));
+        // 构造数据
+        Map<Integer, Map<String, Object>> realMap = new HashMap<>();
+        for (int i = 0; i < dataList.size(); i++) {
+            Map<String, Object> map = dataList.get(i);
+            if (!MapUtils.isEmpty(map)) {
+                realMap.put(i, map);
+            }
+        }
+        Workbook template = ExcelExportUtil.exportExcel(realMap, params);
+        if (template == null) {
+            throw new ExcelExportException("导出excel异常，详情请看日志");
+        }
+        return writeStream(template, sheetRows, -1, outputFile, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * 将分页查询包装为数据行迭代器,页码从1开始,查询结果为空时结束,每次只持有一页数据
+     * @param pageQuery 分页查询
+     * @return 数据行迭代器
+     */
+    public static <R extends List<?>> Iterator<R> paged(PageQuery<R> pageQuery) {
+        return new Iterator<>() {
+            private int pageNo;
+            private Iterator<R> page = Collections.emptyIterator();
+            private boolean end;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && !end) {
+                    List<R> list = pageQuery.query(++pageNo);
+                    if (list == null || list.isEmpty()) {
+                        end = true;
+                    } else {
+                        page = list.iterator();
+                    }
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public R next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+    }
+
+    /**
+     * 分页查询
+     * @param <R> 行类型
+     */
+    @FunctionalInterface
+    public interface PageQuery<R> {
+        /**
+         * @param pageNo 页码,从1开始
+         * @return 该页数据行,为空时结束
+         */
+        List<R> query(int pageNo);
+    }
+
+    private static File writeStream(Workbook template, Map<Integer, ? extends Iterator<? extends List<?>>> sheetRows, int startRow, File outputFile, int windowSize) throws ExcelExportException, IOException {
+        if (!(template instanceof XSSFWorkbook xssf)) {
+            IOUtils.close(template);
+            throw new ExcelExportException("流式导出仅支持xlsx模板");
+        }
+        // 模板中已有的行保留在XSSF中,之后追加的行超出窗口即写入压缩临时文件
+        SXSSFWorkbook workbook = new SXSSFWorkbook(xssf, windowSize, true);
+        FileOutputStream out = null;
+        try {
+            CellStyle dateStyle = null;
+            for (Map.Entry<Integer, ? extends Iterator<? extends List<?>>> entry : sheetRows.entrySet()) {
+                int sheetIndex = entry.getKey();
+                int rowNum = Math.max(startRow, xssf.getSheetAt(sheetIndex).getLastRowNum() + 1);
+                SXSSFSheet sheet = workbook.getSheetAt(sheetIndex);
+                Iterator<? extends List<?>> rows = entry.getValue();
+                while (rows.hasNext()) {
+                    List<?> values = rows.next();
+                    Row row = sheet.createRow(rowNum++);
+                    if (values == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < values.size(); i++) {
+                        Object value = values.get(i);
+                        if (value == null) {
+                            continue;
+                        }
+                        Cell cell = row.createCell(i);
+                        if (value instanceof Number number) {
+                            cell.setCellValue(number.doubleValue());
+                        } else if (value instanceof Boolean bool) {
+                            cell.setCellValue(bool);
+                        } else if (value instanceof Date || value instanceof LocalDateTime || value instanceof LocalDate) {
+                            if (dateStyle == null) {
+                                dateStyle = workbook.createCellStyle();
+                                dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+                            }
+                            cell.setCellValue(toDate(value));
+                            cell.setCellStyle(dateStyle);
+                        } else {
+                            cell.setCellValue(value.toString());
+                        }
+                    }
+                }
+            }
+            // 创建父文件夹
+            outputFile.getParentFile().mkdirs();
+            out = new FileOutputStream(outputFile);
+            // 写出文件
+            workbook.write(out);
+            return outputFile;
+        } finally {
+            IOUtils.close(out);
+            // 删除临时文件
+            workbook.dispose();
+            IOUtils.close(workbook);
+        }
+    }
+
+    private static Date toDate(Object value) {
+        if (value instanceof LocalDateTime dateTime) {
+            return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+        }
+        if (value instanceof LocalDate date) {
+            return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+        return (Date) value;
+    }
+
     public static int getSheetCount(File excelFile) throws IOException {
         Workbook wb = WorkbookFactory.create(excelFile);
         try {
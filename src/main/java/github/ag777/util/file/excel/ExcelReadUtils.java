@@ -21,6 +21,7 @@ import java.util.*;
 
 /**
  * Excel文件读取工具类。
+ * <p>会把整个工作簿加载到内存中,大文件请使用 {@link ExcelStreamReadUtils} 逐行读取。</p>
  *
  * @see <a href="https://poi.apache.org/apidocs/org/apache/poi/ss/usermodel/">Apache POI官方文档</a>
  * @see <a href="https://segmentfault.com/a/1190000012165530">Apache POI 3.17版本更新内容</a>
@@ -188,6 +189,7 @@ public class ExcelReadUtils {
 	
 	/**
 	 * 读取工作簿,用的是抽象类的方法,不区分版本
+	 * <p>单线程逐个sheet读取,sheet较多的xlsx可使用 {@link ExcelStreamReadUtils#readParallel(String, String[][], boolean, int)}</p>
 	 * @param workBook 工作簿
 	 * @param sheetTitles 每个sheet对应的标题列表
 	 * @param isIgnoreFirstRow 是否跳过第一行(标题)的读取
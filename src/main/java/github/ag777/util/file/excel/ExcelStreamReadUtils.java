@@ -0,0 +1,564 @@
+package github.ag777.util.file.excel;
+
+import github.ag777.util.file.table.ColumnType;
+import github.ag777.util.file.table.ColumnarTable;
+import github.ag777.util.file.table.ColumnarTableBuilder;
+import github.ag777.util.lang.IOUtils;
+import github.ag777.util.lang.exception.Assert;
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Excel文件流式读取工具类。
+ * <p>
+ * 与 {@link ExcelReadUtils} 的 read/readSheetMap 保持相同的参数形式(标题数组、每个sheet的标题、是否跳过第一行)和相同的取值规则，
+ * 区别在于不构建整个工作簿对象，而是逐行回调：
+ * xlsx 基于XSSF事件模型，直接用SAX解析每个sheet的xml，内存中只保留共享字符串表和当前行；
+ * xls 最多65536行，仍通过 {@link WorkbookFactory} 读取后逐行回调。
+ * </p>
+ *
+ * <pre>{@code
+ * ExcelStreamReadUtils.read("big.xlsx", new String[]{"name", "age"}, true, (sheetIndex, sheetName, row) -> {
+ *     save(row);
+ *     return true;
+ * });
+ * }</pre>
+ *
+ * @author ag777 <837915770@vip.qq.com>
+ * @version 2026/10/16
+ */
+public class ExcelStreamReadUtils {
+
+	private ExcelStreamReadUtils() {}
+
+	/**
+	 * 行处理器
+	 */
+	@FunctionalInterface
+	public interface RowHandler {
+		/**
+		 * 处理一行数据
+		 * @param sheetIndex sheet下标
+		 * @param sheetName sheet名称
+		 * @param row 行数据,每次回调都是新的map,可以直接保留
+		 * @return 是否继续读取,返回false时立即停止
+		 */
+		boolean handle(int sheetIndex, String sheetName, Map<String, String> row);
+	}
+
+	/**
+	 * 流式读取所有sheet,行数据的key为列字母(a,b,c...),与 {@link ExcelReadUtils#readSheetMap(String, boolean)} 一致
+	 * @param filePath 文件路径
+	 * @param isIgnoreFirstRow 是否跳过第一行(标题)
+	 * @param handler 行处理器
+	 * @throws IOException 读取异常
+	 * @throws InvalidFormatException 工作簿格式不正确
+	 */
+	public static void readSheetMap(String filePath, boolean isIgnoreFirstRow, RowHandler handler) throws IOException, InvalidFormatException {
+		Assert.notEmpty(filePath, "参数文件路径不能为空");
+		Assert.notNull(handler, "行处理器不能为空");
+		read(filePath, Integer.MAX_VALUE, (sheetIndex, sheetName, rowIndex, cells) -> {
+			if (isIgnoreFirstRow && rowIndex == 0) {
+				return true;
+			}
+			return handler.handle(sheetIndex, sheetName, cells.toLetterMap());
+		});
+	}
+
+	/**
+	 * 流式读取第一个sheet,与 {@link ExcelReadUtils#read(String, String[], boolean)} 一致(已去除空数据行)
+	 * @param filePath excel文件路径
+	 * @param titles 转为map时对应的key
+	 * @param isIgnoreFirstRow 是否忽略第一行(有时候第一行是标题栏)
+	 * @param handler 行处理器
+	 * @throws IOException 读取异常
+	 * @throws InvalidFormatException 工作簿格式不正确
+	 */
+	public static void read(String filePath, String[] titles, boolean isIgnoreFirstRow, RowHandler handler) throws IOException, InvalidFormatException {
+		read(filePath, new String[][] {titles}, isIgnoreFirstRow, handler);
+	}
+
+	/**
+	 * 流式读取工作簿,与 {@link ExcelReadUtils#read(String, String[][], boolean)} 一致(已去除空数据行)
+	 * <p>sheet数量超过标题组数时,多出的sheet不读取</p>
+	 * @param filePath excel文件路径
+	 * @param sheetTitles 每个sheet对应的标题列表
+	 * @param isIgnoreFirstRow 是否忽略第一行(有时候第一行是标题栏)
+	 * @param handler 行处理器
+	 * @throws IOException 读取异常
+	 * @throws InvalidFormatException 工作簿格式不正确
+	 */
+	public static void read(String filePath, String[][] sheetTitles, boolean isIgnoreFirstRow, RowHandler handler) throws IOException, InvalidFormatException {
+		Assert.notEmpty(filePath, "参数文件路径不能为空");
+		Assert.notNull(sheetTitles, "标题不能为空");
+		Assert.notNull(handler, "行处理器不能为空");
+		read(filePath, sheetTitles.length, (sheetIndex, sheetName, rowIndex, cells) -> {
+			if (isIgnoreFirstRow && rowIndex == 0) {
+				return true;
+			}
+			Map<String, String> item = cells.toTitleMap(sheetTitles[sheetIndex]);
+			if (item == null) {	//排除空行
+				return true;
+			}
+			return handler.handle(sheetIndex, sheetName, item);
+		});
+	}
+
+	/**
+	 * 读取第一个sheet为列式表格,取值规则与 {@link ExcelReadUtils#read(String, String[], boolean)} 一致(已去除空数据行)
+	 * <p>单元格直接写入列数组,不为每行创建map,适合行数多、以数值为主的宽表</p>
+	 * @param filePath excel文件路径
+	 * @param titles 列名
+	 * @param types 列类型,与列名一一对应
+	 * @param isIgnoreFirstRow 是否忽略第一行(有时候第一行是标题栏)
+	 * @return 列式表格
+	 * @throws IOException 读取异常
+	 * @throws InvalidFormatException 工作簿格式不正确
+	 * @see ColumnarTable
+	 */
+	public static ColumnarTable readColumnar(String filePath, String[] titles, ColumnType[] types, boolean isIgnoreFirstRow) throws IOException, InvalidFormatException {
+		Assert.notEmpty(filePath, "参数文件路径不能为空");
+		ColumnarTableBuilder builder = new ColumnarTableBuilder(titles, types);
+		read(filePath, 1, (sheetIndex, sheetName, rowIndex, cells) -> {
+			if (isIgnoreFirstRow && rowIndex == 0) {
+				return true;
+			}
+			boolean flag = false;	//排除空行
+			for (int i = 0; i < cells.size(); i++) {
+				String value = cells.value(i);
+				if (cells.column(i) < titles.length && value != null) {
+					value = value.trim();
+					if (!value.isEmpty()) {
+						builder.set(cells.column(i), value);
+						flag = true;
+					}
+				}
+			}
+			if (flag) {
+				builder.endRow();
+			} else {
+				builder.discardRow();
+			}
+			return true;
+		});
+		return builder.build();
+	}
+
+	/**
+	 * 多线程读取工作簿,结果与 {@link ExcelReadUtils#read(String, String[][], boolean)} 一致(已去除空数据行,按sheet顺序排列)
+	 * <p>
+	 * xlsx 只解析一次共享字符串表,之后每个sheet的xml交给线程池中独立的线程解析,适合sheet较多的工作簿；
+	 * xls 不支持按sheet拆分,仍为单线程读取。
+	 * </p>
+	 * @param filePath excel文件路径
+	 * @param sheetTitles 每个sheet对应的标题列表
+	 * @param isIgnoreFirstRow 是否忽略第一行(有时候第一行是标题栏)
+	 * @param parallelism 最大并行线程数
+	 * @return 每个sheet中的记录
+	 * @throws IOException 读取异常
+	 * @throws InvalidFormatException 工作簿格式不正确
+	 */
+	public static List<List<Map<String, String>>> readParallel(String filePath, String[][] sheetTitles, boolean isIgnoreFirstRow, int parallelism) throws IOException, InvalidFormatException {
+		Assert.notEmpty(filePath, "参数文件路径不能为空");
+		Assert.notNull(sheetTitles, "标题不能为空");
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("并行线程数必须大于0");
+		}
+		if (!ExcelReadUtils.isExcel2007(filePath)) {
+			return ExcelReadUtils.read(filePath, sheetTitles, isIgnoreFirstRow);
+		}
+		List<InputStream> sheetStreams = new ArrayList<>();
+		List<String> sheetNames = new ArrayList<>();
+		ExecutorService pool = null;
+		try (OPCPackage pkg = OPCPackage.open(new File(filePath), PackageAccess.READ)) {
+			ReadOnlySharedStringsTable sst = new ReadOnlySharedStringsTable(pkg);
+			XSSFReader reader = new XSSFReader(pkg);
+			XSSFReader.SheetIterator itor = (XSSFReader.SheetIterator) reader.getSheetsData();
+			while (itor.hasNext() && sheetStreams.size() < sheetTitles.length) {
+				sheetStreams.add(itor.next());
+				sheetNames.add(itor.getSheetName());
+			}
+			pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, sheetStreams.size())));
+			List<Future<List<Map<String, String>>>> futures = new ArrayList<>(sheetStreams.size());
+			for (int i = 0; i < sheetStreams.size(); i++) {
+				int sheetIndex = i;
+				futures.add(pool.submit(() -> {
+					List<Map<String, String>> rows = new ArrayList<>();
+					parseSheet(sheetStreams.get(sheetIndex), sst, sheetIndex, sheetNames.get(sheetIndex),
+							titleCollector(sheetTitles[sheetIndex], isIgnoreFirstRow, rows));
+					return rows;
+				}));
+			}
+			List<List<Map<String, String>>> sheetList = new ArrayList<>(futures.size());
+			for (Future<List<Map<String, String>>> future : futures) {
+				sheetList.add(future.get());
+			}
+			return sheetList;
+		} catch (SAXException | OpenXML4JException e) {
+			throw new IOException("解析工作簿失败:" + e.getMessage(), e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("读取工作簿时被中断", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException ioe) {
+				throw ioe;
+			}
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new IOException("解析工作簿失败:" + cause.getMessage(), cause);
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+			for (InputStream sheetStream : sheetStreams) {
+				IOUtils.close(sheetStream);
+			}
+		}
+	}
+
+	/**
+	 * 将按标题映射的行收集到列表中
+	 */
+	private static CellRowHandler titleCollector(String[] titles, boolean isIgnoreFirstRow, List<Map<String, String>> rows) {
+		return (sheetIndex, sheetName, rowIndex, cells) -> {
+			if (isIgnoreFirstRow && rowIndex == 0) {
+				return true;
+			}
+			Map<String, String> item = cells.toTitleMap(titles);
+			if (item != null) {	//排除空行
+				rows.add(item);
+			}
+			return true;
+		};
+	}
+
+	/**
+	 * 按文件类型选择读取方式
+	 * @param maxSheetCount 最多读取的sheet数
+	 */
+	private static void read(String filePath, int maxSheetCount, CellRowHandler handler) throws IOException, InvalidFormatException {
+		if (ExcelReadUtils.isExcel2007(filePath)) {
+			readXlsx(filePath, maxSheetCount, handler);
+		} else {
+			readWorkBook(filePath, maxSheetCount, handler);
+		}
+	}
+
+	/**
+	 * 基于XSSF事件模型读取xlsx,每个sheet的xml都用SAX解析
+	 */
+	private static void readXlsx(String filePath, int maxSheetCount, CellRowHandler handler) throws IOException, InvalidFormatException {
+		try (OPCPackage pkg = OPCPackage.open(new File(filePath), PackageAccess.READ)) {
+			ReadOnlySharedStringsTable sst = new ReadOnlySharedStringsTable(pkg);
+			XSSFReader reader = new XSSFReader(pkg);
+			XSSFReader.SheetIterator itor = (XSSFReader.SheetIterator) reader.getSheetsData();
+			int sheetIndex = 0;
+			while (itor.hasNext() && sheetIndex < maxSheetCount) {
+				try (InputStream sheetStream = itor.next()) {
+					if (!parseSheet(sheetStream, sst, sheetIndex, itor.getSheetName(), handler)) {
+						return;
+					}
+				}
+				sheetIndex++;
+			}
+		} catch (SAXException | OpenXML4JException e) {
+			throw new IOException("解析工作簿失败:" + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 解析单个sheet的xml
+	 * @return 是否继续读取后续sheet
+	 */
+	static boolean parseSheet(InputStream sheetStream, ReadOnlySharedStringsTable sst, int sheetIndex, String sheetName, CellRowHandler handler) throws IOException, SAXException {
+		SheetHandler sheetHandler = new SheetHandler(sst, sheetIndex, sheetName, handler);
+		XMLReader xmlReader = newXmlReader();
+		xmlReader.setContentHandler(sheetHandler);
+		try {
+			xmlReader.parse(new InputSource(sheetStream));
+		} catch (StopReadingException e) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * xls没有事件模型下的随机读取支持,行数也有上限,直接读取工作簿后逐行回调
+	 */
+	private static void readWorkBook(String filePath, int maxSheetCount, CellRowHandler handler) throws IOException, EncryptedDocumentException {
+		try (Workbook workBook = WorkbookFactory.create(new File(filePath), null, true)) {
+			CellRow cells = new CellRow();
+			for (int sheetIndex = 0; sheetIndex < workBook.getNumberOfSheets() && sheetIndex < maxSheetCount; sheetIndex++) {
+				Sheet sheet = workBook.getSheetAt(sheetIndex);
+				Iterator<Row> itorRow = sheet.rowIterator();
+				while (itorRow.hasNext()) {
+					Row row = itorRow.next();
+					cells.clear();
+					Iterator<Cell> itorCell = row.cellIterator();
+					while (itorCell.hasNext()) {
+						Cell cell = itorCell.next();
+						cells.add(cell.getColumnIndex(), ExcelReadUtils.getValue(cell));
+					}
+					if (!handler.handle(sheetIndex, sheet.getSheetName(), row.getRowNum(), cells)) {
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	private static XMLReader newXmlReader() throws SAXException {
+		try {
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(true);
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+			return factory.newSAXParser().getXMLReader();
+		} catch (ParserConfigurationException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	/**
+	 * 单元格行处理器,cells只在回调期间有效
+	 */
+	@FunctionalInterface
+	interface CellRowHandler {
+		boolean handle(int sheetIndex, String sheetName, int rowIndex, CellRow cells);
+	}
+
+	/**
+	 * 一行中存在的单元格(列下标及取值),按行复用
+	 */
+	static class CellRow {
+		private int[] columns = new int[16];
+		private String[] values = new String[16];
+		private int size;
+
+		void clear() {
+			size = 0;
+		}
+
+		int size() {
+			return size;
+		}
+
+		int column(int i) {
+			return columns[i];
+		}
+
+		String value(int i) {
+			return values[i];
+		}
+
+		void add(int column, String value) {
+			if (size == columns.length) {
+				columns = Arrays.copyOf(columns, size << 1);
+				values = Arrays.copyOf(values, size << 1);
+			}
+			columns[size] = column;
+			values[size] = value;
+			size++;
+		}
+
+		/**
+		 * 与 {@link ExcelReadUtils#getRowList} 一致,key为列字母
+		 */
+		Map<String, String> toLetterMap() {
+			Map<String, String> rowMap = new LinkedHashMap<>(size);
+			for (int i = 0; i < size; i++) {
+				rowMap.put(String.valueOf((char) ('a' + columns[i])), values[i]);
+			}
+			return rowMap;
+		}
+
+		/**
+		 * 与 {@link ExcelReadUtils#readWorkBook(Workbook, String[][], boolean)} 一致
+		 * @return 空行返回null
+		 */
+		Map<String, String> toTitleMap(String[] titles) {
+			Map<String, String> item = new HashMap<>();
+			boolean flag = false;	//排除空行
+			int i = 0;
+			for (int index = 0; index < titles.length; index++) {
+				while (i < size && columns[i] < index) {
+					i++;
+				}
+				String value = null;
+				if (i < size && columns[i] == index) {
+					value = values[i];
+					if (value != null) {
+						value = value.trim();
+						if (!value.isEmpty()) {	//一行当中只要有一个单元格数据不为空则视为有效行(非空行)
+							flag = true;
+						}
+					}
+				}
+				item.put(titles[index], value);
+			}
+			return flag ? item : null;
+		}
+	}
+
+	/**
+	 * 回调要求停止时用于中断SAX解析
+	 */
+	private static class StopReadingException extends SAXException {
+		StopReadingException() {
+			super("停止读取");
+		}
+	}
+
+	/**
+	 * sheet的SAX处理器,只关心row/c/v/is/t节点,取值规则与 {@link ExcelReadUtils#getValue(Cell)} 一致
+	 */
+	private static class SheetHandler extends DefaultHandler {
+		private final ReadOnlySharedStringsTable sst;
+		private final int sheetIndex;
+		private final String sheetName;
+		private final CellRowHandler handler;
+		private final CellRow cells = new CellRow();
+		private final StringBuilder text = new StringBuilder();
+
+		private int rowIndex = -1;
+		private int column = -1;
+		private String cellType;
+		private boolean inValue;
+		// 内联字符串<is>中的<t>,跳过注音<rPh>中的<t>
+		private boolean inInlineText;
+		private boolean inPhonetic;
+		private boolean hasValue;
+
+		SheetHandler(ReadOnlySharedStringsTable sst, int sheetIndex, String sheetName, CellRowHandler handler) {
+			this.sst = sst;
+			this.sheetIndex = sheetIndex;
+			this.sheetName = sheetName;
+			this.handler = handler;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			switch (localName) {
+				case "row" -> {
+					String r = attributes.getValue("r");
+					rowIndex = r != null ? Integer.parseInt(r) - 1 : rowIndex + 1;
+					column = -1;
+					cells.clear();
+				}
+				case "c" -> {
+					String r = attributes.getValue("r");
+					column = r != null ? columnIndex(r) : column + 1;
+					cellType = attributes.getValue("t");
+					text.setLength(0);
+					hasValue = false;
+				}
+				case "v" -> {
+					inValue = true;
+					hasValue = true;
+				}
+				case "rPh" -> inPhonetic = true;
+				case "t" -> {
+					if (!inPhonetic && "inlineStr".equals(cellType)) {
+						inInlineText = true;
+						hasValue = true;
+					}
+				}
+				default -> {
+				}
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (inValue || inInlineText) {
+				text.append(ch, start, length);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			switch (localName) {
+				case "v" -> inValue = false;
+				case "t" -> inInlineText = false;
+				case "rPh" -> inPhonetic = false;
+				case "c" -> cells.add(column, hasValue ? toValue() : null);
+				case "row" -> {
+					if (!handler.handle(sheetIndex, sheetName, rowIndex, cells)) {
+						throw new StopReadingException();
+					}
+				}
+				default -> {
+				}
+			}
+		}
+
+		private String toValue() {
+			String raw = text.toString();
+			String result;
+			if (cellType == null || "n".equals(cellType)) {
+				if (raw.isEmpty()) {
+					return null;
+				}
+				double num = Double.parseDouble(raw);
+				result = (long) num == num ? String.valueOf((long) num) : String.valueOf(num);
+			} else if ("s".equals(cellType)) {
+				result = sst.getItemAt(Integer.parseInt(raw.trim())).getString();
+			} else if ("b".equals(cellType)) {
+				result = String.valueOf("1".equals(raw));
+			} else {	// inlineStr、str(公式字符串)、e(错误)、d(日期文本)
+				result = raw;
+			}
+			return result == null || result.isEmpty() ? null : result;
+		}
+
+		/**
+		 * 单元格引用(如AB12)转列下标(从0开始)
+		 */
+		private static int columnIndex(String ref) {
+			int index = 0;
+			for (int i = 0; i < ref.length(); i++) {
+				char c = ref.charAt(i);
+				if (c < 'A' || c > 'Z') {
+					break;
+				}
+				index = index * 26 + (c - 'A' + 1);
+			}
+			return index - 1;
+		}
+	}
+}
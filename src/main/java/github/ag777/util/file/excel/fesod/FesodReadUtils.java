@@ -1,10 +1,15 @@
 package github.ag777.util.file.excel.fesod;
 
 import github.ag777.util.file.FileUtils;
+import github.ag777.util.file.excel.fesod.listener.PipelinedBatchReadListener;
 import github.ag777.util.file.excel.fesod.listener.TolerantReadListener;
+import github.ag777.util.file.table.ColumnType;
+import github.ag777.util.file.table.ColumnarTable;
+import github.ag777.util.file.table.ColumnarTableBuilder;
 import github.ag777.util.lang.collection.CollectionAndMapUtils;
 import github.ag777.util.lang.exception.Assert;
 import github.ag777.util.lang.type.impl.StringInt;
+import org.apache.fesod.sheet.ExcelReader;
 import org.apache.fesod.sheet.FesodSheet;
 import org.apache.fesod.sheet.context.AnalysisContext;
 import org.apache.fesod.sheet.enums.ReadDefaultReturnEnum;
@@ -13,19 +18,26 @@ import org.apache.fesod.sheet.read.builder.ExcelReaderBuilder;
 import org.apache.fesod.sheet.read.builder.ExcelReaderSheetBuilder;
 import org.apache.fesod.sheet.read.listener.PageReadListener;
 import org.apache.fesod.sheet.read.listener.ReadListener;
+import org.apache.fesod.sheet.read.metadata.ReadSheet;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * 基于 Apache Fesod 的 Excel 读取工具类。
  * <p>
  * 所有方法均为同步阻塞读取。{@code read*} 系列一次性返回完整结果；
  * {@link #readEach}、{@link #readBatch} 为流式（监听器）回调方式，
- * 边解析边消费，内存占用低，适合大文件，但方法返回时同样意味着解析已完成。
+ * 边解析边消费，内存占用低，适合大文件，但方法返回时同样意味着解析已完成；
+ * {@link #readBatchPipelined} 在此基础上把批次处理移到消费线程，解析与批次处理重叠。
  * Sheet 定位使用 {@link StringInt}，传入 {@link StringInt#of(Integer)} 为下标，
  * {@link StringInt#of(String)} 为名称；省略时默认第一个 Sheet。
  * </p>
@@ -129,6 +141,51 @@ public class FesodReadUtils {
         return emptyIfNull(list);
     }
 
+    /**
+     * 多线程读取所有 Sheet，返回按 Sheet 顺序合并后的 POJO 列表。
+     * <p>每个 Sheet 由线程池中独立的读取器解析，适合 Sheet 较多的工作簿；
+     * Fesod 不支持在读取器之间共享字符串表，每个读取器会各自解析一次，Sheet 很少时请直接使用 {@link #readAllSheets(String, Class)}。</p>
+     *
+     * @param parallelism 最大并行线程数
+     */
+    public static <T> List<T> readAllSheets(String filePath, Class<T> headClass, int parallelism) {
+        Assert.notBlank(filePath, "文件路径不能为空");
+        Assert.notNull(headClass, "数据类型不能为空");
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行线程数必须大于0");
+        }
+        List<ReadSheet> sheets;
+        try (ExcelReader reader = FesodSheet.read(filePath).build()) {
+            sheets = reader.excelExecutor().sheetList();
+        }
+        if (parallelism == 1 || sheets.size() <= 1) {
+            return readAllSheets(filePath, headClass);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, sheets.size()));
+        try {
+            List<Future<List<T>>> futures = new ArrayList<>(sheets.size());
+            for (ReadSheet readSheet : sheets) {
+                Integer sheetNo = readSheet.getSheetNo();
+                futures.add(pool.submit(() -> read(filePath, headClass, StringInt.of(sheetNo))));
+            }
+            List<T> list = new ArrayList<>();
+            for (Future<List<T>> future : futures) {
+                list.addAll(future.get());
+            }
+            return list;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("读取被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("读取 Sheet 失败", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
     /**
      * 通过 classpath 或文件系统路径读取第一个 Sheet。
      */
@@ -225,6 +282,57 @@ public class FesodReadUtils {
         return toObjectMaps(rawRows, titles);
     }
 
+    /**
+     * 无 POJO，按指定标题和列类型读取为列式表格，全空行会被丢弃。
+     * <p>与 {@link #readMap} 的取值规则相同，但边解析边写入列数组，不保留每行的 Map，适合行数多、以数值为主的宽表。</p>
+     *
+     * @param titles         列标题，顺序对应 Excel 列索引
+     * @param types          列类型，与标题一一对应
+     * @param ignoreFirstRow 是否跳过第一行（通常为表头行）
+     * @see ColumnarTable
+     */
+    public static ColumnarTable readColumnar(String filePath, String[] titles, ColumnType[] types, boolean ignoreFirstRow) {
+        return readColumnar(filePath, titles, types, ignoreFirstRow, null);
+    }
+
+    /**
+     * 无 POJO，按指定标题和列类型读取指定 Sheet 为列式表格。
+     */
+    public static ColumnarTable readColumnar(String filePath, String[] titles, ColumnType[] types, boolean ignoreFirstRow, StringInt sheet) {
+        Assert.notBlank(filePath, "文件路径不能为空");
+        Assert.notEmpty(titles, "标题不能为空");
+        ColumnarTableBuilder builder = new ColumnarTableBuilder(titles, types);
+        ReadListener<Map<Integer, Object>> listener = new ReadListener<>() {
+            @Override
+            public void invoke(Map<Integer, Object> data, AnalysisContext context) {
+                boolean hasValue = false;
+                for (Map.Entry<Integer, Object> entry : data.entrySet()) {
+                    Object value = entry.getValue();
+                    if (entry.getKey() < titles.length && value != null && !value.toString().trim().isEmpty()) {
+                        builder.set(entry.getKey(), value);
+                        hasValue = true;
+                    }
+                }
+                if (hasValue) {
+                    builder.endRow();
+                } else {
+                    builder.discardRow();
+                }
+            }
+
+            @Override
+            public void doAfterAllAnalysed(AnalysisContext context) {
+            }
+        };
+        sheet(
+                FesodSheet.read(filePath, listener)
+                        .readDefaultReturn(ReadDefaultReturnEnum.ACTUAL_DATA)
+                        .headRowNumber(ignoreFirstRow ? 1 : 0),
+                sheet
+        ).doRead();
+        return builder.build();
+    }
+
     /* ======================== 流式读取 ======================== */
 
     /**
@@ -310,8 +418,82 @@ public class FesodReadUtils {
         ).doRead();
     }
 
+    /**
+     * 流水线分批读取：解析线程攒批放入有界队列，由多个消费线程并行处理批次，批次处理（如写库）与解析重叠。
+     * <p>队列深度默认为消费线程数的两倍，批次处理顺序不保证；需要按读取顺序提交时使用分处理、提交两段的重载。</p>
+     *
+     * @param workers 消费线程数
+     * @see PipelinedBatchReadListener
+     */
+    public static <T> void readBatchPipelined(String filePath, Class<T> headClass, Consumer<List<T>> batchConsumer, int workers) {
+        readBatchPipelined(filePath, headClass, null, batchConsumer, DEFAULT_BATCH_SIZE, workers, workers * 2);
+    }
+
+    /**
+     * 流水线分批读取指定 Sheet。
+     * <p>队列满时解析等待（背压）；任一批次处理失败后解析随即停止，方法抛出处理器的异常。
+     * 方法返回时所有批次均已处理完成。</p>
+     *
+     * @param batchConsumer 批次处理器，workers 大于 1 时会被并发调用
+     * @param workers       消费线程数，为 1 时批次按读取顺序处理
+     * @param queueDepth    待处理批次队列深度
+     * @see PipelinedBatchReadListener
+     */
+    public static <T> void readBatchPipelined(
+            String filePath,
+            Class<T> headClass,
+            StringInt sheet,
+            Consumer<List<T>> batchConsumer,
+            int batchSize,
+            int workers,
+            int queueDepth) {
+        Assert.notBlank(filePath, "文件路径不能为空");
+        Assert.notNull(headClass, "数据类型不能为空");
+        Assert.notNull(batchConsumer, "批次处理器不能为空");
+        readPipelined(filePath, headClass, sheet, new PipelinedBatchReadListener<>(batchConsumer, batchSize, workers, queueDepth));
+    }
+
+    /**
+     * 流水线分批读取，批次处理分为并行的处理和串行的提交两段。
+     * <p>处理（如转换、调用接口）在多个消费线程中并行执行，提交（如写库）串行执行；
+     * ordered 为 true 时按读取顺序提交，否则按处理完成的顺序提交。方法返回时所有批次均已提交。</p>
+     *
+     * @param processor  批次处理，workers 大于 1 时会被并发调用
+     * @param committer  提交处理结果，串行调用
+     * @param workers    消费线程数
+     * @param queueDepth 待处理批次队列深度
+     * @param ordered    是否按读取顺序提交
+     * @see PipelinedBatchReadListener
+     */
+    public static <T, R> void readBatchPipelined(
+            String filePath,
+            Class<T> headClass,
+            StringInt sheet,
+            Function<List<T>, R> processor,
+            Consumer<R> committer,
+            int batchSize,
+            int workers,
+            int queueDepth,
+            boolean ordered) {
+        Assert.notBlank(filePath, "文件路径不能为空");
+        Assert.notNull(headClass, "数据类型不能为空");
+        Assert.notNull(processor, "批次处理器不能为空");
+        readPipelined(filePath, headClass, sheet,
+                new PipelinedBatchReadListener<>(processor, committer, batchSize, workers, queueDepth, ordered));
+    }
+
     /* ======================== 内部辅助 ======================== */
 
+    private static <T> void readPipelined(String filePath, Class<T> headClass, StringInt sheet, PipelinedBatchReadListener<T> listener) {
+        RuntimeException readError = null;
+        try {
+            sheet(FesodSheet.read(filePath, headClass, listener), sheet).doRead();
+        } catch (RuntimeException e) {
+            readError = e;
+        }
+        listener.finish(readError);
+    }
+
     private static List<Map<Integer, String>> readRawStringRows(String filePath, StringInt sheet, int headRowNumber) {
         List<Map<Integer, String>> list = sheet(
                 FesodSheet.read(filePath)
@@ -0,0 +1,308 @@
+package github.ag777.util.file.excel.fesod.listener;
+
+import org.apache.fesod.sheet.context.AnalysisContext;
+import org.apache.fesod.sheet.read.listener.ReadListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 流水线分批读取监听器：解析线程只负责攒批并放入有界队列，由若干消费线程取出批次调用处理器。
+ * <p>
+ * 与 {@link org.apache.fesod.sheet.read.listener.PageReadListener} 不同，批次处理（如写库）不再阻塞解析，
+ * 解析与 I/O 可以重叠；队列满时解析线程等待（背压），内存中最多只有 队列深度 + 消费线程数 + 1 个批次。
+ * 任一批次处理失败后，解析在下一行停止，剩余批次不再处理，{@link #finish(RuntimeException)} 抛出该异常。
+ * 消费线程在第一个批次入队时才启动，监听器创建后未开始读取不会占用线程。
+ * </p>
+ * <p>
+ * 批次处理可拆成两段：处理（转换、调用接口等）在多个消费线程中并行执行，提交（写库、写文件等）串行执行。
+ * 有序模式下提交按读取顺序进行，先处理完的批次等待前面的批次提交后再提交；
+ * 此时已读取未提交的批次同样不超过 队列深度 + 消费线程数 个。失败后不再提交任何批次。
+ * 只传单个批次处理器时不区分两段，消费线程数大于 1 时处理顺序不保证。
+ * </p>
+ *
+ * <pre>{@code
+ * PipelinedBatchReadListener<DemoExcelData> listener = new PipelinedBatchReadListener<>(
+ *         batch -> toEntities(batch), entities -> dao.insert(entities), 500, 4, 8, true);
+ * RuntimeException readError = null;
+ * try {
+ *     FesodSheet.read("big.xlsx", DemoExcelData.class, listener).sheet().doRead();
+ * } catch (RuntimeException e) {
+ *     readError = e;
+ * }
+ * listener.finish(readError);
+ * }</pre>
+ *
+ * @param <T> 行数据类型
+ * @author ag777 <837915770@vip.qq.com>
+ * @version 2026/10/16
+ */
+public class PipelinedBatchReadListener<T> implements ReadListener<T> {
+
+    /** 结束标记，每个消费线程取到一个后退出 */
+    private static final Batch END = new Batch(-1, new ArrayList<>(0));
+    /** 处理结果为 null 时在待提交表中的占位 */
+    private static final Object NULL_RESULT = new Object();
+
+    private final Function<List<T>, Object> processor;
+    private final Consumer<Object> committer;
+    private final boolean ordered;
+    private final int batchSize;
+    private final BlockingQueue<Batch> queue;
+    private final Thread[] workers;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private List<T> batch;
+    private long nextSeq;
+    private boolean started;
+    private boolean finished;
+
+    /** 有序模式下限制已读取未提交的批次数 */
+    private final Semaphore window;
+    private final Object commitLock = new Object();
+    private final Map<Long, Object> processed = new HashMap<>();
+    private long nextCommit;
+    private boolean committing;
+
+    private record Batch(long seq, List<?> items) {
+    }
+
+    /**
+     * @param batchConsumer 批次处理器，会在消费线程中调用，workers 大于 1 时需线程安全
+     * @param batchSize     批次大小
+     * @param workers       消费线程数
+     * @param queueDepth    待处理批次队列深度
+     */
+    public PipelinedBatchReadListener(Consumer<List<T>> batchConsumer, int batchSize, int workers, int queueDepth) {
+        this(items -> {
+            batchConsumer.accept(items);
+            return null;
+        }, null, batchSize, workers, queueDepth, false);
+    }
+
+    /**
+     * @param processor  批次处理，在消费线程中并行调用，需线程安全
+     * @param committer  提交处理结果，串行调用，可为 null
+     * @param batchSize  批次大小
+     * @param workers    消费线程数
+     * @param queueDepth 待处理批次队列深度
+     * @param ordered    是否按读取顺序提交，否则按处理完成的顺序提交
+     * @param <R>        处理结果类型
+     */
+    @SuppressWarnings("unchecked")
+    public <R> PipelinedBatchReadListener(Function<List<T>, R> processor, Consumer<R> committer,
+                                          int batchSize, int workers, int queueDepth, boolean ordered) {
+        if (processor == null) {
+            throw new IllegalArgumentException("批次处理器不能为空");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("批次大小必须大于0");
+        }
+        if (workers <= 0) {
+            throw new IllegalArgumentException("消费线程数必须大于0");
+        }
+        if (queueDepth <= 0) {
+            throw new IllegalArgumentException("队列深度必须大于0");
+        }
+        this.processor = (Function<List<T>, Object>) processor;
+        this.committer = (Consumer<Object>) committer;
+        this.ordered = ordered;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueDepth);
+        this.batch = new ArrayList<>(batchSize);
+        this.workers = new Thread[workers];
+        this.window = ordered ? new Semaphore(queueDepth + workers) : null;
+    }
+
+    @Override
+    public void invoke(T data, AnalysisContext context) {
+        throwIfFailed();
+        batch.add(data);
+        if (batch.size() >= batchSize) {
+            enqueue(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    @Override
+    public boolean hasNext(AnalysisContext context) {
+        // 批次处理失败后不再继续解析
+        return failure.get() == null;
+    }
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {
+        if (!batch.isEmpty() && failure.get() == null) {
+            enqueue(batch);
+        }
+        batch = new ArrayList<>(0);
+    }
+
+    /**
+     * 等待所有批次处理完成并结束消费线程，读取结束后（无论成功与否）必须调用，重复调用只会再次抛出已记录的异常。
+     *
+     * @param readError 读取过程中抛出的异常，没有则为 null；有值时剩余批次不再处理
+     * @throws RuntimeException 批次处理失败时抛出处理器的异常，否则抛出 readError
+     */
+    public void finish(RuntimeException readError) {
+        if (readError != null) {
+            failure.compareAndSet(null, readError);
+        }
+        if (finished) {
+            throwIfFailed();
+            return;
+        }
+        finished = true;
+        if (!started) {
+            // 没有批次入队过，消费线程未启动
+            throwIfFailed();
+            return;
+        }
+        boolean interrupted = false;
+        for (int i = 0; i < workers.length; i++) {
+            try {
+                queue.put(END);
+            } catch (InterruptedException e) {
+                interrupted = true;
+                failure.compareAndSet(null, new IllegalStateException("等待批次处理时被中断", e));
+                // 消费线程持续取队列，被中断后改为不限时重试，保证每个消费线程都能收到结束标记
+                i--;
+            }
+        }
+        for (Thread worker : workers) {
+            while (true) {
+                try {
+                    worker.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        throwIfFailed();
+    }
+
+    private void startWorkers() {
+        started = true;
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = Thread.ofPlatform().name("fesod-batch-" + i).daemon(true).start(this::drain);
+        }
+    }
+
+    private void enqueue(List<T> items) {
+        if (!started) {
+            startWorkers();
+        }
+        Batch next = new Batch(nextSeq++, items);
+        try {
+            // 有序模式先占用提交窗口，排在慢批次之后已处理完的批次不会无限堆积
+            while (window != null && !window.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                throwIfFailed();
+            }
+            // 队列满时等待消费，同时检查是否已有批次失败，避免消费线程全部退出后无限等待
+            while (!queue.offer(next, 100, TimeUnit.MILLISECONDS)) {
+                throwIfFailed();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            IllegalStateException ex = new IllegalStateException("读取被中断", e);
+            failure.compareAndSet(null, ex);
+            throw ex;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        while (true) {
+            Batch next;
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, new IllegalStateException("批次处理线程被中断", e));
+                return;
+            }
+            if (next == END) {
+                return;
+            }
+            if (failure.get() != null) {
+                // 已失败，只清空队列，等待结束标记
+                continue;
+            }
+            try {
+                commit(next.seq(), processor.apply((List<T>) next.items()));
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        }
+    }
+
+    /**
+     * 提交处理结果：无序模式直接提交，有序模式暂存后按序号依次提交。
+     * 提交始终串行；有序模式下由恰好补齐序号的线程负责提交，其余线程放下结果后继续处理下一批。
+     */
+    private void commit(long seq, Object result) {
+        if (!ordered) {
+            synchronized (commitLock) {
+                if (committer != null && failure.get() == null) {
+                    committer.accept(result);
+                }
+            }
+            return;
+        }
+        synchronized (commitLock) {
+            processed.put(seq, result == null ? NULL_RESULT : result);
+            if (committing) {
+                return;
+            }
+            committing = true;
+        }
+        while (true) {
+            Object ready;
+            synchronized (commitLock) {
+                ready = processed.remove(nextCommit);
+                if (ready == null) {
+                    committing = false;
+                    return;
+                }
+                nextCommit++;
+            }
+            try {
+                if (committer != null && failure.get() == null) {
+                    committer.accept(ready == NULL_RESULT ? null : ready);
+                }
+            } catch (Throwable t) {
+                synchronized (commitLock) {
+                    committing = false;
+                }
+                throw t;
+            } finally {
+                window.release();
+            }
+        }
+    }
+
+    private void throwIfFailed() {
+        Throwable t = failure.get();
+        if (t == null) {
+            return;
+        }
+        if (t instanceof RuntimeException re) {
+            throw re;
+        }
+        if (t instanceof Error err) {
+            throw err;
+        }
+        throw new IllegalStateException("批次处理失败", t);
+    }
+}
@@ -0,0 +1,276 @@
+package github.ag777.util.file.table;
+
+import java.util.BitSet;
+
+/**
+ * 列式表格中的一列，数值列以基本类型数组存储，字符串列做字典编码，空值统一记录在位图中。
+ * <p>
+ * 列对象构建后不可变，按列类型转为对应子类读取：
+ * </p>
+ *
+ * <pre>{@code
+ * Column.DoubleColumn price = (Column.DoubleColumn) table.column("价格");
+ * for (int row = 0; row < price.size(); row++) {
+ *     if (!price.isNull(row)) {
+ *         total += price.getDouble(row);
+ *     }
+ * }
+ * }</pre>
+ *
+ * @author ag777 <837915770@vip.qq.com>
+ * @version 2026/10/16
+ */
+public abstract class Column {
+
+    private final String name;
+    private final int size;
+    /** 空值位图，置位表示该行为空 */
+    private final BitSet nulls;
+
+    Column(String name, int size, BitSet nulls) {
+        this.name = name;
+        this.size = size;
+        this.nulls = nulls;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public abstract ColumnType type();
+
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    /**
+     * 非空值个数。
+     */
+    public int count() {
+        return size - nulls.cardinality();
+    }
+
+    /**
+     * 以装箱对象读取，空值返回 null；遍历大量数据时请使用子类的基本类型方法。
+     */
+    public abstract Object get(int row);
+
+    /**
+     * 按行下标取出子集，生成新列。
+     */
+    abstract Column select(int[] rows, int count);
+
+    BitSet selectNulls(int[] rows, int count) {
+        BitSet selected = new BitSet(count);
+        for (int i = 0; i < count; i++) {
+            if (nulls.get(rows[i])) {
+                selected.set(i);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 数值列，统一提供 {@code double} 读取，便于聚合。
+     */
+    public abstract static class NumericColumn extends Column {
+
+        NumericColumn(String name, int size, BitSet nulls) {
+            super(name, size, nulls);
+        }
+
+        /**
+         * 以 double 读取，空值行的返回值无意义，调用前需判断 {@link #isNull(int)}。
+         */
+        public abstract double getDouble(int row);
+    }
+
+    /**
+     * {@code int} 列。
+     */
+    public static final class IntColumn extends NumericColumn {
+        private final int[] values;
+
+        IntColumn(String name, int size, BitSet nulls, int[] values) {
+            super(name, size, nulls);
+            this.values = values;
+        }
+
+        @Override
+        public ColumnType type() {
+            return ColumnType.INT;
+        }
+
+        public int getInt(int row) {
+            return values[row];
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Object get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        Column select(int[] rows, int count) {
+            int[] selected = new int[count];
+            for (int i = 0; i < count; i++) {
+                selected[i] = values[rows[i]];
+            }
+            return new IntColumn(name(), count, selectNulls(rows, count), selected);
+        }
+    }
+
+    /**
+     * {@code long} 列。
+     */
+    public static final class LongColumn extends NumericColumn {
+        private final long[] values;
+
+        LongColumn(String name, int size, BitSet nulls, long[] values) {
+            super(name, size, nulls);
+            this.values = values;
+        }
+
+        @Override
+        public ColumnType type() {
+            return ColumnType.LONG;
+        }
+
+        public long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Object get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        Column select(int[] rows, int count) {
+            long[] selected = new long[count];
+            for (int i = 0; i < count; i++) {
+                selected[i] = values[rows[i]];
+            }
+            return new LongColumn(name(), count, selectNulls(rows, count), selected);
+        }
+    }
+
+    /**
+     * {@code double} 列。
+     */
+    public static final class DoubleColumn extends NumericColumn {
+        private final double[] values;
+
+        DoubleColumn(String name, int size, BitSet nulls, double[] values) {
+            super(name, size, nulls);
+            this.values = values;
+        }
+
+        @Override
+        public ColumnType type() {
+            return ColumnType.DOUBLE;
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Object get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        Column select(int[] rows, int count) {
+            double[] selected = new double[count];
+            for (int i = 0; i < count; i++) {
+                selected[i] = values[rows[i]];
+            }
+            return new DoubleColumn(name(), count, selectNulls(rows, count), selected);
+        }
+    }
+
+    /**
+     * 字典编码的字符串列，每行只存一个 {@code int} 编码。
+     */
+    public static final class StringColumn extends Column {
+        private final int[] codes;
+        private final String[] dictionary;
+
+        StringColumn(String name, int size, BitSet nulls, int[] codes, String[] dictionary) {
+            super(name, size, nulls);
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public ColumnType type() {
+            return ColumnType.STRING;
+        }
+
+        /**
+         * 获取该行的字典编码，空值为 -1。
+         */
+        public int getCode(int row) {
+            return codes[row];
+        }
+
+        /**
+         * 查找字符串对应的字典编码，不存在时返回 -1。
+         */
+        public int codeOf(String value) {
+            for (int i = 0; i < dictionary.length; i++) {
+                if (dictionary[i].equals(value)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 字典中不同字符串的个数。
+         */
+        public int dictionarySize() {
+            return dictionary.length;
+        }
+
+        public String dictionaryValue(int code) {
+            return dictionary[code];
+        }
+
+        public String getString(int row) {
+            int code = codes[row];
+            return code < 0 ? null : dictionary[code];
+        }
+
+        @Override
+        public Object get(int row) {
+            return getString(row);
+        }
+
+        @Override
+        Column select(int[] rows, int count) {
+            int[] selected = new int[count];
+            for (int i = 0; i < count; i++) {
+                selected[i] = codes[rows[i]];
+            }
+            // 字典保持不变，未被选中的值仍占位，换取不必重新编码
+            return new StringColumn(name(), count, selectNulls(rows, count), selected, dictionary);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package github.ag777.util.file.table;
+
+/**
+ * 列式表格的列类型。
+ *
+ * @author ag777 <837915770@vip.qq.com>
+ * @version 2026/10/16
+ * @see ColumnarTable
+ */
+public enum ColumnType {
+    /** 以 {@code int[]} 存储 */
+    INT,
+    /** 以 {@code long[]} 存储 */
+    LONG,
+    /** 以 {@code double[]} 存储 */
+    DOUBLE,
+    /** 字典编码：每行存 {@code int} 编码，相同字符串只保存一份 */
+    STRING
+}
@@ -0,0 +1,332 @@
+package github.ag777.util.file.table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+
+/**
+ * 列式内存表格，用于代替 {@code List<Map<String, Object>>} 承载大量行数据。
+ * <p>
+ * 每列是一个基本类型数组（字符串列为字典编码），空值记录在位图中，
+ * 宽表、数值为主的数据占用的堆内存远小于每行一个 Map。表格构建后不可变，
+ * 过滤会生成新表格，聚合直接在列数组上计算。
+ * </p>
+ *
+ * <pre>{@code
+ * ColumnarTable table = FesodReadUtils.readColumnar("sales.xlsx",
+ *         new String[]{"城市", "销量"}, new ColumnType[]{ColumnType.STRING, ColumnType.LONG}, true);
+ * ColumnarTable fz = table.filterEquals("城市", "福州");
+ * long total = fz.sumLong("销量");
+ * Map<String, Long> byCity = table.sumByLong("城市", "销量");
+ * }</pre>
+ *
+ * @author ag777 <837915770@vip.qq.com>
+ * @version 2026/10/16
+ * @see ColumnarTableBuilder
+ */
+public class ColumnarTable {
+
+    private final List<Column> columns;
+    private final int rowCount;
+
+    ColumnarTable(List<Column> columns, int rowCount) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.rowCount = rowCount;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int columnCount() {
+        return columns.size();
+    }
+
+    public List<Column> columns() {
+        return columns;
+    }
+
+    public Column column(int index) {
+        return columns.get(index);
+    }
+
+    /**
+     * 按列名获取列。
+     *
+     * @throws IllegalArgumentException 列不存在
+     */
+    public Column column(String name) {
+        for (Column column : columns) {
+            if (column.name().equals(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("列不存在:" + name);
+    }
+
+    /**
+     * 获取单元格值（装箱），空值返回 null。
+     */
+    public Object get(int row, String columnName) {
+        return column(columnName).get(row);
+    }
+
+    /* ======================== 过滤 ======================== */
+
+    /**
+     * 按行下标过滤，保留断言为 true 的行。
+     */
+    public ColumnarTable filter(IntPredicate rowPredicate) {
+        int[] rows = new int[rowCount];
+        int count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (rowPredicate.test(row)) {
+                rows[count++] = row;
+            }
+        }
+        return select(rows, count);
+    }
+
+    /**
+     * 按数值列过滤，空值行不保留。
+     */
+    public ColumnarTable filter(String columnName, DoublePredicate predicate) {
+        Column.NumericColumn column = numeric(columnName);
+        return filter(row -> !column.isNull(row) && predicate.test(column.getDouble(row)));
+    }
+
+    /**
+     * 保留字符串列等于指定值的行，比较的是字典编码而不是字符串。
+     */
+    public ColumnarTable filterEquals(String columnName, String value) {
+        Column.StringColumn stringColumn = string(columnName);
+        int code = stringColumn.codeOf(value);
+        if (code < 0) {
+            return select(new int[0], 0);
+        }
+        return filter(row -> stringColumn.getCode(row) == code);
+    }
+
+    private ColumnarTable select(int[] rows, int count) {
+        List<Column> selected = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            selected.add(column.select(rows, count));
+        }
+        return new ColumnarTable(selected, count);
+    }
+
+    /* ======================== 聚合 ======================== */
+
+    /**
+     * 非空值个数。
+     */
+    public int count(String columnName) {
+        return column(columnName).count();
+    }
+
+    /**
+     * 数值列求和，忽略空值。
+     * 整数列先按 {@code long} 精确累加再转换，只有超出 {@code long} 范围时才退回 double 累加。
+     */
+    public double sum(String columnName) {
+        Column.NumericColumn column = numeric(columnName);
+        if (isIntegral(column)) {
+            try {
+                return exactSum(column);
+            } catch (ArithmeticException ignored) {
+                // 超出long范围，退回double累加
+            }
+        }
+        double sum = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!column.isNull(row)) {
+                sum += column.getDouble(row);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 整数列（INT、LONG）精确求和，忽略空值，适合金额（分）、ID 等超过 2^53 后 double 无法精确表示的值。
+     *
+     * @throws IllegalArgumentException 不是整数列
+     * @throws ArithmeticException      结果超出 long 范围
+     */
+    public long sumLong(String columnName) {
+        Column.NumericColumn column = numeric(columnName);
+        if (!isIntegral(column)) {
+            throw new IllegalArgumentException("列[" + columnName + "]不是整数列");
+        }
+        return exactSum(column);
+    }
+
+    /**
+     * 数值列平均值，忽略空值，没有非空值时返回 {@link Double#NaN}。
+     */
+    public double avg(String columnName) {
+        int count = count(columnName);
+        return count == 0 ? Double.NaN : sum(columnName) / count;
+    }
+
+    /**
+     * 数值列最小值，忽略空值，没有非空值时返回 {@link Double#NaN}。
+     */
+    public double min(String columnName) {
+        Column.NumericColumn column = numeric(columnName);
+        double min = Double.NaN;
+        for (int row = 0; row < rowCount; row++) {
+            if (!column.isNull(row)) {
+                double value = column.getDouble(row);
+                if (Double.isNaN(min) || value < min) {
+                    min = value;
+                }
+            }
+        }
+        return min;
+    }
+
+    /**
+     * 数值列最大值，忽略空值，没有非空值时返回 {@link Double#NaN}。
+     */
+    public double max(String columnName) {
+        Column.NumericColumn column = numeric(columnName);
+        double max = Double.NaN;
+        for (int row = 0; row < rowCount; row++) {
+            if (!column.isNull(row)) {
+                double value = column.getDouble(row);
+                if (Double.isNaN(max) || value > max) {
+                    max = value;
+                }
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 按字符串列分组计数，空值行不计入，结果按首次出现顺序排列。
+     */
+    public Map<String, Integer> countBy(String keyColumnName) {
+        Column.StringColumn key = string(keyColumnName);
+        int[] counts = new int[key.dictionarySize()];
+        for (int row = 0; row < rowCount; row++) {
+            int code = key.getCode(row);
+            if (code >= 0) {
+                counts[code]++;
+            }
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(key.dictionaryValue(code), counts[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按字符串列分组对数值列求和，键或值为空的行不计入，结果按首次出现顺序排列。
+     * 整数列按 {@code long} 精确累加，超出 {@code long} 范围时才退回 double 累加。
+     */
+    public Map<String, Double> sumBy(String keyColumnName, String valueColumnName) {
+        Column.StringColumn key = string(keyColumnName);
+        Column.NumericColumn value = numeric(valueColumnName);
+        if (isIntegral(value)) {
+            try {
+                Map<String, Long> exact = exactSumBy(key, value);
+                Map<String, Double> result = new LinkedHashMap<>();
+                exact.forEach((k, v) -> result.put(k, (double) v));
+                return result;
+            } catch (ArithmeticException ignored) {
+                // 超出long范围，退回double累加
+            }
+        }
+        double[] sums = new double[key.dictionarySize()];
+        boolean[] hit = new boolean[sums.length];
+        for (int row = 0; row < rowCount; row++) {
+            int code = key.getCode(row);
+            if (code >= 0 && !value.isNull(row)) {
+                sums[code] += value.getDouble(row);
+                hit[code] = true;
+            }
+        }
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int code = 0; code < sums.length; code++) {
+            if (hit[code]) {
+                result.put(key.dictionaryValue(code), sums[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按字符串列分组对整数列精确求和，键或值为空的行不计入，结果按首次出现顺序排列。
+     *
+     * @throws IllegalArgumentException 值列不是整数列
+     * @throws ArithmeticException      某组结果超出 long 范围
+     */
+    public Map<String, Long> sumByLong(String keyColumnName, String valueColumnName) {
+        Column.StringColumn key = string(keyColumnName);
+        Column.NumericColumn value = numeric(valueColumnName);
+        if (!isIntegral(value)) {
+            throw new IllegalArgumentException("列[" + valueColumnName + "]不是整数列");
+        }
+        return exactSumBy(key, value);
+    }
+
+    private long exactSum(Column.NumericColumn column) {
+        long sum = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!column.isNull(row)) {
+                sum = Math.addExact(sum, longValue(column, row));
+            }
+        }
+        return sum;
+    }
+
+    private Map<String, Long> exactSumBy(Column.StringColumn key, Column.NumericColumn value) {
+        long[] sums = new long[key.dictionarySize()];
+        boolean[] hit = new boolean[sums.length];
+        for (int row = 0; row < rowCount; row++) {
+            int code = key.getCode(row);
+            if (code >= 0 && !value.isNull(row)) {
+                sums[code] = Math.addExact(sums[code], longValue(value, row));
+                hit[code] = true;
+            }
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int code = 0; code < sums.length; code++) {
+            if (hit[code]) {
+                result.put(key.dictionaryValue(code), sums[code]);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isIntegral(Column column) {
+        return column instanceof Column.IntColumn || column instanceof Column.LongColumn;
+    }
+
+    private static long longValue(Column.NumericColumn column, int row) {
+        return column instanceof Column.LongColumn longColumn ? longColumn.getLong(row) : ((Column.IntColumn) column).getInt(row);
+    }
+
+    private Column.NumericColumn numeric(String columnName) {
+        Column column = column(columnName);
+        if (!(column instanceof Column.NumericColumn numericColumn)) {
+            throw new IllegalArgumentException("列[" + columnName + "]不是数值列");
+        }
+        return numericColumn;
+    }
+
+    private Column.StringColumn string(String columnName) {
+        Column column = column(columnName);
+        if (!(column instanceof Column.StringColumn stringColumn)) {
+            throw new IllegalArgumentException("列[" + columnName + "]不是字符串列");
+        }
+        return stringColumn;
+    }
+}
@@ -0,0 +1,267 @@
+package github.ag777.util.file.table;
+
+import github.ag777.util.lang.exception.Assert;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列式表格构建器，逐行逐格写入，值直接转换后写进对应类型的数组，不为每行创建 Map。
+ * <p>
+ * 每行先调用若干次 {@link #set(int, Object)}，再调用 {@link #endRow()} 提交；未设置的单元格为空值。
+ * 空白字符串视为空值；数值列的字符串会按类型解析，无法解析时抛出 {@link IllegalArgumentException}。
+ * </p>
+ *
+ * <pre>{@code
+ * ColumnarTableBuilder builder = new ColumnarTableBuilder(
+ *         new String[]{"城市", "销量"}, new ColumnType[]{ColumnType.STRING, ColumnType.LONG});
+ * builder.set(0, "福州").set(1, "12").endRow();
+ * ColumnarTable table = builder.build();
+ * }</pre>
+ *
+ * @author ag777 <837915770@vip.qq.com>
+ * @version 2026/10/16
+ */
+public class ColumnarTableBuilder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ColumnBuilder[] columns;
+    private int rowCount;
+
+    /**
+     * @param names 列名
+     * @param types 列类型，与列名一一对应
+     */
+    public ColumnarTableBuilder(String[] names, ColumnType[] types) {
+        Assert.notEmpty(names, "列名不能为空");
+        Assert.notNull(types, "列类型不能为空");
+        if (names.length != types.length) {
+            throw new IllegalArgumentException("列名与列类型个数不一致");
+        }
+        columns = new ColumnBuilder[names.length];
+        for (int i = 0; i < names.length; i++) {
+            columns[i] = switch (types[i]) {
+                case INT -> new IntColumnBuilder(names[i]);
+                case LONG -> new LongColumnBuilder(names[i]);
+                case DOUBLE -> new DoubleColumnBuilder(names[i]);
+                case STRING -> new StringColumnBuilder(names[i]);
+            };
+        }
+    }
+
+    public int columnCount() {
+        return columns.length;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 设置当前行某一列的值，超出列数的下标会被忽略。
+     *
+     * @param column 列下标
+     * @param value  值，可以是数字、字符串或其他对象（按 toString 转换）
+     * @return 当前对象
+     */
+    public ColumnarTableBuilder set(int column, Object value) {
+        if (column < 0 || column >= columns.length || value == null) {
+            return this;
+        }
+        if (value instanceof String str && str.isBlank()) {
+            return this;
+        }
+        try {
+            columns[column].set(rowCount, value);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("第" + (rowCount + 1) + "行[" + columns[column].name + "]的值无法转换为数值:" + value, e);
+        }
+        return this;
+    }
+
+    /**
+     * 提交当前行。
+     */
+    public ColumnarTableBuilder endRow() {
+        rowCount++;
+        return this;
+    }
+
+    /**
+     * 丢弃当前行已设置的值。
+     */
+    public ColumnarTableBuilder discardRow() {
+        for (ColumnBuilder column : columns) {
+            column.clear(rowCount);
+        }
+        return this;
+    }
+
+    public ColumnarTable build() {
+        List<Column> built = new ArrayList<>(columns.length);
+        for (ColumnBuilder column : columns) {
+            built.add(column.build(rowCount));
+        }
+        return new ColumnarTable(built, rowCount);
+    }
+
+    private static int grow(int capacity, int row) {
+        int newCapacity = Math.max(capacity, INITIAL_CAPACITY);
+        while (newCapacity <= row) {
+            newCapacity = newCapacity << 1;
+        }
+        return newCapacity;
+    }
+
+    /**
+     * 整数类型可直接取值，其余（BigDecimal、Double、字符串等）按十进制精确转换，带小数部分时报错而不是截断。
+     */
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private abstract static class ColumnBuilder {
+        final String name;
+        // 记录有值的行，构建时取反得到空值位图
+        final BitSet present = new BitSet();
+
+        ColumnBuilder(String name) {
+            this.name = name;
+        }
+
+        abstract void set(int row, Object value);
+
+        void clear(int row) {
+            present.clear(row);
+        }
+
+        BitSet nulls(int rowCount) {
+            BitSet nulls = (BitSet) present.clone();
+            nulls.flip(0, rowCount);
+            return nulls;
+        }
+
+        abstract Column build(int rowCount);
+    }
+
+    private static class IntColumnBuilder extends ColumnBuilder {
+        private int[] values = new int[0];
+
+        IntColumnBuilder(String name) {
+            super(name);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+            values[row] = isIntegral(value)
+                    ? Math.toIntExact(((Number) value).longValue())
+                    : new BigDecimal(value.toString().trim()).intValueExact();
+            present.set(row);
+        }
+
+        @Override
+        Column build(int rowCount) {
+            return new Column.IntColumn(name, rowCount, nulls(rowCount), Arrays.copyOf(values, rowCount));
+        }
+    }
+
+    private static class LongColumnBuilder extends ColumnBuilder {
+        private long[] values = new long[0];
+
+        LongColumnBuilder(String name) {
+            super(name);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+            values[row] = isIntegral(value)
+                    ? ((Number) value).longValue()
+                    : new BigDecimal(value.toString().trim()).longValueExact();
+            present.set(row);
+        }
+
+        @Override
+        Column build(int rowCount) {
+            return new Column.LongColumn(name, rowCount, nulls(rowCount), Arrays.copyOf(values, rowCount));
+        }
+    }
+
+    private static class DoubleColumnBuilder extends ColumnBuilder {
+        private double[] values = new double[0];
+
+        DoubleColumnBuilder(String name) {
+            super(name);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+            values[row] = value instanceof Number n ? n.doubleValue() : Double.parseDouble(value.toString().trim());
+            present.set(row);
+        }
+
+        @Override
+        Column build(int rowCount) {
+            return new Column.DoubleColumn(name, rowCount, nulls(rowCount), Arrays.copyOf(values, rowCount));
+        }
+    }
+
+    private static class StringColumnBuilder extends ColumnBuilder {
+        private int[] codes = new int[0];
+        private final Map<String, Integer> codeMap = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+
+        StringColumnBuilder(String name) {
+            super(name);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (row >= codes.length) {
+                int oldLength = codes.length;
+                codes = Arrays.copyOf(codes, grow(codes.length, row));
+                Arrays.fill(codes, oldLength, codes.length, -1);
+            }
+            String str = value.toString();
+            Integer code = codeMap.get(str);
+            if (code == null) {
+                code = dictionary.size();
+                codeMap.put(str, code);
+                dictionary.add(str);
+            }
+            codes[row] = code;
+            present.set(row);
+        }
+
+        @Override
+        void clear(int row) {
+            super.clear(row);
+            if (row < codes.length) {
+                codes[row] = -1;
+            }
+        }
+
+        @Override
+        Column build(int rowCount) {
+            int[] built = Arrays.copyOf(codes, rowCount);
+            if (rowCount > codes.length) {
+                Arrays.fill(built, codes.length, rowCount, -1);
+            }
+            return new Column.StringColumn(name, rowCount, nulls(rowCount), built, dictionary.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package github.ag777.util.remote.ai.http.balance;
+
+import github.ag777.util.remote.ai.http.client.AiHttpClient;
+
+/**
+ * 负载均衡中的一个端点，维护执行中请求数、耗时EWMA和熔断状态。
+ *
+ * <p>熔断器状态流转：
+ * <ul>
+ * <li>CLOSED：正常接收请求，连续失败达到阈值后进入OPEN</li>
+ * <li>OPEN：拒绝请求，熔断时间过后进入HALF_OPEN</li>
+ * <li>HALF_OPEN：只放行一个探测请求，成功则恢复CLOSED，失败则重新进入OPEN</li>
+ * </ul>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpEndpoint {
+    private static final double EWMA_ALPHA = 0.3;
+
+    /**
+     * 熔断状态
+     */
+    public enum CircuitState {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final AiHttpClient client;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private long openUntilNanos;
+    private boolean probing;
+    private int outstanding;
+    private double ewmaLatencyMillis;
+    private int consecutiveFailures;
+    private long requests;
+    private long failures;
+
+    /**
+     * 创建端点。
+     *
+     * @param name 端点名称，用于统计和日志
+     * @param client 端点对应的客户端
+     */
+    public AiHttpEndpoint(String name, AiHttpClient client) {
+        if (client == null) {
+            throw new IllegalArgumentException("client不能为空");
+        }
+        this.name = name;
+        this.client = client;
+    }
+
+    /**
+     * 获取端点名称。
+     *
+     * @return 端点名称
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 获取端点对应的客户端。
+     *
+     * @return 客户端
+     */
+    public AiHttpClient client() {
+        return client;
+    }
+
+    /**
+     * 计算路由代价，端点不可用时返回 {@link Double#POSITIVE_INFINITY}。
+     */
+    synchronized double cost(AiHttpRoutingStrategy strategy, long nowNanos) {
+        if (!isAvailable(nowNanos)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return switch (strategy) {
+            case LEAST_OUTSTANDING -> outstanding;
+            case LATENCY_EWMA -> ewmaLatencyMillis * (outstanding + 1);
+        };
+    }
+
+    /**
+     * 占用端点，端点熔断或正在半开探测时返回false。
+     */
+    synchronized boolean acquire(long nowNanos) {
+        if (!isAvailable(nowNanos)) {
+            return false;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            probing = true;
+        }
+        outstanding++;
+        requests++;
+        return true;
+    }
+
+    /**
+     * 请求成功（或端点正常响应了一个不需要故障转移的错误）。
+     */
+    synchronized void success(long latencyMillis, boolean recordLatency) {
+        outstanding--;
+        probing = false;
+        consecutiveFailures = 0;
+        state = CircuitState.CLOSED;
+        if (recordLatency) {
+            ewmaLatencyMillis = ewmaLatencyMillis == 0 ? latencyMillis : EWMA_ALPHA * latencyMillis + (1 - EWMA_ALPHA) * ewmaLatencyMillis;
+        }
+    }
+
+    /**
+     * 请求以可故障转移的错误失败。
+     */
+    synchronized void failure(long nowNanos, int failureThreshold, long openNanos) {
+        outstanding--;
+        probing = false;
+        failures++;
+        consecutiveFailures++;
+        if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = CircuitState.OPEN;
+            openUntilNanos = nowNanos + openNanos;
+        }
+    }
+
+    /**
+     * 请求被取消，只归还占用。
+     */
+    synchronized void release() {
+        outstanding--;
+        probing = false;
+    }
+
+    /**
+     * 获取端点运行状态快照。
+     *
+     * @return 状态快照
+     */
+    public synchronized AiHttpEndpointStats getStats() {
+        isAvailable(System.nanoTime());
+        return new AiHttpEndpointStats(name, state, outstanding, ewmaLatencyMillis, consecutiveFailures, requests, failures);
+    }
+
+    private boolean isAvailable(long nowNanos) {
+        if (state == CircuitState.OPEN && nowNanos - openUntilNanos >= 0) {
+            state = CircuitState.HALF_OPEN;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> !probing;
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package github.ag777.util.remote.ai.http.balance;
+
+/**
+ * 端点运行状态快照。
+ *
+ * @param name 端点名称
+ * @param state 熔断状态
+ * @param outstanding 当前执行中的请求数
+ * @param ewmaLatencyMillis 成功请求耗时的指数加权移动平均，没有样本时为0
+ * @param consecutiveFailures 连续失败次数
+ * @param requests 累计请求数
+ * @param failures 累计失败数（只统计可故障转移的失败）
+ * @author ag777
+ * @since 1.0
+ */
+public record AiHttpEndpointStats(
+        String name,
+        AiHttpEndpoint.CircuitState state,
+        int outstanding,
+        double ewmaLatencyMillis,
+        int consecutiveFailures,
+        long requests,
+        long failures
+) {
+}
@@ -0,0 +1,445 @@
+package github.ag777.util.remote.ai.http.balance;
+
+import github.ag777.util.remote.ai.http.client.AiHttpClient;
+import github.ag777.util.remote.ai.http.config.AiHttpClientConfig;
+import github.ag777.util.remote.ai.http.config.AiHttpRetryPolicy;
+import github.ag777.util.remote.ai.http.exception.AiHttpException;
+import github.ag777.util.remote.ai.http.model.AiHttpChunk;
+import github.ag777.util.remote.ai.http.model.AiHttpRequest;
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+import github.ag777.util.remote.ai.http.model.AiHttpToolArgumentDelta;
+import github.ag777.util.remote.ai.http.model.AiHttpToolCallDelta;
+import github.ag777.util.remote.ai.http.scheduler.AiHttpPriority;
+import github.ag777.util.remote.ai.http.stream.AiHttpFuture;
+import github.ag777.util.remote.ai.http.stream.AiHttpStreamHandler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 多端点负载均衡客户端。
+ *
+ * <p>把多个 {@link AiHttpClient}（如多个OpenAI兼容网关或自建的vLLM副本）组合成一个客户端，
+ * 每个请求按 {@link AiHttpRoutingStrategy} 选择端点；端点返回可故障转移的错误时自动换下一个端点重试，
+ * 连续失败的端点会被熔断一段时间。
+ *
+ * <p>是否故障转移由 {@link #failoverPolicy(AiHttpRetryPolicy)} 的 {@link AiHttpRetryPolicy#isRetryable(Throwable)} 判断，
+ * 默认为网络异常和 408/429/500/502/503/504；其他错误（如400）说明端点本身正常，直接抛出且不计入熔断。
+ * 流式请求一旦已经向处理器输出内容就不再故障转移。
+ *
+ * <p>继承自 {@link AiHttpClient}，可以直接用于 {@link github.ag777.util.remote.ai.http.client.AiHttpChatSession} 和批量调用；
+ * 每个端点自己的重试、调度器、缓存等配置依旧生效。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * AiHttpLoadBalancedClient client = AiHttpLoadBalancedClient.openAiCompatible(
+ *         AiHttpClientConfig.create("http://10.0.0.1:8000").apiKey("x"),
+ *         AiHttpClientConfig.create("http://10.0.0.2:8000").apiKey("x"))
+ *     .routingStrategy(AiHttpRoutingStrategy.LATENCY_EWMA)
+ *     .failureThreshold(3)
+ *     .openDuration(30, TimeUnit.SECONDS);
+ * AiHttpResponse response = client.chat(request);
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpLoadBalancedClient extends AiHttpClient {
+    private final List<AiHttpEndpoint> endpoints;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private volatile AiHttpRoutingStrategy routingStrategy = AiHttpRoutingStrategy.LEAST_OUTSTANDING;
+    private volatile AiHttpRetryPolicy failoverPolicy = AiHttpRetryPolicy.create();
+    private volatile int failureThreshold = 5;
+    private volatile long openNanos = TimeUnit.SECONDS.toNanos(30);
+    private volatile int maxAttempts;
+
+    /**
+     * 创建负载均衡客户端。
+     *
+     * @param endpoints 端点列表
+     */
+    public AiHttpLoadBalancedClient(List<AiHttpEndpoint> endpoints) {
+        super(first(endpoints).client().config(), first(endpoints).client().provider());
+        this.endpoints = List.copyOf(endpoints);
+    }
+
+    /**
+     * 用多个客户端创建负载均衡客户端，端点名称取各自的baseUrl。
+     *
+     * @param clients 客户端
+     * @return 负载均衡客户端
+     */
+    public static AiHttpLoadBalancedClient of(AiHttpClient... clients) {
+        List<AiHttpEndpoint> endpoints = new ArrayList<>(clients.length);
+        for (AiHttpClient client : clients) {
+            endpoints.add(new AiHttpEndpoint(client.config().baseUrl(), client));
+        }
+        return new AiHttpLoadBalancedClient(endpoints);
+    }
+
+    /**
+     * 用多个配置创建OpenAI兼容的负载均衡客户端。
+     *
+     * @param configs 各端点配置
+     * @return 负载均衡客户端
+     */
+    public static AiHttpLoadBalancedClient openAiCompatible(AiHttpClientConfig... configs) {
+        AiHttpClient[] clients = new AiHttpClient[configs.length];
+        for (int i = 0; i < configs.length; i++) {
+            clients[i] = AiHttpClient.openAiCompatible(configs[i]);
+        }
+        return of(clients);
+    }
+
+    /**
+     * 设置路由策略，默认 {@link AiHttpRoutingStrategy#LEAST_OUTSTANDING}。
+     *
+     * @param routingStrategy 路由策略
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpLoadBalancedClient routingStrategy(AiHttpRoutingStrategy routingStrategy) {
+        this.routingStrategy = routingStrategy;
+        return this;
+    }
+
+    /**
+     * 设置判断是否故障转移的策略，只使用其 {@link AiHttpRetryPolicy#isRetryable(Throwable)}。
+     *
+     * @param failoverPolicy 故障转移判断策略
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpLoadBalancedClient failoverPolicy(AiHttpRetryPolicy failoverPolicy) {
+        this.failoverPolicy = failoverPolicy;
+        return this;
+    }
+
+    /**
+     * 设置触发熔断的连续失败次数，默认5次。
+     *
+     * @param failureThreshold 连续失败次数
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpLoadBalancedClient failureThreshold(int failureThreshold) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        return this;
+    }
+
+    /**
+     * 设置熔断持续时间，过后放行一个探测请求，默认30秒。
+     *
+     * @param duration 熔断持续时间
+     * @param unit 时间单位
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpLoadBalancedClient openDuration(long duration, TimeUnit unit) {
+        this.openNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * 设置单个请求最多尝试的端点数，默认为端点总数（每个端点最多尝试一次）。
+     *
+     * @param maxAttempts 最多尝试的端点数
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpLoadBalancedClient maxAttempts(int maxAttempts) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        return this;
+    }
+
+    /**
+     * 获取端点列表。
+     *
+     * @return 端点列表
+     */
+    public List<AiHttpEndpoint> endpoints() {
+        return endpoints;
+    }
+
+    /**
+     * 获取各端点的运行状态快照。
+     *
+     * @return 状态快照
+     */
+    public List<AiHttpEndpointStats> getStats() {
+        List<AiHttpEndpointStats> stats = new ArrayList<>(endpoints.size());
+        for (AiHttpEndpoint endpoint : endpoints) {
+            stats.add(endpoint.getStats());
+        }
+        return stats;
+    }
+
+    @Override
+    public AiHttpResponse chat(AiHttpRequest request) {
+        return route(null, client -> client.chat(request));
+    }
+
+    @Override
+    public AiHttpResponse chatStream(AiHttpRequest request, AiHttpStreamHandler streamHandler) {
+        FailoverStreamHandler handler = new FailoverStreamHandler(streamHandler);
+        return route(handler, client -> client.chatStream(request, handler));
+    }
+
+    @Override
+    public AiHttpFuture chatAsync(AiHttpRequest request, AiHttpStreamHandler streamHandler, AiHttpPriority priority) {
+        AiHttpFuture future = new AiHttpFuture();
+        FailoverStreamHandler handler = streamHandler == null ? null : new FailoverStreamHandler(streamHandler);
+        attempt(request, handler, priority, future, new HashSet<>(), null);
+        return future;
+    }
+
+    /**
+     * 同步路由：依次选择端点执行，可故障转移的错误换下一个端点。
+     */
+    private AiHttpResponse route(FailoverStreamHandler handler, Function<AiHttpClient, AiHttpResponse> call) {
+        Set<AiHttpEndpoint> tried = new HashSet<>();
+        RuntimeException last = null;
+        while (tried.size() < attemptLimit()) {
+            AiHttpEndpoint endpoint = acquire(tried);
+            if (endpoint == null) {
+                break;
+            }
+            tried.add(endpoint);
+            long start = System.nanoTime();
+            try {
+                AiHttpResponse response = call.apply(endpoint.client());
+                endpoint.success(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), true);
+                return response;
+            } catch (RuntimeException e) {
+                if (!settle(endpoint, e)) {
+                    throw fail(handler, e);
+                }
+                last = e;
+                if (handler != null && handler.delivered) {
+                    throw fail(handler, e);
+                }
+            }
+        }
+        throw fail(handler, last != null ? last : noEndpoint());
+    }
+
+    /**
+     * 同步路由最终失败：各端点客户端的onError被包装处理器吞掉，这里补发给实际处理器。
+     */
+    private static RuntimeException fail(FailoverStreamHandler handler, RuntimeException e) {
+        if (handler != null) {
+            try {
+                handler.delegate.onError(e);
+            } catch (Throwable ignored) {
+            }
+        }
+        return e;
+    }
+
+    /**
+     * 异步路由：当前端点失败且可故障转移时，在回调中发起下一次尝试。
+     */
+    private void attempt(AiHttpRequest request, FailoverStreamHandler handler, AiHttpPriority priority,
+                         AiHttpFuture future, Set<AiHttpEndpoint> tried, Throwable last) {
+        if (future.isDone()) {
+            return;
+        }
+        AiHttpEndpoint endpoint = tried.size() < attemptLimit() ? acquire(tried) : null;
+        if (endpoint == null) {
+            fail(future, handler, last != null ? last : noEndpoint());
+            return;
+        }
+        tried.add(endpoint);
+        long start = System.nanoTime();
+        AiHttpFuture inner = endpoint.client().chatAsync(request, handler, priority);
+        future.whenComplete((response, e) -> {
+            if (future.isCancelled()) {
+                inner.cancel(true);
+            }
+        });
+        inner.whenComplete((response, e) -> {
+            if (e == null) {
+                endpoint.success(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), true);
+                future.complete(response);
+                return;
+            }
+            Throwable cause = unwrap(e);
+            if (settle(endpoint, cause) && (handler == null || !handler.delivered) && !future.isDone()) {
+                attempt(request, handler, priority, future, tried, cause);
+            } else {
+                fail(future, handler, cause);
+            }
+        });
+    }
+
+    /**
+     * 根据失败原因更新端点状态，返回是否可以故障转移。
+     */
+    private boolean settle(AiHttpEndpoint endpoint, Throwable e) {
+        if (e instanceof CancellationException) {
+            endpoint.release();
+            return false;
+        }
+        if (failoverPolicy.isRetryable(e)) {
+            endpoint.failure(System.nanoTime(), failureThreshold, openNanos);
+            return true;
+        }
+        // 端点正常返回了错误（如请求参数错误），不影响端点健康状态
+        endpoint.success(0, false);
+        return false;
+    }
+
+    /**
+     * 选择并占用代价最小的可用端点，都不可用时返回null。
+     */
+    private AiHttpEndpoint acquire(Set<AiHttpEndpoint> tried) {
+        int size = endpoints.size();
+        while (true) {
+            long now = System.nanoTime();
+            // 从轮转的位置开始比较，代价相同时请求会在端点间均匀分布
+            int offset = Math.floorMod(cursor.getAndIncrement(), size);
+            AiHttpEndpoint best = null;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                AiHttpEndpoint endpoint = endpoints.get((offset + i) % size);
+                if (tried.contains(endpoint)) {
+                    continue;
+                }
+                double cost = endpoint.cost(routingStrategy, now);
+                if (cost < bestCost) {
+                    best = endpoint;
+                    bestCost = cost;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            if (best.acquire(now)) {
+                return best;
+            }
+        }
+    }
+
+    private int attemptLimit() {
+        return maxAttempts > 0 ? Math.min(maxAttempts, endpoints.size()) : endpoints.size();
+    }
+
+    private static void fail(AiHttpFuture future, FailoverStreamHandler handler, Throwable e) {
+        if (future.isDone()) {
+            return;
+        }
+        if (handler != null) {
+            try {
+                handler.delegate.onError(e);
+            } catch (Throwable ignored) {
+            }
+        }
+        future.completeExceptionally(e);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    private static AiHttpException noEndpoint() {
+        return new AiHttpException("没有可用的端点，所有端点均已熔断或尝试失败");
+    }
+
+    private static AiHttpEndpoint first(List<AiHttpEndpoint> endpoints) {
+        if (endpoints == null || endpoints.isEmpty()) {
+            throw new IllegalArgumentException("endpoints不能为空");
+        }
+        return endpoints.get(0);
+    }
+
+    /**
+     * 故障转移时包装处理器：onStart只回调一次，错误由负载均衡客户端在最终失败时统一回调，
+     * 并记录是否已经输出过内容。
+     */
+    private static class FailoverStreamHandler implements AiHttpStreamHandler {
+        private final AiHttpStreamHandler delegate;
+        private volatile boolean started;
+        private volatile boolean delivered;
+
+        private FailoverStreamHandler(AiHttpStreamHandler delegate) {
+            this.delegate = delegate == null ? new AiHttpStreamHandler() {
+            } : delegate;
+        }
+
+        @Override
+        public void onStart(AiHttpRequest request) {
+            if (!started) {
+                started = true;
+                delegate.onStart(request);
+            }
+        }
+
+        @Override
+        public void onStartReasoning(AiHttpChunk chunk) {
+            delivered = true;
+            delegate.onStartReasoning(chunk);
+        }
+
+        @Override
+        public void onReasoning(String delta, AiHttpChunk chunk) {
+            delivered = true;
+            delegate.onReasoning(delta, chunk);
+        }
+
+        @Override
+        public void onEndReasoning(AiHttpChunk chunk) {
+            delegate.onEndReasoning(chunk);
+        }
+
+        @Override
+        public void onStartContent(AiHttpChunk chunk) {
+            delivered = true;
+            delegate.onStartContent(chunk);
+        }
+
+        @Override
+        public void onContent(String delta, AiHttpChunk chunk) {
+            delivered = true;
+            delegate.onContent(delta, chunk);
+        }
+
+        @Override
+        public void onEndContent(AiHttpChunk chunk) {
+            delegate.onEndContent(chunk);
+        }
+
+        @Override
+        public void onToolCall(AiHttpToolCallDelta delta, AiHttpChunk chunk) {
+            delivered = true;
+            delegate.onToolCall(delta, chunk);
+        }
+
+        @Override
+        public void onToolArgument(AiHttpToolArgumentDelta delta, AiHttpChunk chunk) {
+            delivered = true;
+            delegate.onToolArgument(delta, chunk);
+        }
+
+        @Override
+        public void onChunk(AiHttpChunk chunk) {
+            delivered = true;
+            delegate.onChunk(chunk);
+        }
+
+        @Override
+        public void onComplete(AiHttpResponse response) {
+            delegate.onComplete(response);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // 由负载均衡客户端决定是否为最终失败
+        }
+    }
+}
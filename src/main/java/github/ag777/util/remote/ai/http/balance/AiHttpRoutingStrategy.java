@@ -0,0 +1,19 @@
+package github.ag777.util.remote.ai.http.balance;
+
+/**
+ * 多端点路由策略。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public enum AiHttpRoutingStrategy {
+    /**
+     * 选择当前执行中请求最少的端点，适合各副本性能相近的场景
+     */
+    LEAST_OUTSTANDING,
+    /**
+     * 按 耗时EWMA x (执行中请求数 + 1) 选择代价最小的端点，适合副本性能不一致的场景；
+     * 还没有耗时样本的端点代价为0，会被优先探测
+     */
+    LATENCY_EWMA
+}
@@ -0,0 +1,185 @@
+package github.ag777.util.remote.ai.http.batch;
+
+import github.ag777.util.remote.ai.http.config.AiHttpRetryPolicy;
+import github.ag777.util.remote.ai.http.scheduler.AiHttpPriority;
+
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * 批量调用选项。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * AiHttpBatchSummary summary = client.chatBatch(requests, AiHttpBatchOptions.create()
+ *     .maxInFlight(64)
+ *     .ordered(true)
+ *     .checkpointFile(Paths.get("job-42.ckpt"))
+ *     .onResult(result -> writer.write(result)));
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpBatchOptions {
+    private int maxInFlight = 16;
+    private boolean ordered;
+    private AiHttpRetryPolicy retryPolicy;
+    private Path checkpointFile;
+    private boolean replayCheckpointed = true;
+    private AiHttpPriority priority = AiHttpPriority.LOW;
+    private Consumer<AiHttpBatchResult> onResult;
+
+    /**
+     * 创建默认选项：最多16个并发请求，按完成顺序回调，批量层不重试（由客户端的重试策略负责）。
+     *
+     * @return 批量调用选项
+     */
+    public static AiHttpBatchOptions create() {
+        return new AiHttpBatchOptions();
+    }
+
+    /**
+     * 设置同时在途的最大请求数。
+     *
+     * @param maxInFlight 最大在途请求数
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBatchOptions maxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        return this;
+    }
+
+    /**
+     * 设置是否按输入顺序回调结果，默认按完成顺序。
+     * 按输入顺序时，先完成的结果会暂存直到前面的请求都已完成，暂存期间继续占用在途名额，因此暂存数不超过最大在途数。
+     *
+     * @param ordered 是否按输入顺序
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBatchOptions ordered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * 设置单个请求失败后在批量层的重试策略，默认不设置。
+     * 客户端已配置 {@link github.ag777.util.remote.ai.http.config.AiHttpClientConfig#retryPolicy(AiHttpRetryPolicy)} 时一般不需要再设置，
+     * 否则两者的尝试次数会相乘；适合客户端未配置重试、又希望批量任务在更长的退避后重发的场景。
+     *
+     * @param retryPolicy 重试策略，为null表示不重试
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBatchOptions retryPolicy(AiHttpRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * 设置检查点文件。每个成功的结果追加一行记录，重新运行同一批请求时会跳过已完成的项。
+     * 以请求序号和请求体哈希共同识别，输入发生变化的项会重新发送。
+     *
+     * @param checkpointFile 检查点文件
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBatchOptions checkpointFile(Path checkpointFile) {
+        this.checkpointFile = checkpointFile;
+        return this;
+    }
+
+    /**
+     * 设置从检查点恢复的结果是否也回调 {@link #onResult(Consumer)}，默认回调。
+     *
+     * @param replayCheckpointed 是否回调
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBatchOptions replayCheckpointed(boolean replayCheckpointed) {
+        this.replayCheckpointed = replayCheckpointed;
+        return this;
+    }
+
+    /**
+     * 设置调度优先级，只在客户端配置了调度器时生效，默认LOW。
+     *
+     * @param priority 优先级
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBatchOptions priority(AiHttpPriority priority) {
+        this.priority = priority == null ? AiHttpPriority.LOW : priority;
+        return this;
+    }
+
+    /**
+     * 设置结果回调。回调串行执行，不需要额外同步。
+     *
+     * @param onResult 结果回调
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBatchOptions onResult(Consumer<AiHttpBatchResult> onResult) {
+        this.onResult = onResult;
+        return this;
+    }
+
+    /**
+     * 获取同时在途的最大请求数。
+     *
+     * @return 同时在途的最大请求数
+     */
+    public int maxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * 获取是否按输入顺序回调结果。
+     *
+     * @return 是否按输入顺序回调结果
+     */
+    public boolean ordered() {
+        return ordered;
+    }
+
+    /**
+     * 获取单个请求的重试策略。
+     *
+     * @return 单个请求的重试策略
+     */
+    public AiHttpRetryPolicy retryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * 获取检查点文件。
+     *
+     * @return 检查点文件
+     */
+    public Path checkpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * 获取从检查点恢复的结果是否回调。
+     *
+     * @return 从检查点恢复的结果是否回调
+     */
+    public boolean replayCheckpointed() {
+        return replayCheckpointed;
+    }
+
+    /**
+     * 获取调度优先级。
+     *
+     * @return 调度优先级
+     */
+    public AiHttpPriority priority() {
+        return priority;
+    }
+
+    /**
+     * 获取结果回调。
+     *
+     * @return 结果回调
+     */
+    public Consumer<AiHttpBatchResult> onResult() {
+        return onResult;
+    }
+}
@@ -0,0 +1,35 @@
+package github.ag777.util.remote.ai.http.batch;
+
+import github.ag777.util.remote.ai.http.model.AiHttpRequest;
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+
+/**
+ * 批量调用中单个请求的结果。
+ *
+ * @param index 请求在输入中的序号，从0开始
+ * @param request 请求
+ * @param response 响应，失败时为null
+ * @param error 最后一次失败的异常，成功时为null
+ * @param attempts 实际发送的次数，从检查点恢复的结果为0
+ * @param fromCheckpoint 是否为从检查点文件恢复的结果
+ * @author ag777
+ * @since 1.0
+ */
+public record AiHttpBatchResult(
+        int index,
+        AiHttpRequest request,
+        AiHttpResponse response,
+        Throwable error,
+        int attempts,
+        boolean fromCheckpoint
+) {
+
+    /**
+     * 是否成功。
+     *
+     * @return 是否成功
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,292 @@
+package github.ag777.util.remote.ai.http.batch;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import github.ag777.util.gson.GsonUtils;
+import github.ag777.util.remote.ai.http.client.AiHttpClient;
+import github.ag777.util.remote.ai.http.config.AiHttpRetryPolicy;
+import github.ag777.util.remote.ai.http.exception.AiHttpException;
+import github.ag777.util.remote.ai.http.model.AiHttpRequest;
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 批量调用执行器。
+ *
+ * <p>惰性遍历输入，用信号量限制在途请求数，每个请求经 {@link AiHttpClient#chatAsync} 发出
+ * （配置了调度器时同样受调度器的并发和限流约束）。失败的请求按重试策略延迟重发，重试期间继续占用在途名额。
+ * 按输入顺序回调时，结果回调之后才归还名额，排在慢请求后面的结果不会无限堆积。
+ * 成功的结果追加写入检查点文件，每行一个JSON：{@code {"index":0,"key":"...","response":{...}}}，
+ * 进程崩溃后用同一输入重新运行会跳过这些项。
+ *
+ * <p>一般通过 {@link AiHttpClient#chatBatch(Iterable, AiHttpBatchOptions)} 使用，每个执行器只能运行一次。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpBatchRunner {
+    private static volatile ScheduledExecutorService retryTimer;
+
+    private final AiHttpClient client;
+    private final AiHttpBatchOptions options;
+    private final Semaphore permits;
+
+    private final Object deliveryLock = new Object();
+    private final TreeMap<Integer, Pending> pendingOrdered = new TreeMap<>();
+    private int nextOrderedIndex;
+    private Throwable callbackError;
+
+    private final Object checkpointLock = new Object();
+    private BufferedWriter checkpointWriter;
+
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private int skipped;
+
+    private record Checkpoint(String key, AiHttpResponse response) {
+    }
+
+    /**
+     * 按输入顺序回调时暂存的结果。
+     *
+     * @param holdsPermit 是否占用在途名额，回调后才归还，暂存的结果数因此不超过最大在途数
+     */
+    private record Pending(AiHttpBatchResult result, boolean holdsPermit) {
+    }
+
+    /**
+     * 创建批量调用执行器。
+     *
+     * @param client AI HTTP客户端
+     * @param options 批量调用选项
+     */
+    public AiHttpBatchRunner(AiHttpClient client, AiHttpBatchOptions options) {
+        this.client = client;
+        this.options = options == null ? AiHttpBatchOptions.create() : options;
+        this.permits = new Semaphore(this.options.maxInFlight());
+    }
+
+    /**
+     * 执行批量调用，阻塞直到所有请求完成。
+     *
+     * @param requests 请求，按遍历顺序编号
+     * @return 汇总信息
+     * @throws AiHttpException 结果回调抛出异常时，在所有请求结束后抛出
+     */
+    public AiHttpBatchSummary run(Iterable<AiHttpRequest> requests) {
+        long startNanos = System.nanoTime();
+        Path checkpointFile = options.checkpointFile();
+        Map<Integer, Checkpoint> checkpoints = checkpointFile == null ? Map.of() : loadCheckpoint(checkpointFile);
+        int maxInFlight = options.maxInFlight();
+        int total = 0;
+        try {
+            if (checkpointFile != null) {
+                checkpointWriter = Files.newBufferedWriter(checkpointFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (AiHttpRequest request : requests) {
+                int index = total++;
+                String key = checkpointFile == null ? null : client.requestKey(request);
+                Checkpoint checkpoint = checkpoints.get(index);
+                if (checkpoint != null && checkpoint.key().equals(key)) {
+                    skipped++;
+                    deliver(new AiHttpBatchResult(index, request, checkpoint.response(), null, 0, true), false);
+                    continue;
+                }
+                permits.acquire();
+                submit(index, request, key, 1, System.nanoTime());
+            }
+            // 拿到全部名额即表示所有在途请求都已结束
+            permits.acquire(maxInFlight);
+            permits.release(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("批量调用被中断");
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开检查点文件失败: " + checkpointFile, e);
+        } finally {
+            closeCheckpointWriter();
+        }
+        if (callbackError != null) {
+            throw new AiHttpException("批量结果回调失败", callbackError);
+        }
+        return new AiHttpBatchSummary(total, succeeded.get(), failed.get(), skipped,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    private void submit(int index, AiHttpRequest request, String key, int attempt, long firstStartNanos) {
+        try {
+            client.chatAsync(request, null, options.priority()).whenComplete((response, error) ->
+                    complete(index, request, key, attempt, firstStartNanos, response, error));
+        } catch (RuntimeException e) {
+            // 同步抛出的异常（如请求构建失败）同样作为失败结果，保证名额被归还、有序回调不会卡住
+            failed.incrementAndGet();
+            finish(new AiHttpBatchResult(index, request, null, e, attempt, false));
+        }
+    }
+
+    private void complete(int index, AiHttpRequest request, String key, int attempt, long firstStartNanos,
+                          AiHttpResponse response, Throwable error) {
+        if (error == null) {
+            writeCheckpoint(index, key, response);
+            succeeded.incrementAndGet();
+            finish(new AiHttpBatchResult(index, request, response, null, attempt, false));
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        AiHttpRetryPolicy retryPolicy = options.retryPolicy();
+        if (retryPolicy != null && retryPolicy.isRetryable(cause)) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstStartNanos);
+            long backoffMillis = retryPolicy.backoffMillis(attempt, cause);
+            if (retryPolicy.canRetry(attempt, elapsedMillis, backoffMillis)) {
+                getRetryTimer().schedule(() -> submit(index, request, key, attempt + 1, firstStartNanos),
+                        backoffMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+        failed.incrementAndGet();
+        finish(new AiHttpBatchResult(index, request, null, cause, attempt, false));
+    }
+
+    private void finish(AiHttpBatchResult result) {
+        deliver(result, true);
+    }
+
+    /**
+     * 串行回调结果；按输入顺序时暂存乱序到达的结果，占用的名额在回调后才归还。
+     *
+     * @param holdsPermit 结果是否占用在途名额
+     */
+    private void deliver(AiHttpBatchResult result, boolean holdsPermit) {
+        int released = 0;
+        try {
+            synchronized (deliveryLock) {
+                if (!options.ordered()) {
+                    released = holdsPermit ? 1 : 0;
+                    invoke(result);
+                    return;
+                }
+                pendingOrdered.put(result.index(), new Pending(result, holdsPermit));
+                Pending next;
+                while ((next = pendingOrdered.remove(nextOrderedIndex)) != null) {
+                    nextOrderedIndex++;
+                    if (next.holdsPermit()) {
+                        released++;
+                    }
+                    invoke(next.result());
+                }
+            }
+        } finally {
+            if (released > 0) {
+                permits.release(released);
+            }
+        }
+    }
+
+    private void invoke(AiHttpBatchResult result) {
+        Consumer<AiHttpBatchResult> onResult = options.onResult();
+        if (onResult == null || (result.fromCheckpoint() && !options.replayCheckpointed())) {
+            return;
+        }
+        try {
+            onResult.accept(result);
+        } catch (Throwable e) {
+            if (callbackError == null) {
+                callbackError = e;
+            }
+        }
+    }
+
+    private void writeCheckpoint(int index, String key, AiHttpResponse response) {
+        if (checkpointWriter == null) {
+            return;
+        }
+        JsonObject line = new JsonObject();
+        line.addProperty("index", index);
+        line.addProperty("key", key);
+        line.add("response", GsonUtils.toJsonObjectWithException(GsonUtils.get().toJson(response)));
+        synchronized (checkpointLock) {
+            try {
+                checkpointWriter.write(line.toString());
+                checkpointWriter.newLine();
+                checkpointWriter.flush();
+            } catch (IOException e) {
+                // 检查点写失败只影响断点续跑，不影响本次结果
+            }
+        }
+    }
+
+    private void closeCheckpointWriter() {
+        synchronized (checkpointLock) {
+            if (checkpointWriter != null) {
+                try {
+                    checkpointWriter.close();
+                } catch (IOException ignored) {
+                }
+                checkpointWriter = null;
+            }
+        }
+    }
+
+    /**
+     * 读取检查点文件，无法解析的行（如崩溃时写了一半的最后一行）直接忽略。
+     */
+    private static Map<Integer, Checkpoint> loadCheckpoint(Path file) {
+        Map<Integer, Checkpoint> checkpoints = new HashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return checkpoints;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonObject json = GsonUtils.toJsonObjectWithException(line);
+                    JsonElement response = json.get("response");
+                    checkpoints.put(json.get("index").getAsInt(), new Checkpoint(json.get("key").getAsString(),
+                            GsonUtils.get().fromJsonWithException(response.toString(), AiHttpResponse.class)));
+                } catch (Exception ignored) {
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取检查点文件失败: " + file, e);
+        }
+        return checkpoints;
+    }
+
+    private static ScheduledExecutorService getRetryTimer() {
+        if (retryTimer == null) {
+            synchronized (AiHttpBatchRunner.class) {
+                if (retryTimer == null) {
+                    retryTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread t = new Thread(r, "ai-http-batch-retry");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+            }
+        }
+        return retryTimer;
+    }
+}
@@ -0,0 +1,21 @@
+package github.ag777.util.remote.ai.http.batch;
+
+/**
+ * 批量调用汇总。
+ *
+ * @param total 请求总数
+ * @param succeeded 本次成功的数量
+ * @param failed 重试后仍失败的数量
+ * @param skipped 从检查点恢复、未重新发送的数量
+ * @param elapsedMillis 总耗时毫秒数
+ * @author ag777
+ * @since 1.0
+ */
+public record AiHttpBatchSummary(
+        int total,
+        int succeeded,
+        int failed,
+        int skipped,
+        long elapsedMillis
+) {
+}
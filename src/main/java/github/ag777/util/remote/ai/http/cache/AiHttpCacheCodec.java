@@ -0,0 +1,29 @@
+package github.ag777.util.remote.ai.http.cache;
+
+import github.ag777.util.gson.GsonUtils;
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+
+/**
+ * 缓存条目的序列化，内存层和磁盘层共用，读出的总是新对象，调用方修改不会影响缓存。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+final class AiHttpCacheCodec {
+
+    private AiHttpCacheCodec() {
+    }
+
+    static String encode(AiHttpResponse response) {
+        return GsonUtils.get().toJson(response);
+    }
+
+    static AiHttpResponse decode(String json) {
+        try {
+            return GsonUtils.get().fromJsonWithException(json, AiHttpResponse.class);
+        } catch (Exception e) {
+            // 缓存损坏按未命中处理
+            return null;
+        }
+    }
+}
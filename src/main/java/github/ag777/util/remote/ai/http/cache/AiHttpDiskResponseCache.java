@@ -0,0 +1,111 @@
+package github.ag777.util.remote.ai.http.cache;
+
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 磁盘响应缓存，每个缓存键对应目录下的一个JSON文件。
+ *
+ * <p>按文件修改时间判断TTL，过期文件在读取时删除；写入先写临时文件再原子改名，
+ * 多个进程共用同一目录时不会读到半个文件。读写失败都按未命中处理，不影响正常请求。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpDiskResponseCache implements AiHttpResponseCache {
+    private final Path directory;
+    private final long ttlMillis;
+
+    /**
+     * 创建磁盘缓存。
+     *
+     * @param directory 缓存目录，不存在时自动创建
+     * @param ttl 过期时间，小于等于0表示不过期
+     * @param unit 时间单位
+     */
+    public AiHttpDiskResponseCache(Path directory, long ttl, TimeUnit unit) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建缓存目录失败: " + directory, e);
+        }
+        this.directory = directory;
+        this.ttlMillis = ttl > 0 ? unit.toMillis(ttl) : 0;
+    }
+
+    @Override
+    public AiHttpResponse get(String key) {
+        Path file = fileOf(key);
+        try {
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            if (ttlMillis > 0) {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (modified.toMillis() + ttlMillis < System.currentTimeMillis()) {
+                    Files.deleteIfExists(file);
+                    return null;
+                }
+            }
+            return AiHttpCacheCodec.decode(Files.readString(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, AiHttpResponse response) {
+        if (response == null) {
+            return;
+        }
+        Path file = fileOf(key);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, key, ".tmp");
+            Files.writeString(temp, AiHttpCacheCodec.encode(response), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // 写缓存失败不影响请求结果
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        try {
+            Files.deleteIfExists(fileOf(key));
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * 获取缓存目录。
+     *
+     * @return 缓存目录
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private Path fileOf(String key) {
+        return directory.resolve(key + ".json");
+    }
+}
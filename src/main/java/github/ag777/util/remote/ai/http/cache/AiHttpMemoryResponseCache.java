@@ -0,0 +1,158 @@
+package github.ag777.util.remote.ai.http.cache;
+
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内存响应缓存，LRU淘汰加TTL过期。
+ *
+ * <p>可选挂接磁盘层：内存未命中时查磁盘层，命中后回填内存；写入时两层同时写。
+ * 条目以序列化后的JSON保存，每次读取都返回新对象。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpMemoryResponseCache implements AiHttpResponseCache {
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry> entries;
+    private volatile AiHttpResponseCache diskTier;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record Entry(String json, long expireAt) {
+    }
+
+    /**
+     * 创建内存缓存。
+     *
+     * @param maxEntries 最大条目数，超出时淘汰最久未使用的条目
+     * @param ttl 过期时间，小于等于0表示不过期
+     * @param unit 时间单位
+     */
+    public AiHttpMemoryResponseCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("最大条目数必须大于0");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl > 0 ? unit.toMillis(ttl) : 0;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AiHttpMemoryResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 挂接磁盘层。
+     *
+     * @param diskTier 二级缓存，通常为 {@link AiHttpDiskResponseCache}
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpMemoryResponseCache diskTier(AiHttpResponseCache diskTier) {
+        this.diskTier = diskTier;
+        return this;
+    }
+
+    @Override
+    public AiHttpResponse get(String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expireAt() > 0 && entry.expireAt() < System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            AiHttpResponse response = AiHttpCacheCodec.decode(entry.json());
+            if (response != null) {
+                hits.increment();
+                return response;
+            }
+        }
+        AiHttpResponseCache tier = diskTier;
+        AiHttpResponse response = tier == null ? null : tier.get(key);
+        if (response == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        putLocal(key, AiHttpCacheCodec.encode(response));
+        return response;
+    }
+
+    @Override
+    public void put(String key, AiHttpResponse response) {
+        if (response == null) {
+            return;
+        }
+        putLocal(key, AiHttpCacheCodec.encode(response));
+        AiHttpResponseCache tier = diskTier;
+        if (tier != null) {
+            tier.put(key, response);
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+        AiHttpResponseCache tier = diskTier;
+        if (tier != null) {
+            tier.remove(key);
+        }
+    }
+
+    /**
+     * 清空内存层（不影响磁盘层）。
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * 获取内存层当前条目数。
+     *
+     * @return 条目数
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 获取累计命中次数（含磁盘层命中）。
+     *
+     * @return 命中次数
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * 获取累计未命中次数。
+     *
+     * @return 未命中次数
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private void putLocal(String key, String json) {
+        long expireAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : 0;
+        synchronized (entries) {
+            entries.put(key, new Entry(json, expireAt));
+        }
+    }
+}
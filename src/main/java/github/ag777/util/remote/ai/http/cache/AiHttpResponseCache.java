@@ -0,0 +1,188 @@
+package github.ag777.util.remote.ai.http.cache;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import github.ag777.util.gson.GsonUtils;
+import github.ag777.util.remote.ai.http.model.AiHttpRequest;
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+import github.ag777.util.remote.ai.http.openai.model.AiMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AI响应缓存。
+ *
+ * <p>缓存键是协议请求体的规范化哈希：对 {@code buildRequestBody} 生成的请求体按键名排序，
+ * 去掉 {@code stream}/{@code stream_options} 两个字段，连同端点标识（协议适配器和请求地址）做SHA-256，
+ * 因此同一请求的流式和非流式调用共用缓存，不同后端之间互不串用。
+ * 消息直接复用各自缓存的JSON片段参与哈希，见 {@link #key(String, Map)}。
+ * 流式调用命中缓存时，由 {@link github.ag777.util.remote.ai.http.support.AiHttpStreamDispatcher#replay(AiHttpResponse)}
+ * 把缓存结果按推理、内容、工具调用的顺序回放给处理器。
+ *
+ * <p>默认只缓存 {@code temperature=0} 的请求和正常结束的响应，
+ * 可通过覆盖 {@link #isCacheable(AiHttpRequest)}、{@link #isCacheable(AiHttpResponse)} 调整。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * config.responseCache(new AiHttpMemoryResponseCache(10000, 1, TimeUnit.DAYS)
+ *     .diskTier(new AiHttpDiskResponseCache(Paths.get("cache/ai"), 30, TimeUnit.DAYS)));
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public interface AiHttpResponseCache {
+
+    /**
+     * 获取缓存的响应。
+     *
+     * @param key 缓存键
+     * @return 缓存的响应，未命中或已过期时返回null
+     */
+    AiHttpResponse get(String key);
+
+    /**
+     * 写入缓存。
+     *
+     * @param key 缓存键
+     * @param response 响应
+     */
+    void put(String key, AiHttpResponse response);
+
+    /**
+     * 移除缓存。
+     *
+     * @param key 缓存键
+     */
+    void remove(String key);
+
+    /**
+     * 判断请求是否可以缓存，默认只缓存温度为0的确定性请求。
+     *
+     * @param request 请求
+     * @return 是否可以缓存
+     */
+    default boolean isCacheable(AiHttpRequest request) {
+        Object temperature = request.options().get("temperature");
+        return temperature instanceof Number number && number.doubleValue() == 0;
+    }
+
+    /**
+     * 判断响应是否可以写入缓存，默认只缓存正常结束的响应：
+     * 没有完成原因（如流在 {@code [DONE]} 之前断开）或因长度截断（{@code length}）的不完整结果不缓存。
+     *
+     * @param response 响应
+     * @return 是否可以写入缓存
+     */
+    default boolean isCacheable(AiHttpResponse response) {
+        String finishReason = response == null ? null : response.finishReason();
+        return finishReason != null && !finishReason.isEmpty() && !"length".equals(finishReason);
+    }
+
+    /**
+     * 计算请求体的规范化缓存键。
+     *
+     * <p>直接在请求体字段上计算哈希，不再把序列化后的JSON重新解析成树：
+     * 顶层字段按键名排序，{@link AiMessage} 使用其缓存的 {@link AiMessage#toJson()} 片段，
+     * 其余字段（参数、工具定义等，通常很小）按键名排序后规范化写出。
+     * 端点标识一并参与哈希，共用同一个磁盘缓存目录的多个客户端即使模型名相同，也不会读到其他后端的响应。
+     *
+     * @param endpoint 端点标识，如协议适配器与请求地址
+     * @param body 协议请求体
+     * @return SHA-256十六进制字符串
+     */
+    static String key(String endpoint, Map<String, Object> body) {
+        MessageDigest digest = sha256();
+        List<String> names = new ArrayList<>(body.keySet());
+        Collections.sort(names);
+        StringBuilder canonical = new StringBuilder();
+        canonical.append(GsonUtils.get().toJson(endpoint == null ? "" : endpoint)).append(';');
+        for (String name : names) {
+            Object value = body.get(name);
+            if (value == null || "stream".equals(name) || "stream_options".equals(name)) {
+                continue;
+            }
+            canonical.append(GsonUtils.get().toJson(name)).append(':');
+            if (value instanceof List<?> list) {
+                canonical.append('[');
+                for (int i = 0; i < list.size(); i++) {
+                    if (i > 0) {
+                        canonical.append(',');
+                    }
+                    Object item = list.get(i);
+                    if (item instanceof AiMessage message) {
+                        // 消息片段可能很长（含base64图片），直接送入摘要，不拼进缓冲区
+                        update(digest, canonical);
+                        canonical.setLength(0);
+                        digest.update(message.toJson().getBytes(StandardCharsets.UTF_8));
+                    } else {
+                        writeCanonical(GsonUtils.get().toJsonTree(item), canonical);
+                    }
+                }
+                canonical.append(']');
+            } else {
+                writeCanonical(GsonUtils.get().toJsonTree(value), canonical);
+            }
+            canonical.append(',');
+        }
+        update(digest, canonical);
+        byte[] hash = digest.digest();
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持SHA-256", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, StringBuilder text) {
+        if (!text.isEmpty()) {
+            digest.update(text.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeCanonical(JsonElement element, StringBuilder out) {
+        if (element == null || element.isJsonNull()) {
+            out.append("null");
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            List<String> keys = new ArrayList<>(object.keySet());
+            Collections.sort(keys);
+            out.append('{');
+            for (int i = 0; i < keys.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(GsonUtils.get().toJson(keys.get(i))).append(':');
+                writeCanonical(object.get(keys.get(i)), out);
+            }
+            out.append('}');
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            out.append('[');
+            for (int i = 0; i < array.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                writeCanonical(array.get(i), out);
+            }
+            out.append(']');
+        } else {
+            out.append(element);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package github.ag777.util.remote.ai.http.client;
 
+import com.google.gson.JsonObject;
+import github.ag777.util.remote.ai.http.history.AiHttpHistoryPolicy;
 import github.ag777.util.remote.ai.http.model.AiHttpRequest;
 import github.ag777.util.remote.ai.http.model.AiHttpResponse;
 import github.ag777.util.remote.ai.http.model.AiHttpToolCall;
@@ -8,6 +10,8 @@ import github.ag777.util.remote.ai.http.openai.model.AiMessageContentPart;
 import github.ag777.util.remote.ai.http.openai.model.request.RequestTool;
 import github.ag777.util.remote.ai.http.stream.AiHttpFuture;
 import github.ag777.util.remote.ai.http.stream.AiHttpStreamHandler;
+import github.ag777.util.remote.ai.http.support.AiHttpTokenEstimator;
+import github.ag777.util.remote.ai.http.tool.AiHttpToolHandler;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 
@@ -16,7 +20,15 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 /**
@@ -28,9 +40,10 @@ import java.util.function.Consumer;
  * <p>主要特性：
  * <ul>
  * <li>自动管理对话历史</li>
+ * <li>可按token预算裁剪或摘要历史</li>
  * <li>支持文本和多模态消息</li>
  * <li>支持系统提示设置</li>
- * <li>工具调用管理</li>
+ * <li>工具调用管理，支持并行自动执行工具</li>
  * <li>默认参数配置</li>
  * <li>链式调用支持</li>
  * </ul>
@@ -66,6 +79,11 @@ public class AiHttpChatSession {
     private final List<RequestTool> tools = new ArrayList<>();
     private final AiHttpRequest defaults = AiHttpRequest.create();
     private List<AiMessageContentPart> pendingUserParts;
+    private AiHttpHistoryPolicy historyPolicy;
+    private final Map<String, AiHttpToolHandler> toolHandlers = new LinkedHashMap<>();
+    private final Map<String, Long> toolTimeoutMillis = new LinkedHashMap<>();
+    private long defaultToolTimeoutMillis = 60_000;
+    private int maxToolRounds = 10;
 
     /**
      * 创建AI聊天会话。
@@ -109,6 +127,19 @@ public class AiHttpChatSession {
         return this;
     }
 
+    /**
+     * 设置历史整理策略，如 {@link github.ag777.util.remote.ai.http.history.AiHttpSlidingWindowPolicy}。
+     * 
+     * <p>每次发送前调用，系统提示总是保留；为null表示发送完整历史。
+     * 
+     * @param historyPolicy 历史整理策略
+     * @return 当前会话对象，支持链式调用
+     */
+    public AiHttpChatSession historyPolicy(AiHttpHistoryPolicy historyPolicy) {
+        this.historyPolicy = historyPolicy;
+        return this;
+    }
+
     /**
      * 添加消息到历史记录。
      * 
@@ -333,6 +364,66 @@ public class AiHttpChatSession {
         return this;
     }
 
+    /**
+     * 添加工具并注册其处理器，供 {@link #chatWithTools(String)} 自动执行。
+     * 
+     * @param tool 工具定义
+     * @param handler 工具处理器
+     * @return 当前会话对象，支持链式调用
+     */
+    public AiHttpChatSession tool(RequestTool tool, AiHttpToolHandler handler) {
+        addTool(tool);
+        return toolHandler(tool.function().getName(), handler);
+    }
+
+    /**
+     * 为已添加的工具注册处理器。
+     * 
+     * @param name 工具名称
+     * @param handler 工具处理器
+     * @return 当前会话对象，支持链式调用
+     */
+    public AiHttpChatSession toolHandler(String name, AiHttpToolHandler handler) {
+        toolHandlers.put(name, handler);
+        return this;
+    }
+
+    /**
+     * 设置工具执行的默认超时时间，默认60秒。
+     * 
+     * @param timeout 超时时间
+     * @param unit 时间单位
+     * @return 当前会话对象，支持链式调用
+     */
+    public AiHttpChatSession toolTimeout(long timeout, TimeUnit unit) {
+        this.defaultToolTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    /**
+     * 设置指定工具的超时时间。
+     * 
+     * @param name 工具名称
+     * @param timeout 超时时间
+     * @param unit 时间单位
+     * @return 当前会话对象，支持链式调用
+     */
+    public AiHttpChatSession toolTimeout(String name, long timeout, TimeUnit unit) {
+        toolTimeoutMillis.put(name, unit.toMillis(timeout));
+        return this;
+    }
+
+    /**
+     * 设置自动执行工具的最大轮数，防止模型反复调用工具陷入死循环，默认10轮。
+     * 
+     * @param maxToolRounds 最大轮数
+     * @return 当前会话对象，支持链式调用
+     */
+    public AiHttpChatSession maxToolRounds(int maxToolRounds) {
+        this.maxToolRounds = Math.max(1, maxToolRounds);
+        return this;
+    }
+
     /**
      * 设置温度参数。
      * 
@@ -542,6 +633,104 @@ public class AiHttpChatSession {
         return client.chat(request);
     }
 
+    /**
+     * 带自动工具执行的同步对话。
+     *
+     * <p>模型返回工具调用时，同一轮的所有调用在虚拟线程上并行执行（各自受超时限制），
+     * 结果按调用顺序写回后继续请求，直到模型不再调用工具或达到最大轮数。
+     * 未注册的工具、参数不是合法JSON、执行异常和超时都会以 {@code {"error": "..."}} 的形式回传给模型。
+     * 与 {@link #chat(String)} 不同，本轮的用户消息、工具调用、工具结果和最终回复都会写入历史记录。
+     *
+     * @param userMessage 用户消息，为null时只发送链式构建的多模态消息或直接基于现有历史继续
+     * @return 最后一轮的AI响应
+     */
+    public AiHttpResponse chatWithTools(String userMessage) {
+        AiMessage current = buildCurrentUserMessage(userMessage);
+        if (current != null) {
+            history.add(current);
+        }
+        AiHttpResponse response = client.chat(newRequest((AiMessage) null, null));
+        int round = 0;
+        while (response.toolCalls() != null && !response.toolCalls().isEmpty() && round < maxToolRounds) {
+            round++;
+            assistantToolCalls(response);
+            List<AiHttpToolCall> toolCalls = response.toolCalls();
+            List<String> results = executeTools(toolCalls);
+            for (int i = 0; i < toolCalls.size(); i++) {
+                toolResult(toolCalls.get(i).id(), results.get(i));
+            }
+            response = client.chat(newRequest((AiMessage) null, null));
+        }
+        if (response.toolCalls() == null || response.toolCalls().isEmpty()) {
+            history.add(AiMessage.assistant(response.content()));
+        }
+        return response;
+    }
+
+    /**
+     * 并行执行一轮工具调用，返回与调用一一对应的结果。
+     */
+    private List<String> executeTools(List<AiHttpToolCall> toolCalls) {
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-tool-", 0).factory());
+        try {
+            List<Future<String>> futures = new ArrayList<>(toolCalls.size());
+            List<Long> deadlines = new ArrayList<>(toolCalls.size());
+            for (AiHttpToolCall toolCall : toolCalls) {
+                String name = toolCall.hasFunction() ? toolCall.function().name() : null;
+                AiHttpToolHandler handler = name == null ? null : toolHandlers.get(name);
+                long timeout = toolTimeoutMillis.getOrDefault(name, defaultToolTimeoutMillis);
+                deadlines.add(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+                if (handler == null || toolCall.function().hasArgumentsError()) {
+                    futures.add(null);
+                } else {
+                    futures.add(executor.submit(() -> handler.handle(toolCall)));
+                }
+            }
+            List<String> results = new ArrayList<>(toolCalls.size());
+            for (int i = 0; i < toolCalls.size(); i++) {
+                Future<String> future = futures.get(i);
+                if (future == null) {
+                    AiHttpToolCall toolCall = toolCalls.get(i);
+                    if (toolCall.hasFunction() && toolCall.function().hasArgumentsError()) {
+                        results.add(toolError("参数不是合法的JSON: " + toolCall.function().argumentsError()));
+                    } else {
+                        results.add(toolError("未注册的工具: " + (toolCall.hasFunction() ? toolCall.function().name() : null)));
+                    }
+                    continue;
+                }
+                try {
+                    long remaining = deadlines.get(i) - System.nanoTime();
+                    String result = future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                    results.add(result == null ? "" : result);
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    results.add(toolError("工具执行超时"));
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    results.add(toolError(cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(f -> {
+                        if (f != null) {
+                            f.cancel(true);
+                        }
+                    });
+                    throw new IllegalStateException("等待工具执行时被中断", e);
+                }
+            }
+            return results;
+        } finally {
+            // 不等待被取消但不响应中断的任务
+            executor.shutdown();
+        }
+    }
+
+    private static String toolError(String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        return error.toString();
+    }
+
     /**
      * 创建新的请求对象。
      * 
@@ -569,7 +758,15 @@ public class AiHttpChatSession {
         if (system != null && !system.isEmpty()) {
             request.system(system);
         }
-        for (AiMessage message : history) {
+        List<AiMessage> sentHistory = history;
+        if (historyPolicy != null) {
+            int fixedTokens = AiHttpTokenEstimator.estimate(userMessage);
+            if (system != null && !system.isEmpty()) {
+                fixedTokens += AiHttpTokenEstimator.estimate(AiMessage.system(system));
+            }
+            sentHistory = historyPolicy.apply(history, fixedTokens);
+        }
+        for (AiMessage message : sentHistory) {
             request.message(message);
         }
         if (userMessage != null) {
@@ -7,29 +7,47 @@ import github.ag777.util.gson.JsonObjectUtils;
 import github.ag777.util.http.HttpHelper;
 import github.ag777.util.http.model.MyCall;
 import github.ag777.util.lang.IOUtils;
-import github.ag777.util.lang.exception.model.GsonSyntaxException;
+import github.ag777.util.remote.ai.http.batch.AiHttpBatchOptions;
+import github.ag777.util.remote.ai.http.batch.AiHttpBatchRunner;
+import github.ag777.util.remote.ai.http.batch.AiHttpBatchSummary;
+import github.ag777.util.remote.ai.http.cache.AiHttpResponseCache;
 import github.ag777.util.remote.ai.http.config.AiHttpClientConfig;
+import github.ag777.util.remote.ai.http.config.AiHttpHedgePolicy;
+import github.ag777.util.remote.ai.http.config.AiHttpRetryPolicy;
 import github.ag777.util.remote.ai.http.exception.AiHttpException;
+import github.ag777.util.remote.ai.http.metrics.AiHttpMetricsListener;
+import github.ag777.util.remote.ai.http.metrics.AiHttpMetricsRecorder;
 import github.ag777.util.remote.ai.http.model.AiHttpChunk;
 import github.ag777.util.remote.ai.http.model.AiHttpRequest;
 import github.ag777.util.remote.ai.http.model.AiHttpResponse;
-import github.ag777.util.remote.ai.http.model.AiHttpToolCallDelta;
 import github.ag777.util.remote.ai.http.provider.AiHttpProvider;
 import github.ag777.util.remote.ai.http.provider.OpenAiCompatibleProvider;
+import github.ag777.util.remote.ai.http.scheduler.AiHttpPriority;
+import github.ag777.util.remote.ai.http.scheduler.AiHttpRequestScheduler;
 import github.ag777.util.remote.ai.http.stream.AiHttpFuture;
 import github.ag777.util.remote.ai.http.stream.AiHttpStreamHandler;
-import github.ag777.util.remote.ai.http.support.AiHttpResponseAccumulator;
+import github.ag777.util.remote.ai.http.support.AiHttpStreamDispatcher;
+import github.ag777.util.remote.ai.http.support.AiHttpStreamEngine;
 import okhttp3.Response;
 
-import java.io.BufferedReader;
-import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 通用AI HTTP客户端。
@@ -40,6 +58,9 @@ import java.util.concurrent.Executor;
  * <li>流式响应处理</li>
  * <li>工具调用支持</li>
  * <li>可取消的异步请求</li>
+ * <li>可选的请求调度、重试退避和对冲请求</li>
+ * <li>可选的响应缓存</li>
+ * <li>带检查点的批量调用</li>
  * <li>多协议适配</li>
  * </ul>
  * 
@@ -89,6 +110,24 @@ public class AiHttpClient {
         return new AiHttpClient(config, new OpenAiCompatibleProvider());
     }
 
+    /**
+     * 获取客户端配置。
+     * 
+     * @return 客户端配置
+     */
+    public AiHttpClientConfig config() {
+        return config;
+    }
+
+    /**
+     * 获取协议适配器。
+     * 
+     * @return 协议适配器
+     */
+    public AiHttpProvider provider() {
+        return provider;
+    }
+
     /**
      * 同步聊天完成。
      * 
@@ -97,7 +136,7 @@ public class AiHttpClient {
      * @throws AiHttpException 调用失败时抛出
      */
     public AiHttpResponse chat(AiHttpRequest request) {
-        return execute(request, false, null);
+        return scheduled(request, false, null);
     }
 
     /**
@@ -118,14 +157,64 @@ public class AiHttpClient {
      * @return 可取消的Future对象
      */
     public AiHttpFuture chatAsync(AiHttpRequest request, AiHttpStreamHandler streamHandler) {
+        return chatAsync(request, streamHandler, AiHttpPriority.NORMAL);
+    }
+
+    /**
+     * 按指定优先级异步聊天完成。
+     * 
+     * <p>优先级只在配置了 {@link AiHttpClientConfig#scheduler(AiHttpRequestScheduler)} 时生效。
+     * 
+     * @param request 聊天请求
+     * @param streamHandler 流式处理器，如果为null则不进行流式处理
+     * @param priority 调度优先级
+     * @return 可取消的Future对象
+     */
+    public AiHttpFuture chatAsync(AiHttpRequest request, AiHttpStreamHandler streamHandler, AiHttpPriority priority) {
         AiHttpFuture future = new AiHttpFuture();
+        String cacheKey;
+        try {
+            cacheKey = cacheKey(request);
+            AiHttpResponse cached = replayCached(request, cacheKey, streamHandler);
+            if (cached != null) {
+                future.complete(cached);
+                return future;
+            }
+        } catch (RuntimeException e) {
+            if (streamHandler != null) {
+                try {
+                    streamHandler.onError(e);
+                } catch (Throwable ignored) {
+                }
+            }
+            future.completeExceptionally(e);
+            return future;
+        }
+        AiHttpRequestScheduler scheduler = config.scheduler();
+        if (scheduler != null) {
+            scheduler.submit(request, priority, future, () -> execute(request, streamHandler != null, streamHandler, future, cacheKey))
+                    .whenComplete((response, e) -> {
+                        if (e == null) {
+                            future.complete(response);
+                            return;
+                        }
+                        if (streamHandler != null && !future.isCancelled()) {
+                            try {
+                                streamHandler.onError(e);
+                            } catch (Throwable ignored) {
+                            }
+                        }
+                        future.completeExceptionally(e);
+                    });
+            return future;
+        }
         Executor executor = config.executor();
         executor.execute(() -> {
             if (future.isCancelled()) {
                 return;
             }
             try {
-                AiHttpResponse response = execute(request, streamHandler != null, streamHandler, future);
+                AiHttpResponse response = execute(request, streamHandler != null, streamHandler, future, cacheKey);
                 if (!future.isDone()) {
                     future.complete(response);
                 }
@@ -153,14 +242,90 @@ public class AiHttpClient {
      * @throws AiHttpException 调用失败时抛出
      */
     public AiHttpResponse chatStream(AiHttpRequest request, AiHttpStreamHandler streamHandler) {
-        return execute(request, true, streamHandler);
+        return scheduled(request, true, streamHandler);
     }
 
-    private AiHttpResponse execute(AiHttpRequest request, boolean stream, AiHttpStreamHandler streamHandler) {
-        return execute(request, stream, streamHandler, null);
+    /**
+     * 批量聊天完成，阻塞直到所有请求结束，结果通过 {@link AiHttpBatchOptions#onResult} 逐个回调。
+     * 
+     * @param requests 聊天请求，可以是惰性生成的序列
+     * @param options 批量调用选项
+     * @return 汇总信息
+     */
+    public AiHttpBatchSummary chatBatch(Iterable<AiHttpRequest> requests, AiHttpBatchOptions options) {
+        return new AiHttpBatchRunner(this, options).run(requests);
     }
 
-    private AiHttpResponse execute(AiHttpRequest request, boolean stream, AiHttpStreamHandler streamHandler, AiHttpFuture future) {
+    /**
+     * 计算请求的规范化键（端点与请求体的SHA-256，与流式与否无关），用于缓存和批量检查点。
+     * 
+     * @param request 聊天请求
+     * @return 请求键
+     */
+    public String requestKey(AiHttpRequest request) {
+        request.flushPendingUserParts();
+        return AiHttpResponseCache.key(provider.getClass().getName() + ' ' + buildUrl(), provider.buildRequestBody(request, false));
+    }
+
+    /**
+     * 同步调用，配置了调度器时经调度器排队执行。
+     * 失败时与异步调用一样先回调处理器的onError再抛出，保证处理器总能收到结束事件。
+     */
+    private AiHttpResponse scheduled(AiHttpRequest request, boolean stream, AiHttpStreamHandler streamHandler) {
+        AiHttpRequestScheduler scheduler = config.scheduler();
+        try {
+            String cacheKey = cacheKey(request);
+            AiHttpResponse cached = replayCached(request, cacheKey, streamHandler);
+            if (cached != null) {
+                return cached;
+            }
+            if (scheduler == null) {
+                return execute(request, stream, streamHandler, null, cacheKey);
+            }
+            return scheduler.execute(request, AiHttpPriority.NORMAL, () -> execute(request, stream, streamHandler, null, cacheKey));
+        } catch (RuntimeException | Error e) {
+            if (streamHandler != null) {
+                try {
+                    streamHandler.onError(e);
+                } catch (Throwable ignored) {
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 计算请求的缓存键，未配置缓存或请求不可缓存时返回null。
+     */
+    private String cacheKey(AiHttpRequest request) {
+        AiHttpResponseCache cache = config.responseCache();
+        if (request == null || cache == null || !cache.isCacheable(request)) {
+            return null;
+        }
+        return requestKey(request);
+    }
+
+    /**
+     * 在进入调度器之前查找缓存，命中时直接回放给处理器，不占用并发名额，也不消耗限流令牌。
+     *
+     * @return 缓存的响应，未命中时返回null
+     */
+    private AiHttpResponse replayCached(AiHttpRequest request, String cacheKey, AiHttpStreamHandler streamHandler) {
+        if (cacheKey == null) {
+            return null;
+        }
+        AiHttpResponse cached = config.responseCache().get(cacheKey);
+        if (cached == null) {
+            return null;
+        }
+        if (streamHandler != null) {
+            streamHandler.onStart(request);
+        }
+        return new AiHttpStreamDispatcher(streamHandler).replay(cached);
+    }
+
+    private AiHttpResponse execute(AiHttpRequest request, boolean stream, AiHttpStreamHandler streamHandler, AiHttpFuture future,
+                                   String cacheKey) {
         if (request == null) {
             throw new IllegalArgumentException("request不能为空");
         }
@@ -168,10 +333,198 @@ public class AiHttpClient {
             throw new CancellationException("请求已取消");
         }
         request.flushPendingUserParts();
-        Map<String, Object> body = provider.buildRequestBody(request, stream);
-        String requestJson = GsonUtils.get().toJson(body);
+        if (streamHandler != null) {
+            streamHandler.onStart(request);
+        }
+        AiHttpResponse result = executeWithRetry(request, stream, streamHandler, future);
+        AiHttpResponseCache cache = config.responseCache();
+        if (cacheKey != null && cache != null && cache.isCacheable(result)) {
+            cache.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    private AiHttpResponse executeWithRetry(AiHttpRequest request, boolean stream, AiHttpStreamHandler streamHandler, AiHttpFuture future) {
+        AiHttpRetryPolicy retryPolicy = config.retryPolicy();
+        AiHttpHedgePolicy hedgePolicy = stream ? null : config.hedgePolicy();
+        if (retryPolicy == null && hedgePolicy == null) {
+            return executeOnce(request, stream, streamHandler, future, null);
+        }
+        AiHttpRequestScheduler scheduler = config.scheduler();
+        long startNanos = System.nanoTime();
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            AtomicBoolean responded = new AtomicBoolean(false);
+            try {
+                if (hedgePolicy != null) {
+                    AiHttpResponse result = executeHedged(request, future, hedgePolicy, scheduler);
+                    if (streamHandler != null) {
+                        streamHandler.onComplete(result);
+                    }
+                    return result;
+                }
+                return executeOnce(request, stream, streamHandler, future, responded);
+            } catch (RuntimeException e) {
+                // 流式响应已经开始输出后不能重试，否则处理器会收到重复内容
+                if (retryPolicy == null || responded.get() || !retryPolicy.isRetryable(e)
+                        || (future != null && future.isCancelled())) {
+                    throw e;
+                }
+                // 配置了调度器时429交给调度器：全局暂停派发并重新排队，而不是占着并发槽位在本地退避
+                if (scheduler != null && AiHttpRequestScheduler.isRateLimited(e)) {
+                    throw e;
+                }
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                long backoffMillis = retryPolicy.backoffMillis(attempt, e);
+                if (!retryPolicy.canRetry(attempt, elapsedMillis, backoffMillis)) {
+                    throw e;
+                }
+                sleepBackoff(backoffMillis, future);
+            }
+        }
+    }
+
+    /**
+     * 对冲执行非流式请求：主请求超过对冲延迟仍未返回时再发一个相同请求，先成功者胜出，另一个被取消。
+     * 配置了调度器时，主请求使用当前已占用的并发槽位，对冲请求以LOW优先级提交给调度器，同样受并发数和令牌桶约束。
+     */
+    private AiHttpResponse executeHedged(AiHttpRequest request, AiHttpFuture future, AiHttpHedgePolicy hedgePolicy,
+                                         AiHttpRequestScheduler scheduler) {
+        long startNanos = System.nanoTime();
+        List<AiHttpFuture> attempts = new CopyOnWriteArrayList<>();
+        if (future != null) {
+            future.whenComplete((r, e) -> {
+                if (future.isCancelled()) {
+                    attempts.forEach(attempt -> attempt.cancel(true));
+                }
+            });
+        }
+        try {
+            AiHttpFuture primary = startAttempt(request, attempts, null);
+            try {
+                AiHttpResponse result = primary.get(hedgePolicy.hedgeDelayMillis(), TimeUnit.MILLISECONDS);
+                hedgePolicy.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                return result;
+            } catch (TimeoutException e) {
+                // 主请求超过对冲延迟，发出对冲请求
+            }
+            AiHttpFuture hedge = startAttempt(request, attempts, scheduler);
+            CompletableFuture<AiHttpResponse> winner = new CompletableFuture<>();
+            AtomicInteger failures = new AtomicInteger();
+            for (AiHttpFuture attempt : List.of(primary, hedge)) {
+                attempt.whenComplete((r, e) -> {
+                    if (e == null) {
+                        winner.complete(r);
+                    } else if (failures.incrementAndGet() == 2) {
+                        winner.completeExceptionally(e);
+                    }
+                });
+            }
+            AiHttpResponse result = winner.get();
+            hedgePolicy.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("请求已中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new AiHttpException("调用大模型接口失败", null, null, buildUrl(), e.getCause());
+        } finally {
+            // 取消未完成的一方，已完成的取消无副作用
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    /**
+     * 发起一次对冲尝试。
+     *
+     * @param scheduler 不为null时经调度器排队执行，尝试被取消后排队中的任务不会再派发
+     */
+    private AiHttpFuture startAttempt(AiHttpRequest request, List<AiHttpFuture> attempts, AiHttpRequestScheduler scheduler) {
+        AiHttpFuture attempt = new AiHttpFuture();
+        attempts.add(attempt);
+        if (scheduler != null) {
+            scheduler.submit(request, AiHttpPriority.LOW, attempt, () -> executeOnce(request, false, null, attempt, null))
+                    .whenComplete((response, e) -> {
+                        if (e == null) {
+                            attempt.complete(response);
+                        } else {
+                            attempt.completeExceptionally(e);
+                        }
+                    });
+            return attempt;
+        }
+        config.executor().execute(() -> {
+            try {
+                attempt.complete(executeOnce(request, false, null, attempt, null));
+            } catch (Throwable e) {
+                attempt.completeExceptionally(e);
+            }
+        });
+        return attempt;
+    }
+
+    /**
+     * 退避等待，期间请求被取消时立即结束。
+     */
+    private static void sleepBackoff(long millis, AiHttpFuture future) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (true) {
+            if (future != null && future.isCancelled()) {
+                throw new CancellationException("请求已取消");
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)));
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("重试等待时被中断");
+            }
+        }
+    }
+
+    /**
+     * 执行一次HTTP请求。
+     *
+     * @param responded 收到成功响应时置为true，用于判断流式请求能否重试，可为null
+     */
+    private AiHttpResponse executeOnce(AiHttpRequest request, boolean stream, AiHttpStreamHandler streamHandler, AiHttpFuture future, AtomicBoolean responded) {
+        AiHttpMetricsListener metricsListener = config.metricsListener();
+        if (metricsListener == null) {
+            return executeOnce(request, stream, streamHandler, future, responded, null);
+        }
+        AiHttpMetricsRecorder recorder = new AiHttpMetricsRecorder(request.model(), stream);
+        try {
+            AiHttpResponse response = executeOnce(request, stream, streamHandler, future, responded, recorder);
+            recorder.publish(metricsListener, response, null);
+            return response;
+        } catch (RuntimeException e) {
+            recorder.publish(metricsListener, null, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 执行一次HTTP请求，并在各阶段打点。
+     *
+     * @param recorder 耗时记录器，未配置监听器时为null
+     */
+    private AiHttpResponse executeOnce(AiHttpRequest request, boolean stream, AiHttpStreamHandler streamHandler, AiHttpFuture future,
+                                       AtomicBoolean responded, AiHttpMetricsRecorder recorder) {
+        if (future != null && future.isCancelled()) {
+            throw new CancellationException("请求已取消");
+        }
+        String requestJson = provider.buildRequestJson(request, stream);
         Map<String, Object> headers = buildHeaders();
         String url = buildUrl();
+        if (recorder != null) {
+            recorder.built();
+        }
         HttpHelper httpHelper = config.httpHelper();
         MyCall call = httpHelper.postJson(url, requestJson, null, headers);
         if (future != null) {
@@ -180,19 +533,22 @@ public class AiHttpClient {
                 throw new CancellationException("请求已取消");
             }
         }
-        if (streamHandler != null) {
-            streamHandler.onStart(request);
-        }
         try (Response response = call.executeForResponse()) {
+            if (recorder != null) {
+                recorder.firstByte();
+            }
             if (response.body() == null) {
                 throw new AiHttpException("响应体为空", response.code(), null, url);
             }
             if (!response.isSuccessful()) {
                 String responseBody = IOUtils.readText(response.body().byteStream(), StandardCharsets.UTF_8);
-                throw buildResponseException(response.code(), responseBody, url);
+                throw buildResponseException(response.code(), responseBody, url, parseRetryAfter(response.header("Retry-After")));
+            }
+            if (responded != null) {
+                responded.set(true);
             }
             if (stream) {
-                return readStream(response.body().byteStream(), streamHandler, future);
+                return readStream(response.body().byteStream(), streamHandler, future, recorder);
             }
             String responseBody = IOUtils.readText(response.body().byteStream(), StandardCharsets.UTF_8);
             try {
@@ -217,75 +573,20 @@ public class AiHttpClient {
         }
     }
 
-    private AiHttpResponse readStream(InputStream inputStream, AiHttpStreamHandler streamHandler, AiHttpFuture future) throws IOException, GsonSyntaxException {
-        AiHttpResponseAccumulator accumulator = new AiHttpResponseAccumulator();
-        boolean reasoningStarted = false;
-        boolean contentStarted = false;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (future != null && future.isCancelled()) {
-                    throw new CancellationException("请求已取消");
-                }
-                if (line.isEmpty() || !line.startsWith("data: ")) {
-                    continue;
-                }
-                String payload = line.substring(6);
-                if ("[DONE]".equals(payload)) {
-                    break;
-                }
-                JsonObject json;
-                try {
-                    json = GsonUtils.toJsonObjectWithException(payload);
-                } catch (Exception e) {
-                    throw new AiHttpException("解析流式分片失败", null, payload, buildUrl(), e);
-                }
-                AiHttpChunk chunk = provider.parseStreamChunk(json);
-                accumulator.append(chunk);
-                if (streamHandler != null) {
-                    if (chunk.hasReasoning()) {
-                        if (!reasoningStarted) {
-                            streamHandler.onStartReasoning(chunk);
-                            reasoningStarted = true;
-                        }
-                        streamHandler.onReasoning(chunk.reasoning(), chunk);
-                    } else if (reasoningStarted) {
-                        streamHandler.onEndReasoning(chunk);
-                        reasoningStarted = false;
-                    }
-                    if (chunk.hasContent()) {
-                        if (!contentStarted) {
-                            streamHandler.onStartContent(chunk);
-                            contentStarted = true;
-                        }
-                        streamHandler.onContent(chunk.content(), chunk);
-                    } else if (contentStarted) {
-                        streamHandler.onEndContent(chunk);
-                        contentStarted = false;
-                    }
-                    if (chunk.hasToolCalls()) {
-                        for (AiHttpToolCallDelta toolCall : chunk.toolCalls()) {
-                            streamHandler.onToolCall(toolCall, chunk);
-                        }
-                    }
-                    streamHandler.onChunk(chunk);
-                }
-            }
-        }
-        // 确保在流结束时调用结束回调
-        if (streamHandler != null) {
-            if (reasoningStarted) {
-                streamHandler.onEndReasoning(null);
-            }
-            if (contentStarted) {
-                streamHandler.onEndContent(null);
+    private AiHttpResponse readStream(InputStream inputStream, AiHttpStreamHandler streamHandler, AiHttpFuture future, AiHttpMetricsRecorder recorder) throws Exception {
+        AiHttpStreamDispatcher dispatcher = new AiHttpStreamDispatcher(streamHandler);
+        new AiHttpStreamEngine<AiHttpChunk>((buffer, offset, length) -> {
+            try {
+                return provider.parseStreamChunk(buffer, offset, length);
+            } catch (Exception e) {
+                String payload = new String(buffer, offset, length, StandardCharsets.UTF_8);
+                throw new AiHttpException("解析流式分片失败", null, payload, buildUrl(), e);
             }
-        }
-        AiHttpResponse result = accumulator.toResponse();
-        if (streamHandler != null) {
-            streamHandler.onComplete(result);
-        }
-        return result;
+        })
+                .cancelWhen(future == null ? null : future::isCancelled)
+                .observe(recorder == null ? null : recorder::chunk)
+                .run(inputStream, dispatcher::dispatch);
+        return dispatcher.complete();
     }
 
     private Map<String, Object> buildHeaders() {
@@ -309,19 +610,42 @@ public class AiHttpClient {
         return baseUrl + path;
     }
 
-    private AiHttpException buildResponseException(int statusCode, String responseBody, String url) {
+    private AiHttpException buildResponseException(int statusCode, String responseBody, String url, Long retryAfterMillis) {
         try {
             JsonObject json = GsonUtils.toJsonObjectWithException(responseBody);
             JsonElement error = JsonObjectUtils.get(json, "error");
             if (error != null && error.isJsonObject()) {
                 String message = JsonObjectUtils.getStr(error.getAsJsonObject(), "message");
-                return new AiHttpException(message == null ? "大模型接口返回异常" : message, statusCode, responseBody, url);
+                return new AiHttpException(message == null ? "大模型接口返回异常" : message, statusCode, responseBody, url, retryAfterMillis, null);
             }
             if (error != null && error.isJsonPrimitive()) {
-                return new AiHttpException(error.getAsString(), statusCode, responseBody, url);
+                return new AiHttpException(error.getAsString(), statusCode, responseBody, url, retryAfterMillis, null);
             }
         } catch (Exception ignored) {
         }
-        return new AiHttpException("大模型接口返回异常", statusCode, responseBody, url);
+        return new AiHttpException("大模型接口返回异常", statusCode, responseBody, url, retryAfterMillis, null);
+    }
+
+    /**
+     * 解析Retry-After响应头，支持秒数和HTTP日期两种格式。
+     *
+     * @param value 响应头的值
+     * @return 等待毫秒数，无法解析时返回null
+     */
+    private static Long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, (long) (Double.parseDouble(trimmed) * 1000));
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            ZonedDateTime time = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(time.getZone()), time).toMillis());
+        } catch (Exception ignored) {
+        }
+        return null;
     }
 }
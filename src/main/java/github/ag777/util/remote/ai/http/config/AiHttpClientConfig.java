@@ -2,6 +2,9 @@ package github.ag777.util.remote.ai.http.config;
 
 import github.ag777.util.http.HttpHelper;
 import github.ag777.util.http.HttpUtils;
+import github.ag777.util.remote.ai.http.cache.AiHttpResponseCache;
+import github.ag777.util.remote.ai.http.metrics.AiHttpMetricsListener;
+import github.ag777.util.remote.ai.http.scheduler.AiHttpRequestScheduler;
 import okhttp3.OkHttpClient;
 
 import java.net.Proxy;
@@ -42,6 +45,11 @@ public class AiHttpClientConfig {
     private final Map<String, Object> headers = new LinkedHashMap<>();
     private volatile HttpHelper httpHelper;
     private volatile Executor executor;
+    private volatile AiHttpRequestScheduler scheduler;
+    private volatile AiHttpRetryPolicy retryPolicy;
+    private volatile AiHttpHedgePolicy hedgePolicy;
+    private volatile AiHttpResponseCache responseCache;
+    private volatile AiHttpMetricsListener metricsListener;
 
     /**
      * 创建指定基础URL的配置对象。
@@ -266,4 +274,108 @@ public class AiHttpClientConfig {
         this.executor = executor;
         return this;
     }
+
+    /**
+     * 获取请求调度器。
+     * 
+     * @return 请求调度器，未设置时为null
+     */
+    public AiHttpRequestScheduler scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 设置请求调度器。
+     * 
+     * <p>设置后所有请求（包括同步调用）都经过调度器排队、限流后执行，{@link #executor()} 不再使用。
+     * 
+     * @param scheduler 请求调度器，为null表示不调度
+     * @return 当前配置对象，支持链式调用
+     */
+    public AiHttpClientConfig scheduler(AiHttpRequestScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * 获取重试策略。
+     * 
+     * @return 重试策略，未设置时为null（只请求一次）
+     */
+    public AiHttpRetryPolicy retryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * 设置重试策略。
+     * 
+     * @param retryPolicy 重试策略，为null表示不重试
+     * @return 当前配置对象，支持链式调用
+     */
+    public AiHttpClientConfig retryPolicy(AiHttpRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * 获取对冲请求策略。
+     * 
+     * @return 对冲请求策略，未设置时为null
+     */
+    public AiHttpHedgePolicy hedgePolicy() {
+        return hedgePolicy;
+    }
+
+    /**
+     * 设置对冲请求策略，只对非流式请求生效。配置了调度器时对冲请求经调度器排队，
+     * 同样受并发数和令牌桶约束；否则在 {@link #executor()} 上执行。
+     * 
+     * @param hedgePolicy 对冲请求策略，为null表示不对冲
+     * @return 当前配置对象，支持链式调用
+     */
+    public AiHttpClientConfig hedgePolicy(AiHttpHedgePolicy hedgePolicy) {
+        this.hedgePolicy = hedgePolicy;
+        return this;
+    }
+
+    /**
+     * 获取响应缓存。
+     * 
+     * @return 响应缓存，未设置时为null
+     */
+    public AiHttpResponseCache responseCache() {
+        return responseCache;
+    }
+
+    /**
+     * 设置响应缓存，命中时不发起HTTP请求，流式调用会把缓存结果回放给处理器。
+     * 
+     * @param responseCache 响应缓存，为null表示不缓存
+     * @return 当前配置对象，支持链式调用
+     */
+    public AiHttpClientConfig responseCache(AiHttpResponseCache responseCache) {
+        this.responseCache = responseCache;
+        return this;
+    }
+
+    /**
+     * 获取耗时监听器。
+     * 
+     * @return 耗时监听器，未设置时为null
+     */
+    public AiHttpMetricsListener metricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * 设置耗时监听器，每次HTTP尝试结束后回调构建、首字节、首token、增量间隔和总耗时等数据，
+     * 可使用 {@link github.ag777.util.remote.ai.http.metrics.AiHttpMetricsAggregator} 按模型汇总分位数。
+     * 
+     * @param metricsListener 耗时监听器，为null表示不记录
+     * @return 当前配置对象，支持链式调用
+     */
+    public AiHttpClientConfig metricsListener(AiHttpMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        return this;
+    }
 }
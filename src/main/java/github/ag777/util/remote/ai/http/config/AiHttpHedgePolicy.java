@@ -0,0 +1,143 @@
+package github.ag777.util.remote.ai.http.config;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对冲请求策略。
+ *
+ * <p>非流式请求在超过最近耗时的指定分位数后仍未返回时，再发送一个相同的请求，
+ * 两者谁先成功用谁，另一个通过 {@link github.ag777.util.remote.ai.http.stream.AiHttpFuture#cancel(boolean)} 取消。
+ * 用于削减少数卡住的请求造成的长尾延迟，代价是少量额外请求（按p95触发时约5%）。
+ *
+ * <p>样本不足 {@code minSamples} 时使用初始延迟；计算出的延迟会被限制在 [minDelay, maxDelay] 内。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * config.hedgePolicy(AiHttpHedgePolicy.create()
+ *     .percentile(0.95)
+ *     .minDelay(2, TimeUnit.SECONDS));
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpHedgePolicy {
+    private static final int WINDOW_SIZE = 256;
+
+    private double percentile = 0.95;
+    private long initialDelayMillis = 10_000;
+    private long minDelayMillis = 500;
+    private long maxDelayMillis = 120_000;
+    private int minSamples = 20;
+
+    // 最近的成功耗时，环形缓冲
+    private final long[] samples = new long[WINDOW_SIZE];
+    private int sampleCount;
+    private int sampleIndex;
+
+    /**
+     * 创建默认对冲策略：按最近耗时的p95触发。
+     *
+     * @return 对冲策略
+     */
+    public static AiHttpHedgePolicy create() {
+        return new AiHttpHedgePolicy();
+    }
+
+    /**
+     * 设置触发对冲的耗时分位数。
+     *
+     * @param percentile 分位数，取值 (0, 1)
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpHedgePolicy percentile(double percentile) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("分位数必须在0到1之间");
+        }
+        this.percentile = percentile;
+        return this;
+    }
+
+    /**
+     * 设置样本不足时使用的延迟。
+     *
+     * @param delay 延迟
+     * @param unit 时间单位
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpHedgePolicy initialDelay(long delay, TimeUnit unit) {
+        this.initialDelayMillis = Math.max(0, unit.toMillis(delay));
+        return this;
+    }
+
+    /**
+     * 设置最小延迟。
+     *
+     * @param delay 延迟
+     * @param unit 时间单位
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpHedgePolicy minDelay(long delay, TimeUnit unit) {
+        this.minDelayMillis = Math.max(0, unit.toMillis(delay));
+        return this;
+    }
+
+    /**
+     * 设置最大延迟。
+     *
+     * @param delay 延迟
+     * @param unit 时间单位
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpHedgePolicy maxDelay(long delay, TimeUnit unit) {
+        this.maxDelayMillis = Math.max(0, unit.toMillis(delay));
+        return this;
+    }
+
+    /**
+     * 设置按分位数计算所需的最少样本数。
+     *
+     * @param minSamples 最少样本数
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpHedgePolicy minSamples(int minSamples) {
+        this.minSamples = Math.max(1, Math.min(WINDOW_SIZE, minSamples));
+        return this;
+    }
+
+    /**
+     * 记录一次成功请求的耗时。
+     *
+     * @param latencyMillis 耗时毫秒数
+     */
+    public synchronized void record(long latencyMillis) {
+        samples[sampleIndex] = latencyMillis;
+        sampleIndex = (sampleIndex + 1) % WINDOW_SIZE;
+        if (sampleCount < WINDOW_SIZE) {
+            sampleCount++;
+        }
+    }
+
+    /**
+     * 计算当前的对冲延迟。
+     *
+     * @return 发送对冲请求前的等待毫秒数
+     */
+    public long hedgeDelayMillis() {
+        long[] copy;
+        synchronized (this) {
+            if (sampleCount < minSamples) {
+                return clamp(initialDelayMillis);
+            }
+            copy = Arrays.copyOf(samples, sampleCount);
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile * copy.length) - 1;
+        return clamp(copy[Math.max(0, Math.min(copy.length - 1, index))]);
+    }
+
+    private long clamp(long delay) {
+        return Math.max(minDelayMillis, Math.min(maxDelayMillis, delay));
+    }
+}
@@ -0,0 +1,191 @@
+package github.ag777.util.remote.ai.http.config;
+
+import github.ag777.util.remote.ai.http.exception.AiHttpException;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求重试策略。
+ *
+ * <p>采用带抖动的指数退避：第n次重试的等待时间在 [0, min(maxBackoff, initialBackoff * multiplier^(n-1))] 内随机取值（full jitter），
+ * 服务端返回Retry-After时以其为准（不超过maxBackoff）。重试次数和总耗时任一超限即停止。
+ *
+ * <p>默认只重试网络异常（没有状态码的异常）和 408/429/500/502/503/504 状态码；
+ * 流式请求一旦收到成功响应就不会再重试，以免重复回调已经输出的内容。
+ * 客户端配置了调度器时，429不在本地重试，而是交给调度器全局暂停后重新排队。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * config.retryPolicy(AiHttpRetryPolicy.create()
+ *     .maxAttempts(4)
+ *     .initialBackoff(500, TimeUnit.MILLISECONDS)
+ *     .maxElapsed(2, TimeUnit.MINUTES));
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpRetryPolicy {
+    private int maxAttempts = 3;
+    private long initialBackoffMillis = 500;
+    private long maxBackoffMillis = 30_000;
+    private double multiplier = 2.0;
+    private long maxElapsedMillis = 120_000;
+    private boolean retryOnNetworkError = true;
+    private final Set<Integer> retryableStatusCodes = new LinkedHashSet<>(Set.of(408, 429, 500, 502, 503, 504));
+
+    /**
+     * 创建默认重试策略：最多3次尝试，初始退避500ms，最长退避30s，总耗时不超过2分钟。
+     *
+     * @return 重试策略
+     */
+    public static AiHttpRetryPolicy create() {
+        return new AiHttpRetryPolicy();
+    }
+
+    /**
+     * 设置最大尝试次数（包含第一次请求）。
+     *
+     * @param maxAttempts 最大尝试次数
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRetryPolicy maxAttempts(int maxAttempts) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        return this;
+    }
+
+    /**
+     * 设置初始退避时间。
+     *
+     * @param backoff 退避时间
+     * @param unit 时间单位
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRetryPolicy initialBackoff(long backoff, TimeUnit unit) {
+        this.initialBackoffMillis = Math.max(0, unit.toMillis(backoff));
+        return this;
+    }
+
+    /**
+     * 设置最长退避时间。
+     *
+     * @param backoff 退避时间
+     * @param unit 时间单位
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRetryPolicy maxBackoff(long backoff, TimeUnit unit) {
+        this.maxBackoffMillis = Math.max(0, unit.toMillis(backoff));
+        return this;
+    }
+
+    /**
+     * 设置退避倍数。
+     *
+     * @param multiplier 退避倍数，不小于1
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRetryPolicy multiplier(double multiplier) {
+        this.multiplier = Math.max(1.0, multiplier);
+        return this;
+    }
+
+    /**
+     * 设置从第一次请求开始计算的最大总耗时，超过后不再重试。
+     *
+     * @param maxElapsed 最大总耗时
+     * @param unit 时间单位
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRetryPolicy maxElapsed(long maxElapsed, TimeUnit unit) {
+        this.maxElapsedMillis = Math.max(0, unit.toMillis(maxElapsed));
+        return this;
+    }
+
+    /**
+     * 设置是否重试网络异常（连接失败、读取超时等没有状态码的异常）。
+     *
+     * @param retryOnNetworkError 是否重试
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRetryPolicy retryOnNetworkError(boolean retryOnNetworkError) {
+        this.retryOnNetworkError = retryOnNetworkError;
+        return this;
+    }
+
+    /**
+     * 设置可重试的状态码，会替换默认值。
+     *
+     * @param statusCodes 状态码
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRetryPolicy retryableStatusCodes(Integer... statusCodes) {
+        this.retryableStatusCodes.clear();
+        Collections.addAll(this.retryableStatusCodes, statusCodes);
+        return this;
+    }
+
+    /**
+     * 获取最大尝试次数。
+     *
+     * @return 最大尝试次数
+     */
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * 判断异常是否可以重试。
+     *
+     * @param e 异常
+     * @return 是否可以重试
+     */
+    public boolean isRetryable(Throwable e) {
+        if (e instanceof CancellationException) {
+            return false;
+        }
+        if (e instanceof AiHttpException httpException) {
+            if (httpException.getStatusCode() != null) {
+                return retryableStatusCodes.contains(httpException.getStatusCode());
+            }
+            // 没有状态码：连接失败、读取超时等网络异常
+            return retryOnNetworkError;
+        }
+        return false;
+    }
+
+    /**
+     * 计算下一次重试前的等待时间。
+     *
+     * @param retry 第几次重试，从1开始
+     * @param e 上一次失败的异常
+     * @return 等待毫秒数
+     */
+    public long backoffMillis(int retry, Throwable e) {
+        if (e instanceof AiHttpException httpException && httpException.getRetryAfterMillis() != null) {
+            return Math.min(maxBackoffMillis, httpException.getRetryAfterMillis());
+        }
+        double ceiling = initialBackoffMillis * Math.pow(multiplier, Math.max(0, retry - 1));
+        long bound = (long) Math.min(maxBackoffMillis, ceiling);
+        if (bound <= 0) {
+            return 0;
+        }
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * 判断是否还允许下一次重试。
+     *
+     * @param attempt 已经完成的尝试次数
+     * @param elapsedMillis 已经耗费的毫秒数
+     * @param backoffMillis 下一次重试前的等待毫秒数
+     * @return 是否允许重试
+     */
+    public boolean canRetry(int attempt, long elapsedMillis, long backoffMillis) {
+        return attempt < maxAttempts && elapsedMillis + backoffMillis < maxElapsedMillis;
+    }
+}
@@ -18,6 +18,10 @@ public class AiHttpException extends RuntimeException {
     private final Integer statusCode;
     private final String responseBody;
     private final String requestUrl;
+    /**
+     * 响应头Retry-After换算出的等待毫秒数，没有该响应头时为null
+     */
+    private final Long retryAfterMillis;
 
     /**
      * 创建只包含消息的异常。
@@ -60,9 +64,24 @@ public class AiHttpException extends RuntimeException {
      * @param cause 异常原因
      */
     public AiHttpException(String message, Integer statusCode, String responseBody, String requestUrl, Throwable cause) {
+        this(message, statusCode, responseBody, requestUrl, null, cause);
+    }
+
+    /**
+     * 创建包含完整信息和重试等待时间的异常。
+     * 
+     * @param message 异常消息
+     * @param statusCode HTTP状态码
+     * @param responseBody 响应体内容
+     * @param requestUrl 请求URL
+     * @param retryAfterMillis 服务端要求的重试等待毫秒数，可为null
+     * @param cause 异常原因
+     */
+    public AiHttpException(String message, Integer statusCode, String responseBody, String requestUrl, Long retryAfterMillis, Throwable cause) {
         super(message, cause);
         this.statusCode = statusCode;
         this.responseBody = responseBody;
         this.requestUrl = requestUrl;
+        this.retryAfterMillis = retryAfterMillis;
     }
 }
@@ -0,0 +1,28 @@
+package github.ag777.util.remote.ai.http.history;
+
+import github.ag777.util.remote.ai.http.openai.model.AiMessage;
+
+import java.util.List;
+
+/**
+ * 会话历史整理策略。
+ *
+ * <p>{@link github.ag777.util.remote.ai.http.client.AiHttpChatSession} 每次发送前调用，
+ * 决定本次实际发送哪些历史消息。会话的系统提示和本轮用户消息不在history中，总是会被发送，
+ * 其估算token数通过 {@code fixedTokens} 传入，实现应把它计入预算。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface AiHttpHistoryPolicy {
+
+    /**
+     * 整理历史。
+     *
+     * @param history 会话历史，实现可以直接修改（如用摘要替换旧消息）
+     * @param fixedTokens 系统提示和本轮用户消息的估算token数
+     * @return 本次要发送的历史消息
+     */
+    List<AiMessage> apply(List<AiMessage> history, int fixedTokens);
+}
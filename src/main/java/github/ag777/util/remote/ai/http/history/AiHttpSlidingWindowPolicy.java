@@ -0,0 +1,80 @@
+package github.ag777.util.remote.ai.http.history;
+
+import github.ag777.util.remote.ai.http.openai.model.AiMessage;
+import github.ag777.util.remote.ai.http.openai.model.AiRoles;
+import github.ag777.util.remote.ai.http.support.AiHttpTokenEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按token预算的滑动窗口。
+ *
+ * <p>从最新的消息往前保留，直到估算token数达到预算；历史中的system消息（如摘要）总是保留。
+ * 窗口起点不会落在工具结果消息上，以免发送没有对应工具调用的tool消息。
+ * 只影响发送内容，不修改会话历史。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpSlidingWindowPolicy implements AiHttpHistoryPolicy {
+    private final int maxTokens;
+
+    /**
+     * 创建滑动窗口策略。
+     *
+     * @param maxTokens 整个请求（含系统提示和本轮用户消息）的token预算
+     */
+    public AiHttpSlidingWindowPolicy(int maxTokens) {
+        if (maxTokens <= 0) {
+            throw new IllegalArgumentException("token预算必须大于0");
+        }
+        this.maxTokens = maxTokens;
+    }
+
+    @Override
+    public List<AiMessage> apply(List<AiMessage> history, int fixedTokens) {
+        return window(history, maxTokens - fixedTokens);
+    }
+
+    /**
+     * 在预算内截取最近的历史。
+     *
+     * @param history 会话历史
+     * @param budget 可用于历史的token数
+     * @return 截取结果（新列表）
+     */
+    static List<AiMessage> window(List<AiMessage> history, int budget) {
+        int pinnedTokens = 0;
+        for (AiMessage message : history) {
+            if (AiRoles.SYSTEM.equals(message.getRole())) {
+                pinnedTokens += AiHttpTokenEstimator.estimate(message);
+            }
+        }
+        int remaining = budget - pinnedTokens;
+        int start = history.size();
+        for (int i = history.size() - 1; i >= 0; i--) {
+            AiMessage message = history.get(i);
+            if (AiRoles.SYSTEM.equals(message.getRole())) {
+                continue;
+            }
+            int tokens = AiHttpTokenEstimator.estimate(message);
+            if (tokens > remaining) {
+                break;
+            }
+            remaining -= tokens;
+            start = i;
+        }
+        while (start < history.size() && AiRoles.TOOL.equals(history.get(start).getRole())) {
+            start++;
+        }
+        List<AiMessage> result = new ArrayList<>();
+        for (int i = 0; i < history.size(); i++) {
+            AiMessage message = history.get(i);
+            if (i >= start || AiRoles.SYSTEM.equals(message.getRole())) {
+                result.add(message);
+            }
+        }
+        return result;
+    }
+}
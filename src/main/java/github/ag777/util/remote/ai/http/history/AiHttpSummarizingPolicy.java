@@ -0,0 +1,164 @@
+package github.ag777.util.remote.ai.http.history;
+
+import github.ag777.util.remote.ai.http.client.AiHttpClient;
+import github.ag777.util.remote.ai.http.model.AiHttpRequest;
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+import github.ag777.util.remote.ai.http.openai.model.AiMessage;
+import github.ag777.util.remote.ai.http.openai.model.AiMessageContentPart;
+import github.ag777.util.remote.ai.http.openai.model.AiRoles;
+import github.ag777.util.remote.ai.http.openai.model.request.RequestToolCall;
+import github.ag777.util.remote.ai.http.support.AiHttpTokenEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 摘要压缩旧对话的历史策略。
+ *
+ * <p>估算token数超过预算时，保留最近 {@code keepRecentTokens} 以内的消息原文，
+ * 把更早的消息（连同之前生成的摘要）交给另一个客户端（通常是更便宜的小模型）压缩成一条摘要，
+ * 以system消息的形式写回会话历史。历史中原有的其它system消息保持不动。
+ * 摘要调用失败时本轮退化为滑动窗口，不修改历史。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * session.historyPolicy(new AiHttpSummarizingPolicy(miniClient, "gpt-4o-mini", 100_000, 20_000));
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpSummarizingPolicy implements AiHttpHistoryPolicy {
+    private static final String SUMMARY_PREFIX = "以下是之前对话的摘要：\n";
+
+    private final AiHttpClient summaryClient;
+    private final String summaryModel;
+    private final int maxTokens;
+    private final int keepRecentTokens;
+    private String prompt = "请把下面的对话压缩成一段摘要，保留事实、结论、双方约定和未完成的事项，不要编造内容。";
+
+    /**
+     * 创建摘要策略。
+     *
+     * @param summaryClient 生成摘要使用的客户端
+     * @param summaryModel 生成摘要使用的模型
+     * @param maxTokens 整个请求（含系统提示和本轮用户消息）的token预算，超过时触发摘要
+     * @param keepRecentTokens 摘要后保留原文的最近消息token数
+     */
+    public AiHttpSummarizingPolicy(AiHttpClient summaryClient, String summaryModel, int maxTokens, int keepRecentTokens) {
+        if (maxTokens <= 0 || keepRecentTokens <= 0 || keepRecentTokens >= maxTokens) {
+            throw new IllegalArgumentException("需要满足 0 < keepRecentTokens < maxTokens");
+        }
+        this.summaryClient = summaryClient;
+        this.summaryModel = summaryModel;
+        this.maxTokens = maxTokens;
+        this.keepRecentTokens = keepRecentTokens;
+    }
+
+    /**
+     * 设置生成摘要的提示词。
+     *
+     * @param prompt 提示词
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpSummarizingPolicy prompt(String prompt) {
+        this.prompt = prompt;
+        return this;
+    }
+
+    @Override
+    public List<AiMessage> apply(List<AiMessage> history, int fixedTokens) {
+        if (fixedTokens + AiHttpTokenEstimator.estimate(history) > maxTokens) {
+            summarize(history);
+        }
+        return AiHttpSlidingWindowPolicy.window(history, maxTokens - fixedTokens);
+    }
+
+    private void summarize(List<AiMessage> history) {
+        // 从后往前确定保留原文的起点，起点不能落在工具结果上
+        int remaining = keepRecentTokens;
+        int split = history.size();
+        for (int i = history.size() - 1; i >= 0; i--) {
+            AiMessage message = history.get(i);
+            if (isPinned(message)) {
+                continue;
+            }
+            int tokens = AiHttpTokenEstimator.estimate(message);
+            if (tokens > remaining) {
+                break;
+            }
+            remaining -= tokens;
+            split = i;
+        }
+        while (split < history.size() && AiRoles.TOOL.equals(history.get(split).getRole())) {
+            split++;
+        }
+        List<AiMessage> pinned = new ArrayList<>();
+        List<AiMessage> old = new ArrayList<>();
+        for (int i = 0; i < split; i++) {
+            AiMessage message = history.get(i);
+            if (isPinned(message)) {
+                pinned.add(message);
+            } else {
+                old.add(message);
+            }
+        }
+        if (old.isEmpty()) {
+            return;
+        }
+        String summary;
+        try {
+            AiHttpResponse response = summaryClient.chat(AiHttpRequest.ofModel(summaryModel)
+                    .system(prompt)
+                    .user(transcript(old)));
+            summary = response.content();
+        } catch (RuntimeException e) {
+            return;
+        }
+        if (summary == null || summary.isBlank()) {
+            return;
+        }
+        List<AiMessage> compacted = new ArrayList<>(pinned);
+        compacted.add(AiMessage.system(SUMMARY_PREFIX + summary.trim()));
+        compacted.addAll(history.subList(split, history.size()));
+        history.clear();
+        history.addAll(compacted);
+    }
+
+    /**
+     * 非摘要的system消息视为固定内容，不参与摘要。
+     */
+    private static boolean isPinned(AiMessage message) {
+        return AiRoles.SYSTEM.equals(message.getRole())
+                && !(message.getContent() instanceof String text && text.startsWith(SUMMARY_PREFIX));
+    }
+
+    private static String transcript(List<AiMessage> messages) {
+        StringBuilder text = new StringBuilder();
+        for (AiMessage message : messages) {
+            text.append(message.getRole()).append(": ");
+            Object content = message.getContent();
+            if (content instanceof String str) {
+                text.append(str);
+            } else if (content instanceof List<?> parts) {
+                for (Object part : parts) {
+                    if (part instanceof AiMessageContentPart.TextPart textPart) {
+                        text.append(textPart.getText());
+                    } else {
+                        text.append("[图片]");
+                    }
+                }
+            }
+            if (message.getToolCalls() != null) {
+                for (RequestToolCall toolCall : message.getToolCalls()) {
+                    if (toolCall.function() != null) {
+                        text.append(" [调用工具 ").append(toolCall.function().name())
+                                .append('(').append(toolCall.function().arguments()).append(")]");
+                    }
+                }
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
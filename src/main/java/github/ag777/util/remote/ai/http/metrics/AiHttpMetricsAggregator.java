@@ -0,0 +1,130 @@
+package github.ag777.util.remote.ai.http.metrics;
+
+import github.ag777.util.remote.http.apache.model.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存中的耗时汇总，按模型分别统计各阶段耗时的分位数。
+ *
+ * <p>每个模型每项指标使用固定大小的 {@link LatencyHistogram}，内存占用不随请求数增长；
+ * 毫秒值按微秒记录，每秒token数同样按千分之一精度记录。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * AiHttpMetricsAggregator metrics = new AiHttpMetricsAggregator();
+ * config.metricsListener(metrics);
+ * ...
+ * AiHttpModelMetrics stats = metrics.snapshot("gpt-4o");
+ * System.out.println("TTFT p99: " + stats.firstToken().p99() + "ms");
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpMetricsAggregator implements AiHttpMetricsListener {
+    private final Map<String, ModelMetrics> models = new ConcurrentHashMap<>();
+
+    @Override
+    public void onMetrics(AiHttpRequestMetrics metrics) {
+        String model = metrics.model() == null ? "" : metrics.model();
+        models.computeIfAbsent(model, k -> new ModelMetrics()).record(metrics);
+    }
+
+    /**
+     * 获取指定模型的统计快照。
+     *
+     * @param model 模型名称
+     * @return 统计快照，没有该模型的数据时为null
+     */
+    public AiHttpModelMetrics snapshot(String model) {
+        ModelMetrics metrics = models.get(model == null ? "" : model);
+        return metrics == null ? null : metrics.snapshot(model);
+    }
+
+    /**
+     * 获取所有模型的统计快照。
+     *
+     * @return 按模型名称排序的统计快照
+     */
+    public Map<String, AiHttpModelMetrics> snapshot() {
+        Map<String, AiHttpModelMetrics> result = new TreeMap<>();
+        models.forEach((model, metrics) -> result.put(model, metrics.snapshot(model)));
+        return result;
+    }
+
+    /**
+     * 清空统计数据。
+     */
+    public void reset() {
+        models.clear();
+    }
+
+    private static class ModelMetrics {
+        private static final double SCALE = 1000.0;
+
+        private long requests;
+        private long failures;
+        private final LatencyHistogram build = new LatencyHistogram();
+        private final LatencyHistogram firstByte = new LatencyHistogram();
+        private final LatencyHistogram firstReasoning = new LatencyHistogram();
+        private final LatencyHistogram firstContent = new LatencyHistogram();
+        private final LatencyHistogram firstToken = new LatencyHistogram();
+        private final LatencyHistogram avgGap = new LatencyHistogram();
+        private final LatencyHistogram maxGap = new LatencyHistogram();
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LatencyHistogram tokensPerSecond = new LatencyHistogram();
+
+        private void record(AiHttpRequestMetrics metrics) {
+            synchronized (this) {
+                requests++;
+                if (!metrics.success()) {
+                    failures++;
+                    return;
+                }
+            }
+            record(build, metrics.buildMillis());
+            record(firstByte, metrics.firstByteMillis());
+            record(firstReasoning, metrics.firstReasoningMillis());
+            record(firstContent, metrics.firstContentMillis());
+            record(firstToken, metrics.firstTokenMillis());
+            if (metrics.tokenEvents() > 1) {
+                record(avgGap, metrics.avgGapMillis());
+                record(maxGap, metrics.maxGapMillis());
+            }
+            record(total, metrics.totalMillis());
+            if (metrics.tokensPerSecond() > 0) {
+                record(tokensPerSecond, metrics.tokensPerSecond());
+            }
+        }
+
+        /**
+         * 按千分之一精度记录，负值表示未发生，忽略。
+         */
+        private static void record(LatencyHistogram histogram, double value) {
+            if (value >= 0) {
+                histogram.record(Math.round(value * SCALE));
+            }
+        }
+
+        private static AiHttpPercentiles percentiles(LatencyHistogram histogram) {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            return new AiHttpPercentiles(snapshot.count(), snapshot.meanMicros() / SCALE, snapshot.p50Micros() / SCALE,
+                    snapshot.p90Micros() / SCALE, snapshot.p99Micros() / SCALE, snapshot.maxMicros() / SCALE);
+        }
+
+        private AiHttpModelMetrics snapshot(String model) {
+            long requests;
+            long failures;
+            synchronized (this) {
+                requests = this.requests;
+                failures = this.failures;
+            }
+            return new AiHttpModelMetrics(model, requests, failures,
+                    percentiles(build), percentiles(firstByte), percentiles(firstReasoning), percentiles(firstContent),
+                    percentiles(firstToken), percentiles(avgGap), percentiles(maxGap), percentiles(total), percentiles(tokensPerSecond));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package github.ag777.util.remote.ai.http.metrics;
+
+/**
+ * 请求耗时监听器。
+ *
+ * <p>通过 {@link github.ag777.util.remote.ai.http.config.AiHttpClientConfig#metricsListener(AiHttpMetricsListener)} 配置，
+ * 每次HTTP尝试结束（成功或失败）后回调一次；重试和对冲的每次尝试分别回调，命中缓存的请求不回调。
+ * 回调在请求线程上同步执行，实现应当足够轻量，抛出的异常会被忽略。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface AiHttpMetricsListener {
+
+    /**
+     * 一次HTTP尝试结束时调用。
+     *
+     * @param metrics 本次尝试的耗时数据
+     */
+    void onMetrics(AiHttpRequestMetrics metrics);
+}
@@ -0,0 +1,141 @@
+package github.ag777.util.remote.ai.http.metrics;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import github.ag777.util.remote.ai.http.exception.AiHttpException;
+import github.ag777.util.remote.ai.http.model.AiHttpChunk;
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+import github.ag777.util.remote.ai.http.support.AiHttpTokenEstimator;
+
+/**
+ * 单次HTTP尝试的耗时记录器，由客户端在请求的各个阶段打点。
+ *
+ * <p>非线程安全，一次尝试内只在请求线程上使用。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpMetricsRecorder {
+    private final String model;
+    private final boolean stream;
+    private final long startNanos = System.nanoTime();
+    private long builtNanos = -1;
+    private long firstByteNanos = -1;
+    private long firstReasoningNanos = -1;
+    private long firstContentNanos = -1;
+    private long lastTokenNanos = -1;
+    private long maxGapNanos;
+    private long gapSumNanos;
+    private int tokenEvents;
+
+    /**
+     * 开始记录。
+     *
+     * @param model 模型名称
+     * @param stream 是否流式请求
+     */
+    public AiHttpMetricsRecorder(String model, boolean stream) {
+        this.model = model;
+        this.stream = stream;
+    }
+
+    /**
+     * 请求体、请求头构建完成。
+     */
+    public void built() {
+        builtNanos = System.nanoTime();
+    }
+
+    /**
+     * 收到响应头。
+     */
+    public void firstByte() {
+        firstByteNanos = System.nanoTime();
+    }
+
+    /**
+     * 收到一个流式分片。
+     *
+     * @param chunk 分片
+     */
+    public void chunk(AiHttpChunk chunk) {
+        boolean reasoning = chunk.hasReasoning();
+        boolean content = chunk.hasContent();
+        if (!reasoning && !content) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (reasoning && firstReasoningNanos < 0) {
+            firstReasoningNanos = now;
+        }
+        if (content && firstContentNanos < 0) {
+            firstContentNanos = now;
+        }
+        if (lastTokenNanos >= 0) {
+            long gap = now - lastTokenNanos;
+            gapSumNanos += gap;
+            maxGapNanos = Math.max(maxGapNanos, gap);
+        }
+        lastTokenNanos = now;
+        tokenEvents++;
+    }
+
+    /**
+     * 结束记录并回调监听器，监听器抛出的异常会被忽略。
+     *
+     * @param listener 监听器
+     * @param response 成功时的响应，失败时为null
+     * @param error 失败时的异常，成功时为null
+     */
+    public void publish(AiHttpMetricsListener listener, AiHttpResponse response, Throwable error) {
+        long endNanos = System.nanoTime();
+        if (!stream && response != null && response.content() != null && !response.content().isEmpty()) {
+            // 非流式请求的内容在响应体读完后才可见
+            firstContentNanos = endNanos;
+        }
+        long completionTokens = response == null ? 0 : completionTokens(response);
+        long firstTokenNanos = firstReasoningNanos < 0 ? firstContentNanos
+                : firstContentNanos < 0 ? firstReasoningNanos : Math.min(firstReasoningNanos, firstContentNanos);
+        double tokensPerSecond = 0;
+        if (completionTokens > 0 && firstTokenNanos >= 0 && endNanos > firstTokenNanos && stream) {
+            tokensPerSecond = completionTokens * 1_000_000_000.0 / (endNanos - firstTokenNanos);
+        }
+        AiHttpRequestMetrics metrics = new AiHttpRequestMetrics(
+                model,
+                stream,
+                error == null,
+                error instanceof AiHttpException e ? e.getStatusCode() : null,
+                millis(builtNanos),
+                millis(firstByteNanos),
+                millis(firstReasoningNanos),
+                millis(firstContentNanos),
+                millis(endNanos),
+                tokenEvents,
+                maxGapNanos / 1_000_000.0,
+                tokenEvents > 1 ? gapSumNanos / 1_000_000.0 / (tokenEvents - 1) : 0,
+                completionTokens,
+                tokensPerSecond);
+        try {
+            listener.onMetrics(metrics);
+        } catch (Throwable ignored) {
+        }
+    }
+
+    private double millis(long nanos) {
+        return nanos < 0 ? -1 : (nanos - startNanos) / 1_000_000.0;
+    }
+
+    private static long completionTokens(AiHttpResponse response) {
+        JsonObject raw = response.raw();
+        if (raw != null) {
+            JsonElement usage = raw.get("usage");
+            if (usage != null && usage.isJsonObject()) {
+                JsonElement tokens = usage.getAsJsonObject().get("completion_tokens");
+                if (tokens != null && tokens.isJsonPrimitive()) {
+                    return tokens.getAsLong();
+                }
+            }
+        }
+        return AiHttpTokenEstimator.estimate(response.content()) + AiHttpTokenEstimator.estimate(response.reasoning());
+    }
+}
@@ -0,0 +1,35 @@
+package github.ag777.util.remote.ai.http.metrics;
+
+/**
+ * 单个模型的耗时统计快照，耗时单位均为毫秒，只统计成功的请求。
+ *
+ * @param model 模型名称
+ * @param requests 请求（尝试）总数
+ * @param failures 失败数
+ * @param build 构建请求耗时
+ * @param firstByte 首字节时间
+ * @param firstReasoning 首个推理增量时间
+ * @param firstContent 首个内容增量时间
+ * @param firstToken 首个输出（推理或内容）时间
+ * @param avgGap 单个请求内增量平均间隔
+ * @param maxGap 单个请求内增量最大间隔
+ * @param total 总耗时
+ * @param tokensPerSecond 输出速度（token/秒）
+ * @author ag777
+ * @since 1.0
+ */
+public record AiHttpModelMetrics(
+        String model,
+        long requests,
+        long failures,
+        AiHttpPercentiles build,
+        AiHttpPercentiles firstByte,
+        AiHttpPercentiles firstReasoning,
+        AiHttpPercentiles firstContent,
+        AiHttpPercentiles firstToken,
+        AiHttpPercentiles avgGap,
+        AiHttpPercentiles maxGap,
+        AiHttpPercentiles total,
+        AiHttpPercentiles tokensPerSecond
+) {
+}
@@ -0,0 +1,16 @@
+package github.ag777.util.remote.ai.http.metrics;
+
+/**
+ * 一组样本的分位数统计，分位数的相对误差约12.5%。
+ *
+ * @param count 样本数
+ * @param mean 平均值
+ * @param p50 中位数
+ * @param p90 90分位
+ * @param p99 99分位
+ * @param max 最大值
+ * @author ag777
+ * @since 1.0
+ */
+public record AiHttpPercentiles(long count, double mean, double p50, double p90, double p99, double max) {
+}
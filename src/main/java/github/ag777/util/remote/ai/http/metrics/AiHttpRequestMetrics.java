@@ -0,0 +1,54 @@
+package github.ag777.util.remote.ai.http.metrics;
+
+/**
+ * 一次HTTP尝试的耗时数据，时间点均为相对请求开始的毫秒数，没有发生的时间点为-1。
+ *
+ * @param model 模型名称
+ * @param stream 是否流式请求
+ * @param success 是否成功
+ * @param statusCode 失败时的HTTP状态码，网络异常或成功时为null
+ * @param buildMillis 构建请求体、请求头耗时
+ * @param firstByteMillis 收到响应头的时间（首字节）
+ * @param firstReasoningMillis 收到第一个推理增量的时间
+ * @param firstContentMillis 收到第一个内容增量的时间（首token）
+ * @param totalMillis 总耗时
+ * @param tokenEvents 收到的推理/内容增量个数
+ * @param maxGapMillis 相邻两个增量之间的最大间隔
+ * @param avgGapMillis 相邻两个增量之间的平均间隔
+ * @param completionTokens 输出token数，优先取响应中的usage，否则估算
+ * @param tokensPerSecond 从第一个增量到结束的输出速度，无法计算时为0
+ * @author ag777
+ * @since 1.0
+ */
+public record AiHttpRequestMetrics(
+        String model,
+        boolean stream,
+        boolean success,
+        Integer statusCode,
+        double buildMillis,
+        double firstByteMillis,
+        double firstReasoningMillis,
+        double firstContentMillis,
+        double totalMillis,
+        int tokenEvents,
+        double maxGapMillis,
+        double avgGapMillis,
+        long completionTokens,
+        double tokensPerSecond
+) {
+
+    /**
+     * 获取首个输出（推理或内容）的时间。
+     *
+     * @return 首个输出的毫秒数，没有输出时为-1
+     */
+    public double firstTokenMillis() {
+        if (firstReasoningMillis < 0) {
+            return firstContentMillis;
+        }
+        if (firstContentMillis < 0) {
+            return firstReasoningMillis;
+        }
+        return Math.min(firstReasoningMillis, firstContentMillis);
+    }
+}
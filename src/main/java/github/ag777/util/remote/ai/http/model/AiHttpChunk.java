@@ -1,11 +1,18 @@
 package github.ag777.util.remote.ai.http.model;
 
 import com.google.gson.JsonObject;
-import lombok.AllArgsConstructor;
+import com.google.gson.JsonParser;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.experimental.Accessors;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -14,6 +21,9 @@ import java.util.List;
  * <p>表示流式响应中的单个分片，包含内容增量、推理增量、工具调用增量、
  * 完成原因和原始分片数据。
  * 
+ * <p>按字节解码的分片只保留负载字节副本，原始JSON在首次调用 {@link #raw()} 时才解析，
+ * 不读取raw的处理器不需要为每个分片构建JSON树。
+ * 
  * <p>在流式响应过程中，AI模型会分多次发送数据，每次发送的部分通过该类表示。
  * 所有的分片累积起来形成完整的响应。
  * 
@@ -22,7 +32,6 @@ import java.util.List;
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Accessors(chain = true, fluent = true)
 public class AiHttpChunk {
     private String content;
@@ -31,6 +40,80 @@ public class AiHttpChunk {
     private String finishReason;
     private JsonObject raw;
 
+    /**
+     * 尚未解析的原始负载字节，raw为null时在首次访问时解析。
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient byte[] rawPayload;
+
+    /**
+     * 创建分片。
+     * 
+     * @param content 内容增量
+     * @param reasoning 推理增量
+     * @param toolCalls 工具调用增量
+     * @param finishReason 完成原因
+     * @param raw 原始分片数据
+     */
+    public AiHttpChunk(String content, String reasoning, List<AiHttpToolCallDelta> toolCalls, String finishReason, JsonObject raw) {
+        this.content = content;
+        this.reasoning = reasoning;
+        this.toolCalls = toolCalls;
+        this.finishReason = finishReason;
+        this.raw = raw;
+    }
+
+    /**
+     * 获取原始分片数据，只有负载字节时首次调用才解析。
+     * 
+     * @return 原始分片数据，分片不是由服务端数据解析而来时为null
+     */
+    public JsonObject raw() {
+        if (raw == null && rawPayload != null) {
+            raw = JsonParser.parseString(new String(rawPayload, StandardCharsets.UTF_8)).getAsJsonObject();
+            rawPayload = null;
+        }
+        return raw;
+    }
+
+    /**
+     * 设置原始分片数据。
+     * 
+     * @param raw 原始分片数据
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpChunk raw(JsonObject raw) {
+        this.raw = raw;
+        this.rawPayload = null;
+        return this;
+    }
+
+    /**
+     * 设置原始负载字节，复制一份保留，{@link #raw()} 首次调用时才解析。
+     * 
+     * @param data 字节数组，只在调用期间有效
+     * @param offset 负载起始位置
+     * @param length 负载长度
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpChunk rawPayload(byte[] data, int offset, int length) {
+        this.raw = null;
+        this.rawPayload = Arrays.copyOfRange(data, offset, offset + length);
+        return this;
+    }
+
+    /**
+     * 检查是否带有原始分片数据（已解析或待解析），不会触发解析。
+     * 
+     * @return 带有原始分片数据返回true
+     */
+    public boolean hasRaw() {
+        return raw != null || rawPayload != null;
+    }
+
     /**
      * 检查是否有内容增量。
      * 
@@ -0,0 +1,41 @@
+package github.ag777.util.remote.ai.http.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * 工具调用参数字段的流式增量模型。
+ *
+ * <p>流式响应中工具参数边到达边解析，每个顶层字段有进展时产生一个增量：
+ * 字符串字段会多次产生 {@code valueDelta}，最后一次 {@code complete} 为true并带上完整值；
+ * 其他类型的字段只在完整时产生一次。
+ *
+ * <p>可用于在模型输出完整个调用之前就开始执行工具，或把写文件类工具的内容实时展示出来。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true, fluent = true)
+public class AiHttpToolArgumentDelta {
+    private Integer index;
+    private String id;
+    private String name;
+    private String field;
+    private String valueDelta;
+    private Object value;
+    private boolean complete;
+
+    /**
+     * 检查是否有字符串值增量。
+     *
+     * @return 如果值增量不为null且不为空返回true，否则返回false
+     */
+    public boolean hasValueDelta() {
+        return valueDelta != null && !valueDelta.isEmpty();
+    }
+}
@@ -12,6 +12,7 @@ import java.util.Map;
  * 工具函数最终态模型。
  * 
  * <p>表示工具函数的完整信息，包含函数名称、参数文本和解析后的参数Map。
+ * 参数文本不是合法JSON时，参数Map为空，{@code argumentsError} 记录解析失败原因。
  * 与{@link AiHttpToolFunctionDelta}不同，该类包含函数的最终完整数据。
  * 
  * <p>在流式响应完成后，所有的增量数据会被组装成该最终态对象。
@@ -27,6 +28,18 @@ public class AiHttpToolFunction {
     private String name;
     private String argumentsText;
     private Map<String, Object> arguments = new LinkedHashMap<>();
+    private String argumentsError;
+
+    /**
+     * 创建工具函数，保留新增 {@code argumentsError} 之前的三参数构造方法。
+     * 
+     * @param name 函数名称
+     * @param argumentsText 参数文本
+     * @param arguments 解析后的参数
+     */
+    public AiHttpToolFunction(String name, String argumentsText, Map<String, Object> arguments) {
+        this(name, argumentsText, arguments, null);
+    }
 
     /**
      * 检查是否有函数名称。
@@ -54,4 +67,13 @@ public class AiHttpToolFunction {
     public boolean hasArguments() {
         return arguments != null && !arguments.isEmpty();
     }
+
+    /**
+     * 检查参数文本是否解析失败。
+     * 
+     * @return 如果参数文本不是合法JSON返回true，否则返回false
+     */
+    public boolean hasArgumentsError() {
+        return argumentsError != null;
+    }
 }
@@ -1,11 +1,15 @@
 package github.ag777.util.remote.ai.http.openai.model;
 
 import com.google.gson.annotations.SerializedName;
+import github.ag777.util.gson.GsonUtils;
 import github.ag777.util.remote.ai.http.model.AiHttpToolCall;
 import github.ag777.util.remote.ai.http.openai.model.request.RequestToolCall;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,7 +19,6 @@ import java.util.List;
  * @version 2024/12/4 下午5:32
  */
 @NoArgsConstructor
-@AllArgsConstructor
 @Data
 public class AiMessage {
 
@@ -47,6 +50,20 @@ public class AiMessage {
     @SerializedName("tool_call_id")
     private String toolCallId;
 
+    /**
+     * 序列化结果缓存，不参与序列化和比较。
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient volatile JsonCache jsonCache;
+
+    /**
+     * 序列化结果及生成时各字段的引用快照。
+     */
+    private record JsonCache(String role, Object content, int contentSize, List<RequestToolCall> toolCalls, String toolCallId, String json) {
+    }
+
     /**
      * 创建仅含角色与内容的消息。
      *
@@ -58,6 +75,49 @@ public class AiMessage {
         this.content = content;
     }
 
+    /**
+     * 创建消息。
+     *
+     * @param role 消息角色
+     * @param content 消息内容
+     * @param toolCalls 助手消息携带的工具调用列表
+     * @param toolCallId 工具结果消息对应的工具调用ID
+     */
+    public AiMessage(String role, Object content, List<RequestToolCall> toolCalls, String toolCallId) {
+        this.role = role;
+        this.content = content;
+        this.toolCalls = toolCalls;
+        this.toolCallId = toolCallId;
+    }
+
+    /**
+     * 获取该消息序列化后的JSON。
+     *
+     * <p>结果会被缓存，会话历史中的消息每轮只需序列化一次（多模态消息中的base64图片尤其明显）。
+     * 字段被重新赋值或content列表长度变化时自动重新序列化；如果原地修改了content列表中的元素，
+     * 需调用 {@link #invalidateJson()}。
+     *
+     * @return JSON字符串
+     */
+    public String toJson() {
+        JsonCache cache = jsonCache;
+        int contentSize = content instanceof List<?> list ? list.size() : -1;
+        if (cache != null && cache.role() == role && cache.content() == content && cache.contentSize() == contentSize
+                && cache.toolCalls() == toolCalls && cache.toolCallId() == toolCallId) {
+            return cache.json();
+        }
+        String json = GsonUtils.get().toJson(this);
+        jsonCache = new JsonCache(role, content, contentSize, toolCalls, toolCallId, json);
+        return json;
+    }
+
+    /**
+     * 清除序列化结果缓存。
+     */
+    public void invalidateJson() {
+        jsonCache = null;
+    }
+
     /**
      * 生成用户角色消息
      *
@@ -95,25 +95,32 @@ public class AiMessageContentPart {
     /**
      * 创建本地图片内容片段。
      *
+     * <p>指定细节级别时，图片会先缩放到该级别的像素上限再编码，见 {@link AiImageDataUrlUtils#toScaledDataUrl(Path, String)}。
+     *
      * @param file 本地图片文件
-     * @param detail 图片理解细节级别，可使用 {@link AiImageDetail}
+     * @param detail 图片理解细节级别，可使用 {@link AiImageDetail}，为null时按原图编码
      * @return 图片内容片段
      * @throws IOException 读取文件失败
      */
     public static AiMessageContentPart imageFile(File file, String detail) throws IOException {
-        return imageUrl(AiImageDataUrlUtils.toDataUrl(file), detail);
+        return imageFile(file.toPath(), detail);
     }
 
     /**
      * 创建本地图片内容片段。
      *
+     * <p>指定细节级别时，图片会先缩放到该级别的像素上限再编码，见 {@link AiImageDataUrlUtils#toScaledDataUrl(Path, String)}。
+     *
      * @param path 本地图片路径
-     * @param detail 图片理解细节级别，可使用 {@link AiImageDetail}
+     * @param detail 图片理解细节级别，可使用 {@link AiImageDetail}，为null时按原图编码
      * @return 图片内容片段
      * @throws IOException 读取文件失败
      */
     public static AiMessageContentPart imageFile(Path path, String detail) throws IOException {
-        return imageUrl(AiImageDataUrlUtils.toDataUrl(path), detail);
+        if (detail == null) {
+            return imageUrl(AiImageDataUrlUtils.toDataUrl(path), null);
+        }
+        return imageUrl(AiImageDataUrlUtils.toScaledDataUrl(path, detail), detail);
     }
 
     /**
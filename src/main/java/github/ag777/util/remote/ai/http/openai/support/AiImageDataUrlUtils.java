@@ -1,18 +1,44 @@
 package github.ag777.util.remote.ai.http.openai.support;
 
-import github.ag777.util.file.FileUtils;
 import github.ag777.util.lang.security.Base64Utils;
+import github.ag777.util.remote.ai.http.openai.model.AiImageDetail;
 
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 
 /**
  * 本地图片转 OpenAI 兼容 data URL 工具。
  *
+ * <p>本地文件边读边编码为Base64，直接写入最终大小的缓冲区，不再持有完整的原始字节和中间Base64串，
+ * 堆占用约为编码后大小的2倍（原来约为5倍）。
+ *
+ * <p>{@link #toScaledDataUrl(Path, String)} 会按细节级别先把图片缩放到模型实际使用的像素上限再编码：
+ * {@link AiImageDetail#LOW} 限制在512x512内；{@link AiImageDetail#HIGH}/{@link AiImageDetail#AUTO} 限制在2048x2048内且短边不超过768。
+ * 服务端本来也会缩放到这个尺寸，提前缩放不影响理解效果，但能大幅减少请求体积。
+ *
  * @author ag777
  */
 public final class AiImageDataUrlUtils {
@@ -24,6 +50,11 @@ public final class AiImageDataUrlUtils {
             "gif", "image/gif"
     );
 
+    private static final int LOW_MAX_SIDE = 512;
+    private static final int HIGH_MAX_SIDE = 2048;
+    private static final int HIGH_MAX_SHORT_SIDE = 768;
+    private static final float JPEG_QUALITY = 0.85f;
+
     private AiImageDataUrlUtils() {
     }
 
@@ -79,7 +110,199 @@ public final class AiImageDataUrlUtils {
         if (path == null) {
             throw new IllegalArgumentException("path不能为空");
         }
-        return toDataUrl(FileUtils.readBytes(path.toFile()), mimeType);
+        if (mimeType == null || mimeType.isBlank()) {
+            throw new IllegalArgumentException("mimeType不能为空");
+        }
+        byte[] prefix = ("data:" + mimeType + ";base64,").getBytes(StandardCharsets.US_ASCII);
+        long size = Files.size(path);
+        if (size == 0) {
+            throw new IllegalArgumentException("图片内容不能为空");
+        }
+        long encodedSize = prefix.length + (size + 2) / 3 * 4;
+        if (encodedSize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("图片过大: " + size);
+        }
+        byte[] buffer = new byte[(int) encodedSize];
+        System.arraycopy(prefix, 0, buffer, 0, prefix.length);
+        FixedArrayOutputStream target = new FixedArrayOutputStream(buffer, prefix.length);
+        try (InputStream in = Files.newInputStream(path);
+             OutputStream base64 = Base64.getEncoder().wrap(target)) {
+            in.transferTo(base64);
+        }
+        if (target.position != buffer.length) {
+            throw new IOException("读取过程中图片文件大小发生变化: " + path);
+        }
+        return new String(buffer, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 将本地图片按细节级别缩放后编码为 data URL。
+     *
+     * <p>以下情况不做处理，直接编码原文件：图片尺寸已在上限内；格式无法识别或解码失败（如CMYK/YCCK的jpeg）；
+     * 为gif（可能是动图）；jpeg带有非默认的EXIF方向（重新编码会丢掉方向标记，导致手机照片被旋转）。
+     * 否则按比例缩小，带透明通道的输出png，其余输出jpeg。
+     * 解码时按缩放比例隔行隔列采样，大图不会以原始分辨率载入内存。
+     *
+     * @param path 图片路径
+     * @param detail 图片理解细节级别，可使用 {@link AiImageDetail}，为null时按auto处理
+     * @return data URL
+     * @throws IOException 读取或编码图片失败
+     */
+    public static String toScaledDataUrl(Path path, String detail) throws IOException {
+        String mimeType = guessImageMimeType(path);
+        if ("image/gif".equals(mimeType)) {
+            return toDataUrl(path, mimeType);
+        }
+        if ("image/jpeg".equals(mimeType) && readExifOrientation(path) > 1) {
+            return toDataUrl(path, mimeType);
+        }
+        BufferedImage image;
+        int[] target;
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return toDataUrl(path, mimeType);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // 只读取头信息获取尺寸，不解码像素
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                target = targetSize(width, height, detail);
+                if (target[0] == width && target[1] == height) {
+                    return toDataUrl(path, mimeType);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.min(width / target[0], height / target[1]));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                image = reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                // 内置解码器不支持的变体（如CMYK/YCCK的jpeg）原样上传，交给服务端处理
+                return toDataUrl(path, mimeType);
+            } finally {
+                reader.dispose();
+            }
+        }
+        boolean alpha = image.getColorModel().hasAlpha();
+        BufferedImage scaled = new BufferedImage(target[0], target[1], alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, target[0], target[1], null);
+        } finally {
+            g.dispose();
+        }
+        image.flush();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (alpha) {
+            ImageIO.write(scaled, "png", out);
+            return toDataUrl(out.toByteArray(), "image/png");
+        }
+        writeJpeg(scaled, out);
+        return toDataUrl(out.toByteArray(), "image/jpeg");
+    }
+
+    /**
+     * 计算图片在指定细节级别下的目标尺寸，只缩小不放大。
+     *
+     * @param width 原始宽度
+     * @param height 原始高度
+     * @param detail 图片理解细节级别，为null时按auto处理
+     * @return 目标宽高
+     */
+    public static int[] targetSize(int width, int height, String detail) {
+        double scale;
+        if (AiImageDetail.LOW.equals(detail)) {
+            scale = Math.min(1.0, (double) LOW_MAX_SIDE / Math.max(width, height));
+        } else {
+            scale = Math.min(1.0, (double) HIGH_MAX_SIDE / Math.max(width, height));
+            scale = Math.min(scale, (double) HIGH_MAX_SHORT_SIDE / Math.min(width, height));
+            scale = Math.min(1.0, scale);
+        }
+        if (scale >= 1.0) {
+            return new int[]{width, height};
+        }
+        return new int[]{Math.max(1, (int) Math.round(width * scale)), Math.max(1, (int) Math.round(height * scale))};
+    }
+
+    /**
+     * 读取jpeg的EXIF方向（0x0112），只扫描文件开头的标记段，不解码像素。
+     *
+     * @param path 图片路径
+     * @return 方向值，1为正常；没有EXIF或无法解析时返回1
+     */
+    static int readExifOrientation(Path path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    // 到达图像数据仍未找到EXIF
+                    return 1;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return 1;
+                }
+                if (marker != 0xFFE1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = in.readNBytes(length);
+                if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+                    continue;
+                }
+                return parseOrientation(segment, 6);
+            }
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * 在TIFF结构中查找IFD0的方向标签。
+     */
+    private static int parseOrientation(byte[] data, int tiff) {
+        boolean little = data[tiff] == 'I';
+        int ifd = tiff + readInt(data, tiff + 4, little);
+        int entries = readShort(data, ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (readShort(data, entry, little) == 0x0112) {
+                int orientation = readShort(data, entry + 8, little);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean little) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return little ? b0 | (b1 << 8) : (b0 << 8) | b1;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean little) {
+        int high = readShort(data, little ? offset + 2 : offset, little);
+        int low = readShort(data, little ? offset : offset + 2, little);
+        return (high << 16) | low;
+    }
+
+    private static void writeJpeg(BufferedImage image, ByteArrayOutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
     }
 
     /**
@@ -104,4 +327,36 @@ public final class AiImageDataUrlUtils {
         }
         return mimeType;
     }
+
+    /**
+     * 写入预先分配好的定长数组的输出流。
+     */
+    private static class FixedArrayOutputStream extends OutputStream {
+        private final byte[] buffer;
+        private int position;
+
+        private FixedArrayOutputStream(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureCapacity(1);
+            buffer[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureCapacity(len);
+            System.arraycopy(b, off, buffer, position, len);
+            position += len;
+        }
+
+        private void ensureCapacity(int len) throws IOException {
+            if (position + len > buffer.length) {
+                throw new IOException("读取过程中图片文件大小发生变化");
+            }
+        }
+    }
 }
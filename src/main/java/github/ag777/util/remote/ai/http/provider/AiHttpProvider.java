@@ -1,11 +1,15 @@
 package github.ag777.util.remote.ai.http.provider;
 
 import com.google.gson.JsonObject;
+import github.ag777.util.gson.GsonUtils;
 import github.ag777.util.lang.exception.model.GsonSyntaxException;
 import github.ag777.util.remote.ai.http.model.AiHttpChunk;
 import github.ag777.util.remote.ai.http.model.AiHttpRequest;
 import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+import github.ag777.util.remote.ai.http.openai.model.AiMessage;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -34,6 +38,56 @@ public interface AiHttpProvider {
      */
     Map<String, Object> buildRequestBody(AiHttpRequest request, boolean stream);
 
+    /**
+     * 构建序列化后的请求体JSON。
+     *
+     * <p>默认实现按 {@link #buildRequestBody(AiHttpRequest, boolean)} 的字段顺序逐个写出，
+     * 其中的 {@link AiMessage} 列表直接拼接每条消息缓存的 {@link AiMessage#toJson()}，
+     * 长会话每轮只需要序列化新增的消息，其余字段仍由Gson序列化（空值字段与Gson一样被省略）。
+     *
+     * @param request 统一请求对象
+     * @param stream 是否为流式请求
+     * @return 请求体JSON
+     */
+    default String buildRequestJson(AiHttpRequest request, boolean stream) {
+        Map<String, Object> body = buildRequestBody(request, stream);
+        int capacity = 256;
+        for (Object value : body.values()) {
+            if (isMessageList(value)) {
+                for (Object message : (List<?>) value) {
+                    capacity += ((AiMessage) message).toJson().length() + 1;
+                }
+            }
+        }
+        StringBuilder json = new StringBuilder(capacity).append('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : body.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append(GsonUtils.get().toJson(entry.getKey())).append(':');
+            if (isMessageList(value)) {
+                json.append('[');
+                List<?> messages = (List<?>) value;
+                for (int i = 0; i < messages.size(); i++) {
+                    if (i > 0) {
+                        json.append(',');
+                    }
+                    json.append(((AiMessage) messages.get(i)).toJson());
+                }
+                json.append(']');
+            } else {
+                json.append(GsonUtils.get().toJson(value));
+            }
+        }
+        return json.append('}').toString();
+    }
+
     /**
      * 解析特定协议的非流式响应。
      * 
@@ -51,4 +105,34 @@ public interface AiHttpProvider {
      * @throws GsonSyntaxException JSON解析异常
      */
     AiHttpChunk parseStreamChunk(JsonObject json) throws GsonSyntaxException;
+
+    /**
+     * 直接从SSE负载的UTF-8字节解析流式响应分片。
+     *
+     * <p>默认实现先解码为字符串再构建JSON树，协议适配器可以覆盖该方法，
+     * 在字节上直接提取需要的字段以减少每个分片的内存分配。
+     * 字节数组只在调用期间有效，实现中不能持有。
+     *
+     * @param data 字节数组
+     * @param offset 负载起始位置
+     * @param length 负载长度
+     * @return 解析后的分片对象
+     * @throws GsonSyntaxException JSON解析异常
+     */
+    default AiHttpChunk parseStreamChunk(byte[] data, int offset, int length) throws GsonSyntaxException {
+        String payload = new String(data, offset, length, StandardCharsets.UTF_8);
+        return parseStreamChunk(GsonUtils.toJsonObjectWithException(payload));
+    }
+
+    private static boolean isMessageList(Object value) {
+        if (!(value instanceof List<?> list) || list.isEmpty()) {
+            return false;
+        }
+        for (Object item : list) {
+            if (!(item instanceof AiMessage)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
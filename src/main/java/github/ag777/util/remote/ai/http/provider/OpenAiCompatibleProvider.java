@@ -7,6 +7,7 @@ import github.ag777.util.gson.GsonUtils;
 import github.ag777.util.gson.JsonObjectUtils;
 import github.ag777.util.lang.exception.model.GsonSyntaxException;
 import github.ag777.util.remote.ai.http.model.*;
+import github.ag777.util.remote.ai.http.support.AiHttpStreamChunkDecoder;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -121,6 +122,24 @@ public class OpenAiCompatibleProvider implements AiHttpProvider {
         return chunk;
     }
 
+    /**
+     * 直接从UTF-8字节解析OpenAI兼容的流式响应分片。
+     *
+     * <p>使用 {@link AiHttpStreamChunkDecoder} 按字节提取内容、推理、工具调用和完成原因，
+     * 不构建JSON树；负载字节复制保留在分片中，{@link AiHttpChunk#raw()} 首次调用时才解析，
+     * 处理器和 {@link AiHttpResponse#raw()} 仍能拿到id、model、用量等原始字段。
+     *
+     * @param data 字节数组
+     * @param offset 负载起始位置
+     * @param length 负载长度
+     * @return 解析后的分片对象
+     * @throws GsonSyntaxException JSON解析异常
+     */
+    @Override
+    public AiHttpChunk parseStreamChunk(byte[] data, int offset, int length) throws GsonSyntaxException {
+        return new AiHttpStreamChunkDecoder(data, offset, length).decode().rawPayload(data, offset, length);
+    }
+
     /**
      * 解析工具调用数组。
      * 
@@ -139,8 +158,8 @@ public class OpenAiCompatibleProvider implements AiHttpProvider {
             String argumentsText = functionJson == null ? null : JsonObjectUtils.getStr(functionJson, "arguments");
             AiHttpToolFunction function = new AiHttpToolFunction()
                     .name(functionJson == null ? null : JsonObjectUtils.getStr(functionJson, "name"))
-                    .argumentsText(argumentsText)
-                    .arguments(parseArguments(argumentsText));
+                    .argumentsText(argumentsText);
+            parseArguments(function);
             AiHttpToolCall toolCall = new AiHttpToolCall()
                     .index(JsonObjectUtils.getInt(item, "index"))
                     .id(JsonObjectUtils.getStr(item, "id"))
@@ -183,19 +202,19 @@ public class OpenAiCompatibleProvider implements AiHttpProvider {
     }
 
     /**
-     * 解析工具调用参数文本为Map对象。
+     * 解析工具调用参数文本，写入参数Map；解析失败时参数Map为空并记录失败原因。
      * 
-     * @param argumentsText 参数文本，JSON格式
-     * @return 解析后的参数Map，解析失败时返回空Map
+     * @param function 带参数文本的工具函数
      */
-    private Map<String, Object> parseArguments(String argumentsText) {
+    private void parseArguments(AiHttpToolFunction function) {
+        String argumentsText = function.argumentsText();
         if (argumentsText == null || argumentsText.isEmpty()) {
-            return new LinkedHashMap<>();
+            return;
         }
         try {
-            return GsonUtils.get().toMap(argumentsText);
-        } catch (Exception ignored) {
-            return new LinkedHashMap<>();
+            function.arguments(GsonUtils.get().toMap(argumentsText));
+        } catch (Exception e) {
+            function.argumentsError(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
         }
     }
 }
@@ -0,0 +1,24 @@
+package github.ag777.util.remote.ai.http.scheduler;
+
+/**
+ * 请求调度优先级。
+ *
+ * <p>调度器按严格优先级出队：只要高优先级通道中有可执行的请求，就不会派发低优先级请求。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public enum AiHttpPriority {
+    /**
+     * 高优先级，如交互式对话
+     */
+    HIGH,
+    /**
+     * 普通优先级，默认值
+     */
+    NORMAL,
+    /**
+     * 低优先级，如离线批处理
+     */
+    LOW
+}
@@ -0,0 +1,558 @@
+package github.ag777.util.remote.ai.http.scheduler;
+
+import com.google.gson.JsonElement;
+import github.ag777.util.remote.ai.http.exception.AiHttpException;
+import github.ag777.util.remote.ai.http.model.AiHttpRequest;
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+import github.ag777.util.remote.ai.http.support.AiHttpTokenEstimator;
+
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * 面向限流接口的请求调度器。
+ *
+ * <p>在 {@link github.ag777.util.remote.ai.http.client.AiHttpClient} 与底层HTTP调用之间增加一层调度：
+ * <ul>
+ * <li>最大并发数限制，超出的请求排队而不是各占一个线程</li>
+ * <li>每分钟请求数、每分钟token数两个令牌桶</li>
+ * <li>HIGH/NORMAL/LOW三个优先级通道，严格按优先级出队</li>
+ * <li>收到429时按 {@link AiHttpException#getRetryAfterMillis()} 暂停派发，并把请求放回队首重试</li>
+ * <li>队列深度、执行数、限流次数等运行指标</li>
+ * </ul>
+ *
+ * <p>派发由单个守护线程完成，请求本身在工作执行器上执行（默认每个请求一个虚拟线程）。
+ * 客户端的对冲请求以LOW优先级单独提交，同样占用并发数和令牌；客户端的重试策略遇到429时不会在本地退避，而是交给调度器处理。
+ * 注意：流式请求被限流重排时，{@code onStart} 可能会再次回调。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * AiHttpRequestScheduler scheduler = new AiHttpRequestScheduler(32)
+ *     .requestsPerMinute(500)
+ *     .tokensPerMinute(200_000);
+ * AiHttpClient client = AiHttpClient.openAiCompatible(config.scheduler(scheduler));
+ * client.chatAsync(request, null, AiHttpPriority.LOW);
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpRequestScheduler implements AutoCloseable {
+    private static final int STATUS_TOO_MANY_REQUESTS = 429;
+
+    private final int maxConcurrency;
+    private volatile AiHttpTokenBucket requestBucket;
+    private volatile AiHttpTokenBucket tokenBucket;
+    private volatile ToLongFunction<AiHttpRequest> tokenEstimator = AiHttpRequestScheduler::estimateTokens;
+    private volatile int maxQueueSize = Integer.MAX_VALUE;
+    private volatile int maxRateLimitRetries = 2;
+    private volatile long defaultRetryAfterMillis = 1000;
+    private final ExecutorService workerExecutor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<AiHttpPriority, ArrayDeque<Job>> lanes = new EnumMap<>(AiHttpPriority.class);
+    private int queued;
+    private int maxQueued;
+    private int inFlight;
+    private long pausedUntilNanos;
+    private boolean paused;
+    private boolean closed;
+    private final Thread dispatcher;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+
+    private static final class Job {
+        private final AiHttpPriority priority;
+        private final Future<?> owner;
+        private final Callable<AiHttpResponse> call;
+        private final long estimatedTokens;
+        private final CompletableFuture<AiHttpResponse> result = new CompletableFuture<>();
+        private int attempts;
+
+        private Job(AiHttpPriority priority, Future<?> owner, Callable<AiHttpResponse> call, long estimatedTokens) {
+            this.priority = priority;
+            this.owner = owner;
+            this.call = call;
+            this.estimatedTokens = estimatedTokens;
+        }
+    }
+
+    /**
+     * 创建调度器，请求在虚拟线程上执行。
+     *
+     * @param maxConcurrency 最大并发请求数
+     */
+    public AiHttpRequestScheduler(int maxConcurrency) {
+        this(maxConcurrency, Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("ai-http-worker-", 0).factory()));
+    }
+
+    /**
+     * 创建调度器。
+     *
+     * @param maxConcurrency 最大并发请求数
+     * @param workerExecutor 执行请求的执行器，关闭调度器时会一并关闭
+     */
+    public AiHttpRequestScheduler(int maxConcurrency, ExecutorService workerExecutor) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("最大并发数必须大于0");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.workerExecutor = workerExecutor;
+        for (AiHttpPriority priority : AiHttpPriority.values()) {
+            lanes.put(priority, new ArrayDeque<>());
+        }
+        this.dispatcher = new Thread(this::dispatchLoop, "ai-http-scheduler");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * 设置每分钟请求数上限。
+     *
+     * @param requestsPerMinute 每分钟请求数，小于等于0表示不限制
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRequestScheduler requestsPerMinute(long requestsPerMinute) {
+        this.requestBucket = requestsPerMinute > 0 ? AiHttpTokenBucket.perMinute(requestsPerMinute) : null;
+        signal();
+        return this;
+    }
+
+    /**
+     * 设置每分钟token数上限。
+     *
+     * <p>请求派发前按 {@link #tokenEstimator(ToLongFunction)} 预扣，完成后按响应中的usage修正；
+     * 被服务端拒绝（含429）或连接未建立的请求退还预扣量。
+     *
+     * @param tokensPerMinute 每分钟token数，小于等于0表示不限制
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRequestScheduler tokensPerMinute(long tokensPerMinute) {
+        this.tokenBucket = tokensPerMinute > 0 ? AiHttpTokenBucket.perMinute(tokensPerMinute) : null;
+        signal();
+        return this;
+    }
+
+    /**
+     * 设置请求token数估算函数，默认按 {@link AiHttpTokenEstimator} 估算输入再加上max_tokens。
+     *
+     * @param tokenEstimator 估算函数
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRequestScheduler tokenEstimator(ToLongFunction<AiHttpRequest> tokenEstimator) {
+        if (tokenEstimator != null) {
+            this.tokenEstimator = tokenEstimator;
+        }
+        return this;
+    }
+
+    /**
+     * 设置最大排队数，超出时提交会直接失败。
+     *
+     * @param maxQueueSize 最大排队数
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRequestScheduler maxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = Math.max(1, maxQueueSize);
+        return this;
+    }
+
+    /**
+     * 设置收到429后重新排队的最大次数。
+     *
+     * @param maxRateLimitRetries 最大次数，0表示不重试
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRequestScheduler maxRateLimitRetries(int maxRateLimitRetries) {
+        this.maxRateLimitRetries = Math.max(0, maxRateLimitRetries);
+        return this;
+    }
+
+    /**
+     * 设置429响应未携带Retry-After时的默认暂停时间。
+     *
+     * @param retryAfter 暂停时间
+     * @param unit 时间单位
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpRequestScheduler defaultRetryAfter(long retryAfter, TimeUnit unit) {
+        this.defaultRetryAfterMillis = Math.max(0, unit.toMillis(retryAfter));
+        return this;
+    }
+
+    /**
+     * 提交请求。
+     *
+     * @param request 请求，用于估算token数
+     * @param priority 优先级，null表示NORMAL
+     * @param owner 调用方持有的Future，排队期间被取消或完成时不再派发，可为null
+     * @param call 实际执行请求的逻辑
+     * @return 执行结果
+     */
+    public CompletableFuture<AiHttpResponse> submit(AiHttpRequest request, AiHttpPriority priority, Future<?> owner, Callable<AiHttpResponse> call) {
+        long estimatedTokens = tokenBucket != null && request != null ? Math.max(0, tokenEstimator.applyAsLong(request)) : 0;
+        Job job = new Job(priority == null ? AiHttpPriority.NORMAL : priority, owner, call, estimatedTokens);
+        lock.lock();
+        try {
+            if (closed) {
+                job.result.completeExceptionally(new RejectedExecutionException("调度器已关闭"));
+                return job.result;
+            }
+            if (queued >= maxQueueSize) {
+                rejected.increment();
+                job.result.completeExceptionally(new AiHttpException("调度队列已满，当前排队数: " + queued));
+                return job.result;
+            }
+            submitted.increment();
+            lanes.get(job.priority).addLast(job);
+            queued++;
+            maxQueued = Math.max(maxQueued, queued);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return job.result;
+    }
+
+    /**
+     * 同步提交并等待结果，异常按原样抛出。
+     *
+     * @param request 请求
+     * @param priority 优先级
+     * @param call 实际执行请求的逻辑
+     * @return 响应
+     */
+    public AiHttpResponse execute(AiHttpRequest request, AiHttpPriority priority, Callable<AiHttpResponse> call) {
+        CompletableFuture<AiHttpResponse> result = submit(request, priority, null, call);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(false);
+            throw new CancellationException("等待调度结果时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new AiHttpException("调用大模型接口失败", cause);
+        }
+    }
+
+    /**
+     * 获取运行状态快照。
+     *
+     * @return 状态快照
+     */
+    public AiHttpSchedulerStats getStats() {
+        Map<AiHttpPriority, Integer> depths = new EnumMap<>(AiHttpPriority.class);
+        int currentQueued;
+        int currentMaxQueued;
+        int currentInFlight;
+        long pausedMillis = 0;
+        lock.lock();
+        try {
+            for (Map.Entry<AiHttpPriority, ArrayDeque<Job>> entry : lanes.entrySet()) {
+                depths.put(entry.getKey(), entry.getValue().size());
+            }
+            currentQueued = queued;
+            currentMaxQueued = maxQueued;
+            currentInFlight = inFlight;
+            if (paused) {
+                pausedMillis = Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntilNanos - System.nanoTime()));
+            }
+        } finally {
+            lock.unlock();
+        }
+        AiHttpTokenBucket rb = requestBucket;
+        AiHttpTokenBucket tb = tokenBucket;
+        return new AiHttpSchedulerStats(depths, currentQueued, currentMaxQueued, currentInFlight, maxConcurrency,
+                submitted.sum(), completed.sum(), failed.sum(), rejected.sum(), rateLimited.sum(), pausedMillis,
+                rb == null ? -1 : rb.available(), tb == null ? -1 : tb.available());
+    }
+
+    /**
+     * 获取最大并发数。
+     *
+     * @return 最大并发数
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 关闭调度器，排队中的请求以取消结束，执行中的请求会继续执行完毕。
+     */
+    @Override
+    public void close() {
+        ArrayDeque<Job> dropped = new ArrayDeque<>();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (ArrayDeque<Job> lane : lanes.values()) {
+                dropped.addAll(lane);
+                lane.clear();
+            }
+            queued = 0;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Job job : dropped) {
+            failed.increment();
+            job.result.completeExceptionally(new CancellationException("调度器已关闭"));
+        }
+        workerExecutor.shutdown();
+    }
+
+    private void dispatchLoop() {
+        lock.lock();
+        try {
+            while (!closed) {
+                long waitNanos = tryDispatch();
+                if (waitNanos < 0) {
+                    changed.await();
+                } else if (waitNanos > 0) {
+                    changed.awaitNanos(waitNanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 尝试派发一个请求，需持有锁。
+     *
+     * @return 小于0表示等待状态变化，大于0表示需要等待的纳秒数，0表示可以立即再次尝试
+     */
+    private long tryDispatch() {
+        ArrayDeque<Job> lane = nextLane();
+        if (lane == null) {
+            return -1;
+        }
+        Job job = lane.peekFirst();
+        if (job.result.isDone() || (job.owner != null && job.owner.isDone())) {
+            // 排队期间已被调用方取消
+            lane.pollFirst();
+            queued--;
+            failed.increment();
+            job.result.cancel(false);
+            return 0;
+        }
+        if (inFlight >= maxConcurrency) {
+            return -1;
+        }
+        if (paused) {
+            long remaining = pausedUntilNanos - System.nanoTime();
+            if (remaining > 0) {
+                return remaining;
+            }
+            paused = false;
+        }
+        AiHttpTokenBucket rb = requestBucket;
+        AiHttpTokenBucket tb = tokenBucket;
+        long wait = Math.max(rb == null ? 0 : rb.waitNanos(1), tb == null ? 0 : tb.waitNanos(job.estimatedTokens));
+        if (wait > 0) {
+            return wait;
+        }
+        if (rb != null) {
+            rb.consume(1);
+        }
+        if (tb != null) {
+            tb.consume(job.estimatedTokens);
+        }
+        lane.pollFirst();
+        queued--;
+        inFlight++;
+        try {
+            workerExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            inFlight--;
+            refund(job);
+            failed.increment();
+            job.result.completeExceptionally(e);
+        }
+        return 0;
+    }
+
+    private ArrayDeque<Job> nextLane() {
+        for (AiHttpPriority priority : AiHttpPriority.values()) {
+            ArrayDeque<Job> lane = lanes.get(priority);
+            if (!lane.isEmpty()) {
+                return lane;
+            }
+        }
+        return null;
+    }
+
+    private void run(Job job) {
+        AiHttpResponse response = null;
+        Throwable error = null;
+        try {
+            response = job.call.call();
+        } catch (Throwable e) {
+            error = e;
+        }
+        lock.lock();
+        try {
+            inFlight--;
+            if (neverReachedModel(error)) {
+                // 派发时预扣的令牌按服务端实际未消耗退还，否则每次重新排队都会再扣一次完整预估
+                refund(job);
+            }
+            if (isRateLimited(error)) {
+                AiHttpException httpException = (AiHttpException) error;
+                rateLimited.increment();
+                long retryAfterMillis = httpException.getRetryAfterMillis() != null
+                        ? httpException.getRetryAfterMillis() : defaultRetryAfterMillis;
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis);
+                if (!paused || until - pausedUntilNanos > 0) {
+                    pausedUntilNanos = until;
+                    paused = true;
+                }
+                boolean ownerDone = job.owner != null && job.owner.isDone();
+                if (!closed && !ownerDone && job.attempts < maxRateLimitRetries) {
+                    job.attempts++;
+                    lanes.get(job.priority).addFirst(job);
+                    queued++;
+                    changed.signalAll();
+                    return;
+                }
+            }
+            if (error == null) {
+                completed.increment();
+            } else {
+                failed.increment();
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (error == null) {
+            correctTokenUsage(job, response);
+            job.result.complete(response);
+        } else {
+            job.result.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * 判断异常是否为限流（429）。这类异常应原样抛给调度器，由调度器暂停派发并重新排队，而不是在并发槽位内退避重试。
+     *
+     * @param e 异常
+     * @return 是否为限流异常
+     */
+    public static boolean isRateLimited(Throwable e) {
+        return e instanceof AiHttpException httpException
+                && httpException.getStatusCode() != null && httpException.getStatusCode() == STATUS_TOO_MANY_REQUESTS;
+    }
+
+    /**
+     * 判断失败的调用是否没有到达模型：被服务端拒绝（状态码4xx/5xx，含429）或连接没有建立。
+     */
+    private static boolean neverReachedModel(Throwable e) {
+        if (!(e instanceof AiHttpException httpException)) {
+            return false;
+        }
+        if (httpException.getStatusCode() != null) {
+            return httpException.getStatusCode() >= 400;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 退还派发时预扣的请求令牌和token令牌。
+     */
+    private void refund(Job job) {
+        AiHttpTokenBucket rb = requestBucket;
+        AiHttpTokenBucket tb = tokenBucket;
+        if (rb != null) {
+            rb.adjust(1);
+        }
+        if (tb != null) {
+            tb.adjust(job.estimatedTokens);
+        }
+    }
+
+    /**
+     * 按响应中的usage修正token令牌桶的预扣量。
+     */
+    private void correctTokenUsage(Job job, AiHttpResponse response) {
+        AiHttpTokenBucket tb = tokenBucket;
+        if (tb == null || response == null || response.raw() == null) {
+            return;
+        }
+        JsonElement usage = response.raw().get("usage");
+        if (usage == null || !usage.isJsonObject()) {
+            return;
+        }
+        JsonElement total = usage.getAsJsonObject().get("total_tokens");
+        if (total == null || !total.isJsonPrimitive()) {
+            return;
+        }
+        try {
+            tb.adjust(job.estimatedTokens - total.getAsLong());
+        } catch (NumberFormatException ignored) {
+        }
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 默认的token估算：本地估算的输入token数，加上请求中的max_tokens（没有则不计输出）。
+     *
+     * @param request 请求
+     * @return 估算token数
+     */
+    public static long estimateTokens(AiHttpRequest request) {
+        long tokens = AiHttpTokenEstimator.estimate(request.messages());
+        Object maxTokens = request.options().get("max_tokens");
+        if (maxTokens instanceof Number number) {
+            tokens += number.longValue();
+        }
+        return tokens;
+    }
+}
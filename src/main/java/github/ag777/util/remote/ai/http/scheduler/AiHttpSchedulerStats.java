@@ -0,0 +1,39 @@
+package github.ag777.util.remote.ai.http.scheduler;
+
+import java.util.Map;
+
+/**
+ * 调度器运行状态快照。
+ *
+ * @param queueDepths 各优先级通道当前排队数
+ * @param queued 当前排队总数
+ * @param maxQueued 历史最大排队数
+ * @param inFlight 当前执行中的请求数
+ * @param maxConcurrency 最大并发数
+ * @param submitted 累计提交数
+ * @param completed 累计成功数
+ * @param failed 累计失败数（含取消）
+ * @param rejected 因队列已满被拒绝的数量
+ * @param rateLimited 收到限流响应（429）的次数
+ * @param pausedMillis 当前因Retry-After暂停派发的剩余毫秒数
+ * @param availableRequests 请求数令牌桶余额，未配置时为-1
+ * @param availableTokens token数令牌桶余额，未配置时为-1
+ * @author ag777
+ * @since 1.0
+ */
+public record AiHttpSchedulerStats(
+        Map<AiHttpPriority, Integer> queueDepths,
+        int queued,
+        int maxQueued,
+        int inFlight,
+        int maxConcurrency,
+        long submitted,
+        long completed,
+        long failed,
+        long rejected,
+        long rateLimited,
+        long pausedMillis,
+        long availableRequests,
+        long availableTokens
+) {
+}
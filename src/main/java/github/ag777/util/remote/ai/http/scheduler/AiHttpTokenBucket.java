@@ -0,0 +1,111 @@
+package github.ag777.util.remote.ai.http.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶。
+ *
+ * <p>按固定速率连续补充令牌，桶容量等于一个周期内的配额，用于限制每分钟请求数或每分钟token数。
+ * 允许通过 {@link #adjust(long)} 把余额修正为负数（例如实际消耗的token比预估多），
+ * 此时后续请求需要等待余额回正。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpTokenBucket {
+    private final long capacity;
+    private final double refillPerNano;
+    private double available;
+    private long lastRefillNanos;
+
+    /**
+     * 创建令牌桶，初始为满。
+     *
+     * @param permitsPerPeriod 每个周期的配额（也是桶容量）
+     * @param period 周期
+     * @param unit 周期单位
+     */
+    public AiHttpTokenBucket(long permitsPerPeriod, long period, TimeUnit unit) {
+        if (permitsPerPeriod <= 0 || period <= 0) {
+            throw new IllegalArgumentException("配额和周期必须大于0");
+        }
+        this.capacity = permitsPerPeriod;
+        this.refillPerNano = (double) permitsPerPeriod / unit.toNanos(period);
+        this.available = permitsPerPeriod;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 创建每分钟配额的令牌桶。
+     *
+     * @param permitsPerMinute 每分钟配额
+     * @return 令牌桶
+     */
+    public static AiHttpTokenBucket perMinute(long permitsPerMinute) {
+        return new AiHttpTokenBucket(permitsPerMinute, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 计算获取指定数量令牌还需等待的时间，不实际扣减。
+     * 超过桶容量的请求按桶容量计算，避免永远无法满足。
+     *
+     * @param permits 需要的令牌数
+     * @return 需要等待的纳秒数，0表示可以立即获取
+     */
+    public synchronized long waitNanos(long permits) {
+        refill();
+        double need = Math.min(permits, capacity);
+        if (available >= need) {
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((need - available) / refillPerNano));
+    }
+
+    /**
+     * 扣减令牌，余额可以变为负数。
+     *
+     * @param permits 令牌数
+     */
+    public synchronized void consume(long permits) {
+        refill();
+        available -= Math.min(permits, capacity);
+    }
+
+    /**
+     * 修正余额，正数表示退还，负数表示追加扣减。
+     *
+     * @param delta 修正量
+     */
+    public synchronized void adjust(long delta) {
+        refill();
+        available = Math.min(capacity, available + delta);
+    }
+
+    /**
+     * 获取当前可用令牌数。
+     *
+     * @return 可用令牌数，可能为负
+     */
+    public synchronized long available() {
+        refill();
+        return (long) available;
+    }
+
+    /**
+     * 获取桶容量。
+     *
+     * @return 桶容量
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            available = Math.min(capacity, available + elapsed * refillPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
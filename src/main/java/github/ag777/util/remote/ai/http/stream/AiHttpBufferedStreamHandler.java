@@ -0,0 +1,435 @@
+package github.ag777.util.remote.ai.http.stream;
+
+import github.ag777.util.remote.ai.http.model.AiHttpChunk;
+import github.ag777.util.remote.ai.http.model.AiHttpRequest;
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+import github.ag777.util.remote.ai.http.model.AiHttpToolArgumentDelta;
+import github.ag777.util.remote.ai.http.model.AiHttpToolCallDelta;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 批量合并投递的流式处理器包装。
+ *
+ * <p>读取网络的线程只负责把事件放入有界队列，真正的处理器在独立的执行器上被调用，
+ * 慢处理器（如推送到websocket）不会再反压HTTP连接。投递线程会把连续的内容/推理增量合并后再回调，
+ * 合并窗口由时间窗口和字符数共同决定，从而减少逐token的回调开销。
+ *
+ * <p>所有事件经由同一个队列、由同一个投递任务按顺序处理，
+ * {@code onStart*}/{@code onEnd*}/{@code onToolCall}/{@code onComplete}/{@code onError} 的相对顺序与原始流一致。
+ * 队列满时，开始/结束/工具调用/完成/错误事件总是阻塞等待；内容和推理增量按 {@link OverflowPolicy} 处理。
+ * 投递循环已经退出（完成、出错或投递线程被中断）后，阻塞中的读取线程会放弃入队，不会一直等待。
+ *
+ * <p>每个实例只能用于一次流式调用：完成/错误事件投递后，同一次调用中的后续事件会被忽略，
+ * 再次用于新的调用（再次回调onStart）会抛出 {@link IllegalStateException}，每次调用需重新包装。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * AiHttpBufferedStreamHandler handler = AiHttpBufferedStreamHandler.wrap(websocketHandler)
+ *     .flushInterval(50, TimeUnit.MILLISECONDS)
+ *     .maxBufferedChars(512)
+ *     .queueCapacity(1024)
+ *     .overflowPolicy(AiHttpBufferedStreamHandler.OverflowPolicy.DROP);
+ * client.chatStream(request, handler);
+ * handler.awaitDelivered(10, TimeUnit.SECONDS);
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpBufferedStreamHandler implements AiHttpStreamHandler {
+
+    /**
+     * 队列满时内容/推理增量的处理策略。
+     */
+    public enum OverflowPolicy {
+        /**
+         * 阻塞读取线程直到队列有空位，不丢数据。
+         */
+        BLOCK,
+        /**
+         * 丢弃该增量（最终响应不受影响，只影响中间回调），丢弃数量见 {@link #droppedCount()}。
+         */
+        DROP
+    }
+
+    private enum EventType {
+        START, START_REASONING, REASONING, END_REASONING, START_CONTENT, CONTENT, END_CONTENT,
+        TOOL_CALL, TOOL_ARGUMENT, CHUNK, COMPLETE, ERROR
+    }
+
+    private record Event(EventType type, String text, AiHttpChunk chunk, Object payload) {
+    }
+
+    /**
+     * 阻塞入队时检查投递循环是否已退出的间隔。
+     */
+    private static final long OFFER_CHECK_MILLIS = 100;
+
+    private static volatile ExecutorService defaultExecutor;
+
+    private final AiHttpStreamHandler delegate;
+    private long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(50);
+    private int maxBufferedChars = 256;
+    private int queueCapacity = 1024;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private boolean forwardChunks;
+    private Executor executor;
+
+    private BlockingQueue<Event> queue;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicBoolean used = new AtomicBoolean(false);
+    private final CountDownLatch delivered = new CountDownLatch(1);
+    private final LongAdder dropped = new LongAdder();
+    private volatile Throwable deliveryError;
+
+    /**
+     * 创建包装处理器。
+     *
+     * @param delegate 实际的流式处理器
+     */
+    public AiHttpBufferedStreamHandler(AiHttpStreamHandler delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate不能为空");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * 包装流式处理器。
+     *
+     * @param delegate 实际的流式处理器
+     * @return 包装后的处理器
+     */
+    public static AiHttpBufferedStreamHandler wrap(AiHttpStreamHandler delegate) {
+        return new AiHttpBufferedStreamHandler(delegate);
+    }
+
+    /**
+     * 设置合并时间窗口，投递线程拿到第一个增量后最多等待这么久来合并后续增量。
+     *
+     * @param interval 时间窗口，0表示只合并队列中已积压的增量
+     * @param unit 时间单位
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBufferedStreamHandler flushInterval(long interval, TimeUnit unit) {
+        this.flushIntervalNanos = Math.max(0, unit.toNanos(interval));
+        return this;
+    }
+
+    /**
+     * 设置单次回调合并的最大字符数，达到后立即投递。
+     *
+     * @param maxBufferedChars 最大字符数
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBufferedStreamHandler maxBufferedChars(int maxBufferedChars) {
+        this.maxBufferedChars = Math.max(1, maxBufferedChars);
+        return this;
+    }
+
+    /**
+     * 设置事件队列容量，需在流开始前设置。
+     *
+     * @param queueCapacity 队列容量
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBufferedStreamHandler queueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        return this;
+    }
+
+    /**
+     * 设置队列满时内容/推理增量的处理策略，默认阻塞。
+     *
+     * @param overflowPolicy 处理策略
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBufferedStreamHandler overflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.BLOCK : overflowPolicy;
+        return this;
+    }
+
+    /**
+     * 是否转发逐分片的onChunk回调，默认不转发（每个分片一次回调与合并投递的目的相悖）。
+     *
+     * @param forwardChunks 是否转发
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBufferedStreamHandler forwardChunks(boolean forwardChunks) {
+        this.forwardChunks = forwardChunks;
+        return this;
+    }
+
+    /**
+     * 设置投递使用的执行器，默认使用共享的守护线程池。
+     *
+     * @param executor 执行器
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpBufferedStreamHandler executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 等待所有事件投递完成（onComplete或onError已回调给实际处理器）。
+     *
+     * @param timeout 超时时间
+     * @param unit 时间单位
+     * @return 是否在超时前投递完成
+     * @throws InterruptedException 等待被中断
+     */
+    public boolean awaitDelivered(long timeout, TimeUnit unit) throws InterruptedException {
+        return delivered.await(timeout, unit);
+    }
+
+    /**
+     * 获取因队列满被丢弃的增量数量。
+     *
+     * @return 丢弃数量
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 获取实际处理器在投递过程中抛出的异常。
+     *
+     * @return 异常，没有则返回null
+     */
+    public Throwable deliveryError() {
+        return deliveryError;
+    }
+
+    @Override
+    public void onStart(AiHttpRequest request) {
+        if (!used.compareAndSet(false, true)) {
+            throw new IllegalStateException("AiHttpBufferedStreamHandler只能用于一次流式调用，请为每次调用重新包装");
+        }
+        enqueue(new Event(EventType.START, null, null, request));
+    }
+
+    @Override
+    public void onStartReasoning(AiHttpChunk chunk) {
+        enqueue(new Event(EventType.START_REASONING, null, chunk, null));
+    }
+
+    @Override
+    public void onReasoning(String delta, AiHttpChunk chunk) {
+        enqueue(new Event(EventType.REASONING, delta, chunk, null));
+    }
+
+    @Override
+    public void onEndReasoning(AiHttpChunk chunk) {
+        enqueue(new Event(EventType.END_REASONING, null, chunk, null));
+    }
+
+    @Override
+    public void onStartContent(AiHttpChunk chunk) {
+        enqueue(new Event(EventType.START_CONTENT, null, chunk, null));
+    }
+
+    @Override
+    public void onContent(String delta, AiHttpChunk chunk) {
+        enqueue(new Event(EventType.CONTENT, delta, chunk, null));
+    }
+
+    @Override
+    public void onEndContent(AiHttpChunk chunk) {
+        enqueue(new Event(EventType.END_CONTENT, null, chunk, null));
+    }
+
+    @Override
+    public void onToolCall(AiHttpToolCallDelta delta, AiHttpChunk chunk) {
+        enqueue(new Event(EventType.TOOL_CALL, null, chunk, delta));
+    }
+
+    @Override
+    public void onToolArgument(AiHttpToolArgumentDelta delta, AiHttpChunk chunk) {
+        enqueue(new Event(EventType.TOOL_ARGUMENT, null, chunk, delta));
+    }
+
+    @Override
+    public void onChunk(AiHttpChunk chunk) {
+        if (forwardChunks) {
+            enqueue(new Event(EventType.CHUNK, null, chunk, null));
+        }
+    }
+
+    @Override
+    public void onComplete(AiHttpResponse response) {
+        enqueue(new Event(EventType.COMPLETE, null, null, response));
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        enqueue(new Event(EventType.ERROR, null, null, throwable));
+    }
+
+    private void enqueue(Event event) {
+        ensureStarted();
+        if (delivered.getCount() == 0) {
+            // 已经投递过完成/错误事件，后续事件忽略
+            return;
+        }
+        boolean droppable = event.type() == EventType.CONTENT || event.type() == EventType.REASONING
+                || event.type() == EventType.CHUNK;
+        if (droppable && overflowPolicy == OverflowPolicy.DROP) {
+            if (!queue.offer(event)) {
+                dropped.increment();
+            }
+            return;
+        }
+        try {
+            // 投递循环可能已经退出（如投递线程被中断），不能在put上无限阻塞读取线程
+            while (!queue.offer(event, OFFER_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (delivered.getCount() == 0) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("投递流式事件时被中断", e);
+        }
+    }
+
+    private void ensureStarted() {
+        if (started.compareAndSet(false, true)) {
+            queue = new ArrayBlockingQueue<>(queueCapacity);
+            Executor currentExecutor = executor != null ? executor : getDefaultExecutor();
+            currentExecutor.execute(this::deliverLoop);
+        }
+    }
+
+    /**
+     * 投递循环：按顺序取出事件，合并连续的同类增量后回调实际处理器，遇到完成/错误事件后退出。
+     */
+    private void deliverLoop() {
+        Event pending = null;
+        try {
+            while (true) {
+                Event event = pending != null ? pending : queue.take();
+                pending = null;
+                if (event.type() == EventType.CONTENT || event.type() == EventType.REASONING) {
+                    pending = deliverMerged(event);
+                    continue;
+                }
+                if (deliver(event)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            delivered.countDown();
+        }
+    }
+
+    /**
+     * 合并同类增量并投递。
+     *
+     * @return 合并过程中取到的下一个不同类事件，没有则返回null
+     */
+    private Event deliverMerged(Event first) throws InterruptedException {
+        StringBuilder merged = null;
+        AiHttpChunk lastChunk = first.chunk();
+        int length = first.text() == null ? 0 : first.text().length();
+        Event next = null;
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (length < maxBufferedChars) {
+            long remaining = deadline - System.nanoTime();
+            Event candidate = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (candidate == null) {
+                break;
+            }
+            if (candidate.type() != first.type()) {
+                next = candidate;
+                break;
+            }
+            if (merged == null) {
+                merged = new StringBuilder(Math.max(maxBufferedChars, 16));
+                if (first.text() != null) {
+                    merged.append(first.text());
+                }
+            }
+            if (candidate.text() != null) {
+                merged.append(candidate.text());
+                length += candidate.text().length();
+            }
+            lastChunk = candidate.chunk();
+        }
+        String text = merged == null ? first.text() : merged.toString();
+        invoke(() -> {
+            if (first.type() == EventType.CONTENT) {
+                delegate.onContent(text, lastChunk);
+            } else {
+                delegate.onReasoning(text, lastChunk);
+            }
+        });
+        return next;
+    }
+
+    /**
+     * 投递单个事件。
+     *
+     * @return 是否为结束事件
+     */
+    private boolean deliver(Event event) {
+        switch (event.type()) {
+            case START -> invoke(() -> delegate.onStart((AiHttpRequest) event.payload()));
+            case START_REASONING -> invoke(() -> delegate.onStartReasoning(event.chunk()));
+            case END_REASONING -> invoke(() -> delegate.onEndReasoning(event.chunk()));
+            case START_CONTENT -> invoke(() -> delegate.onStartContent(event.chunk()));
+            case END_CONTENT -> invoke(() -> delegate.onEndContent(event.chunk()));
+            case TOOL_CALL -> invoke(() -> delegate.onToolCall((AiHttpToolCallDelta) event.payload(), event.chunk()));
+            case TOOL_ARGUMENT -> invoke(() -> delegate.onToolArgument((AiHttpToolArgumentDelta) event.payload(), event.chunk()));
+            case CHUNK -> invoke(() -> delegate.onChunk(event.chunk()));
+            case COMPLETE -> {
+                invoke(() -> delegate.onComplete((AiHttpResponse) event.payload()));
+                return true;
+            }
+            case ERROR -> {
+                invoke(() -> delegate.onError((Throwable) event.payload()));
+                return true;
+            }
+            default -> {
+            }
+        }
+        return false;
+    }
+
+    private void invoke(Runnable callback) {
+        try {
+            callback.run();
+        } catch (Throwable e) {
+            // 处理器异常不能中断投递，否则后续的结束事件会丢失
+            if (deliveryError == null) {
+                deliveryError = e;
+            }
+        }
+    }
+
+    private static Executor getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            synchronized (AiHttpBufferedStreamHandler.class) {
+                if (defaultExecutor == null) {
+                    defaultExecutor = Executors.newCachedThreadPool(r -> {
+                        Thread t = new Thread(r, "ai-http-stream-delivery");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+            }
+        }
+        return defaultExecutor;
+    }
+}
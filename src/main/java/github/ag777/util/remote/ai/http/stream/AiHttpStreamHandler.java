@@ -3,6 +3,7 @@ package github.ag777.util.remote.ai.http.stream;
 import github.ag777.util.remote.ai.http.model.AiHttpChunk;
 import github.ag777.util.remote.ai.http.model.AiHttpRequest;
 import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+import github.ag777.util.remote.ai.http.model.AiHttpToolArgumentDelta;
 import github.ag777.util.remote.ai.http.model.AiHttpToolCallDelta;
 
 /**
@@ -100,6 +101,18 @@ public interface AiHttpStreamHandler {
     default void onToolCall(AiHttpToolCallDelta delta, AiHttpChunk chunk) {
     }
 
+    /**
+     * 当工具调用参数的某个顶层字段有进展时调用（在对应的 {@link #onToolCall} 之后）。
+     * 
+     * <p>字符串字段随参数到达多次回调增量，最后一次 {@code complete} 为true；其他类型的字段完整后回调一次。
+     * 可据此在模型输出完整个调用之前开始执行工具或展示写入内容。
+     * 
+     * @param delta 参数字段增量
+     * @param chunk 包含该参数片段的完整分片对象
+     */
+    default void onToolArgument(AiHttpToolArgumentDelta delta, AiHttpChunk chunk) {
+    }
+
     /**
      * 当收到任意分片时调用（无论分片内容）。
      * 
@@ -0,0 +1,304 @@
+package github.ag777.util.remote.ai.http.support;
+
+import github.ag777.util.gson.GsonUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 增量JSON对象解析器。
+ *
+ * <p>用于边接收边解析工具调用参数（一个JSON对象），每次 {@link #feed} 只处理新到达的文本，不回溯。
+ * 顶层字段中的字符串值会随到达逐段解码并回调，其他类型的值（数字、布尔、null、嵌套对象和数组）在完整后一次性回调。
+ * 解析出的值与 {@link GsonUtils#toMap(String)} 的结果保持一致。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * AiHttpIncrementalJsonParser parser = new AiHttpIncrementalJsonParser();
+ * parser.feed("{\"path\":\"a.txt\",\"con", listener);
+ * parser.feed("tent\":\"hello\"}", listener);
+ * parser.isComplete(); // true
+ * parser.values();     // {path=a.txt, content=hello}
+ * }</pre>
+ *
+ * <p>非线程安全。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpIncrementalJsonParser {
+
+    /**
+     * 字段事件监听器。
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * 顶层字段有新进展时回调。
+         *
+         * @param field 字段名
+         * @param valueDelta 字符串值本次新增的部分，非字符串值为null
+         * @param value 字段完整后的值，未完成时为null
+         * @param complete 字段是否已完整
+         */
+        void onField(String field, String valueDelta, Object value, boolean complete);
+    }
+
+    private enum State {
+        BEFORE_OBJECT, KEY_OR_END, KEY_START, KEY, COLON, VALUE_START, STRING_VALUE, RAW_VALUE, AFTER_VALUE, DONE, ERROR
+    }
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private State state = State.BEFORE_OBJECT;
+    private final StringBuilder key = new StringBuilder();
+    private final StringBuilder value = new StringBuilder();
+    private String currentField;
+
+    // 字符串转义状态：escape为true表示刚读到反斜杠，unicodeLength>=0表示正在读\\uXXXX
+    private boolean escape;
+    private int unicodeLength = -1;
+    private int unicodeValue;
+
+    // 非字符串值状态
+    private int rawDepth;
+    private boolean rawInString;
+    private boolean rawEscape;
+
+    private String error;
+
+    /**
+     * 输入一段新到达的文本。
+     *
+     * @param text 文本增量
+     * @param listener 字段监听器，为null时只解析不回调
+     */
+    public void feed(CharSequence text, Listener listener) {
+        if (text == null || state == State.ERROR) {
+            return;
+        }
+        int deltaStart = state == State.STRING_VALUE ? value.length() : -1;
+        for (int i = 0; i < text.length() && state != State.ERROR; i++) {
+            char c = text.charAt(i);
+            switch (state) {
+                case BEFORE_OBJECT -> {
+                    if (c == '{') {
+                        state = State.KEY_OR_END;
+                    } else if (!isWhitespace(c)) {
+                        fail("参数不是JSON对象");
+                    }
+                }
+                case KEY_OR_END, KEY_START -> {
+                    if (c == '"') {
+                        key.setLength(0);
+                        state = State.KEY;
+                    } else if (c == '}' && state == State.KEY_OR_END) {
+                        state = State.DONE;
+                    } else if (!isWhitespace(c)) {
+                        fail("期望字段名，实际为: " + c);
+                    }
+                }
+                case KEY -> {
+                    if (readStringChar(c, key)) {
+                        currentField = key.toString();
+                        state = State.COLON;
+                    }
+                }
+                case COLON -> {
+                    if (c == ':') {
+                        state = State.VALUE_START;
+                    } else if (!isWhitespace(c)) {
+                        fail("字段" + currentField + "后缺少冒号");
+                    }
+                }
+                case VALUE_START -> {
+                    if (isWhitespace(c)) {
+                        continue;
+                    }
+                    value.setLength(0);
+                    if (c == '"') {
+                        state = State.STRING_VALUE;
+                        deltaStart = 0;
+                    } else {
+                        value.append(c);
+                        rawDepth = c == '{' || c == '[' ? 1 : 0;
+                        rawInString = false;
+                        rawEscape = false;
+                        state = State.RAW_VALUE;
+                    }
+                }
+                case STRING_VALUE -> {
+                    if (readStringChar(c, value)) {
+                        String delta = value.substring(Math.max(0, deltaStart));
+                        String result = value.toString();
+                        values.put(currentField, result);
+                        if (listener != null) {
+                            listener.onField(currentField, delta, result, true);
+                        }
+                        deltaStart = -1;
+                        state = State.AFTER_VALUE;
+                    }
+                }
+                case RAW_VALUE -> {
+                    if (rawDepth == 0 && (isWhitespace(c) || c == ',' || c == '}')) {
+                        // 标量值以分隔符结束，分隔符交给AFTER_VALUE处理
+                        completeRaw(listener);
+                        i--;
+                    } else {
+                        value.append(c);
+                        if (rawDepth > 0 && readRawChar(c)) {
+                            completeRaw(listener);
+                        }
+                    }
+                }
+                case AFTER_VALUE -> {
+                    if (c == ',') {
+                        state = State.KEY_START;
+                    } else if (c == '}') {
+                        state = State.DONE;
+                    } else if (!isWhitespace(c)) {
+                        fail("字段" + currentField + "后期望逗号或右括号，实际为: " + c);
+                    }
+                }
+                case DONE -> {
+                    if (!isWhitespace(c)) {
+                        fail("JSON对象结束后存在多余内容");
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        if (state == State.STRING_VALUE && listener != null && deltaStart >= 0 && value.length() > deltaStart) {
+            listener.onField(currentField, value.substring(deltaStart), null, false);
+        }
+    }
+
+    /**
+     * JSON对象是否已完整解析。
+     *
+     * @return 是否完整
+     */
+    public boolean isComplete() {
+        return state == State.DONE;
+    }
+
+    /**
+     * 获取解析错误。
+     *
+     * @return 错误信息，没有错误时为null
+     */
+    public String error() {
+        return error;
+    }
+
+    /**
+     * 获取已完整解析的顶层字段。
+     *
+     * @return 字段值，按出现顺序排列
+     */
+    public Map<String, Object> values() {
+        return values;
+    }
+
+    /**
+     * 读取字符串中的一个字符并解码到目标，遇到结束引号时返回true。
+     */
+    private boolean readStringChar(char c, StringBuilder target) {
+        if (unicodeLength >= 0) {
+            int digit = Character.digit(c, 16);
+            if (digit < 0) {
+                fail("非法的unicode转义");
+                return false;
+            }
+            unicodeValue = (unicodeValue << 4) | digit;
+            if (++unicodeLength == 4) {
+                target.append((char) unicodeValue);
+                unicodeLength = -1;
+            }
+            return false;
+        }
+        if (escape) {
+            escape = false;
+            switch (c) {
+                case '"', '\\', '/' -> target.append(c);
+                case 'b' -> target.append('\b');
+                case 'f' -> target.append('\f');
+                case 'n' -> target.append('\n');
+                case 'r' -> target.append('\r');
+                case 't' -> target.append('\t');
+                case 'u' -> {
+                    unicodeLength = 0;
+                    unicodeValue = 0;
+                }
+                default -> fail("非法的转义字符: " + c);
+            }
+            return false;
+        }
+        if (c == '\\') {
+            escape = true;
+            return false;
+        }
+        if (c == '"') {
+            return true;
+        }
+        target.append(c);
+        return false;
+    }
+
+    /**
+     * 跟踪嵌套对象/数组的括号深度，回到顶层时返回true。
+     */
+    private boolean readRawChar(char c) {
+        if (rawInString) {
+            if (rawEscape) {
+                rawEscape = false;
+            } else if (c == '\\') {
+                rawEscape = true;
+            } else if (c == '"') {
+                rawInString = false;
+            }
+            return false;
+        }
+        switch (c) {
+            case '"' -> rawInString = true;
+            case '{', '[' -> rawDepth++;
+            case '}', ']' -> rawDepth--;
+            default -> {
+            }
+        }
+        return rawDepth == 0;
+    }
+
+    private void completeRaw(Listener listener) {
+        String raw = value.toString();
+        Object result;
+        switch (raw) {
+            case "true" -> result = Boolean.TRUE;
+            case "false" -> result = Boolean.FALSE;
+            case "null" -> result = null;
+            default -> {
+                try {
+                    // 借助toMap转换，保证数字、嵌套结构的类型与整体解析一致
+                    result = GsonUtils.get().toMap("{\"v\":" + raw + "}").get("v");
+                } catch (Exception e) {
+                    fail("字段" + currentField + "的值不合法: " + raw);
+                    return;
+                }
+            }
+        }
+        values.put(currentField, result);
+        if (listener != null) {
+            listener.onField(currentField, null, result, true);
+        }
+        state = State.AFTER_VALUE;
+    }
+
+    private void fail(String message) {
+        error = message;
+        state = State.ERROR;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+}
@@ -1,7 +1,5 @@
 package github.ag777.util.remote.ai.http.support;
 
-import com.google.gson.JsonObject;
-import github.ag777.util.gson.GsonUtils;
 import github.ag777.util.remote.ai.http.model.*;
 import lombok.Data;
 
@@ -9,6 +7,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * 流式响应累积器。
@@ -16,7 +15,7 @@ import java.util.Map;
  * <p>用于在流式响应过程中累积和组装最终响应内容。该类负责：
  * <ul>
  * <li>累积文本内容和推理内容</li>
- * <li>组装工具调用信息</li>
+ * <li>组装工具调用信息，工具参数边接收边增量解析</li>
  * <li>维护完成状态和原始响应数据</li>
  * </ul>
  * 
@@ -38,7 +37,7 @@ public class AiHttpResponseAccumulator {
     private final StringBuilder reasoning = new StringBuilder();
     private final Map<Integer, ToolBuffer> toolBuffers = new LinkedHashMap<>();
     private String finishReason;
-    private JsonObject lastRaw;
+    private AiHttpChunk lastRawChunk;
 
     /**
      * 追加流式响应分片到累积器。
@@ -46,6 +45,16 @@ public class AiHttpResponseAccumulator {
      * @param chunk 流式响应分片，如果为null则忽略
      */
     public void append(AiHttpChunk chunk) {
+        append(chunk, null);
+    }
+
+    /**
+     * 追加流式响应分片到累积器，并把工具参数的字段进展回调给监听器。
+     * 
+     * @param chunk 流式响应分片，如果为null则忽略
+     * @param argumentListener 工具参数字段监听器，为null时不回调
+     */
+    public void append(AiHttpChunk chunk, Consumer<AiHttpToolArgumentDelta> argumentListener) {
         if (chunk == null) {
             return;
         }
@@ -72,6 +81,15 @@ public class AiHttpResponseAccumulator {
                     }
                     if (function.argumentsDelta() != null) {
                         buffer.argumentsText.append(function.argumentsDelta());
+                        buffer.parser.feed(function.argumentsDelta(), argumentListener == null ? null
+                                : (field, valueDelta, value, complete) -> argumentListener.accept(new AiHttpToolArgumentDelta()
+                                        .index(buffer.index)
+                                        .id(buffer.id)
+                                        .name(buffer.functionName)
+                                        .field(field)
+                                        .valueDelta(valueDelta)
+                                        .value(value)
+                                        .complete(complete)));
                     }
                 }
                 if (delta.extra() != null && !delta.extra().isEmpty()) {
@@ -82,8 +100,8 @@ public class AiHttpResponseAccumulator {
         if (chunk.finishReason() != null) {
             finishReason = chunk.finishReason();
         }
-        if (chunk.raw() != null) {
-            lastRaw = chunk.raw();
+        if (chunk.hasRaw()) {
+            lastRawChunk = chunk;
         }
     }
 
@@ -96,15 +114,19 @@ public class AiHttpResponseAccumulator {
         List<AiHttpToolCall> toolCalls = new ArrayList<>(toolBuffers.size());
         for (ToolBuffer buffer : toolBuffers.values()) {
             String argumentsText = buffer.argumentsText.toString();
-            Map<String, Object> arguments = parseArguments(argumentsText);
+            AiHttpToolFunction function = new AiHttpToolFunction()
+                    .name(buffer.functionName)
+                    .argumentsText(argumentsText);
+            if (buffer.parser.isComplete()) {
+                function.arguments(new LinkedHashMap<>(buffer.parser.values()));
+            } else if (!argumentsText.isBlank()) {
+                function.argumentsError(buffer.parser.error() != null ? buffer.parser.error() : "参数JSON不完整");
+            }
             toolCalls.add(new AiHttpToolCall()
                     .index(buffer.index)
                     .id(buffer.id)
                     .type(buffer.type)
-                    .function(new AiHttpToolFunction()
-                            .name(buffer.functionName)
-                            .argumentsText(argumentsText)
-                            .arguments(arguments)));
+                    .function(function));
             if (!buffer.extra.isEmpty()) {
                 toolCalls.get(toolCalls.size() - 1).extra().putAll(buffer.extra);
             }
@@ -114,24 +136,7 @@ public class AiHttpResponseAccumulator {
                 .reasoning(reasoning.toString())
                 .toolCalls(toolCalls)
                 .finishReason(finishReason)
-                .raw(lastRaw);
-    }
-
-    /**
-     * 解析工具调用参数文本为Map对象。
-     * 
-     * @param argumentsText 参数文本，JSON格式
-     * @return 解析后的参数Map，解析失败时返回空Map
-     */
-    private Map<String, Object> parseArguments(String argumentsText) {
-        if (argumentsText == null || argumentsText.isEmpty()) {
-            return new LinkedHashMap<>();
-        }
-        try {
-            return GsonUtils.get().toMap(argumentsText);
-        } catch (Exception ignored) {
-            return new LinkedHashMap<>();
-        }
+                .raw(lastRawChunk == null ? null : lastRawChunk.raw());
     }
 
     /**
@@ -143,6 +148,7 @@ public class AiHttpResponseAccumulator {
         private String type = "function";
         private String functionName;
         private final StringBuilder argumentsText = new StringBuilder();
+        private final AiHttpIncrementalJsonParser parser = new AiHttpIncrementalJsonParser();
         private final Map<String, Object> extra = new LinkedHashMap<>();
 
         /**
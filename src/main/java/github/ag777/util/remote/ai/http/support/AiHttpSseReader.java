@@ -0,0 +1,177 @@
+package github.ag777.util.remote.ai.http.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 基于字节缓冲区的SSE读取器。
+ *
+ * <p>直接在UTF-8字节上切分行并识别 {@code data:} 前缀，不经过 {@code Reader}，
+ * 也不为每一行创建String，数据负载以 (buffer, offset, length) 的形式交给回调，
+ * 回调返回后缓冲区内容可能被覆盖，回调中不能持有该数组。
+ *
+ * <p>遇到 {@code data: [DONE]} 或回调返回false时停止读取。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * new AiHttpSseReader(inputStream).read((buf, off, len) -> {
+ *     AiHttpChunk chunk = provider.parseStreamChunk(buf, off, len);
+ *     return true;
+ * });
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpSseReader {
+    private static final byte[] DATA_PREFIX = {'d', 'a', 't', 'a', ':'};
+    private static final byte[] DONE = {'[', 'D', 'O', 'N', 'E', ']'};
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final InputStream inputStream;
+    private byte[] buffer;
+    // 未处理数据的起止位置
+    private int start;
+    private int end;
+
+    /**
+     * SSE数据回调。
+     */
+    @FunctionalInterface
+    public interface DataHandler {
+        /**
+         * 收到一条data负载。
+         *
+         * @param buffer 字节缓冲区（仅在回调期间有效）
+         * @param offset 负载起始位置
+         * @param length 负载长度
+         * @return 是否继续读取
+         * @throws Exception 处理失败时抛出，会中止读取
+         */
+        boolean onData(byte[] buffer, int offset, int length) throws Exception;
+    }
+
+    /**
+     * 创建SSE读取器。
+     *
+     * @param inputStream 响应输入流，由调用方负责关闭
+     */
+    public AiHttpSseReader(InputStream inputStream) {
+        this(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * 创建SSE读取器。
+     *
+     * @param inputStream 响应输入流，由调用方负责关闭
+     * @param bufferSize 初始缓冲区大小，单行超过该大小时会自动扩容
+     */
+    public AiHttpSseReader(InputStream inputStream, int bufferSize) {
+        this.inputStream = inputStream;
+        this.buffer = new byte[Math.max(bufferSize, 64)];
+    }
+
+    /**
+     * 读取整个事件流。
+     *
+     * @param handler 数据回调
+     * @throws Exception 读取或回调处理失败
+     */
+    public void read(DataHandler handler) throws Exception {
+        int scan = start;
+        while (true) {
+            int newline = indexOf((byte) '\n', scan, end);
+            if (newline >= 0) {
+                int lineEnd = newline;
+                if (lineEnd > start && buffer[lineEnd - 1] == '\r') {
+                    lineEnd--;
+                }
+                boolean proceed = handleLine(start, lineEnd, handler);
+                start = newline + 1;
+                scan = start;
+                if (!proceed) {
+                    return;
+                }
+                continue;
+            }
+            // 当前行不完整，记录已扫描的长度，读入更多数据后从断点继续查找换行符
+            int scanned = end - start;
+            if (!fill()) {
+                // 流结束，处理最后一行（没有换行符）
+                if (end > start) {
+                    int lineEnd = end;
+                    if (buffer[lineEnd - 1] == '\r') {
+                        lineEnd--;
+                    }
+                    handleLine(start, lineEnd, handler);
+                }
+                return;
+            }
+            scan = start + scanned;
+        }
+    }
+
+    private boolean handleLine(int lineStart, int lineEnd, DataHandler handler) throws Exception {
+        if (!startsWith(lineStart, lineEnd, DATA_PREFIX)) {
+            // 空行、注释和其它字段（event/id/retry）都忽略
+            return true;
+        }
+        int payloadStart = lineStart + DATA_PREFIX.length;
+        if (payloadStart < lineEnd && buffer[payloadStart] == ' ') {
+            payloadStart++;
+        }
+        int length = lineEnd - payloadStart;
+        if (length == DONE.length && startsWith(payloadStart, lineEnd, DONE)) {
+            return false;
+        }
+        if (length == 0) {
+            return true;
+        }
+        return handler.onData(buffer, payloadStart, length);
+    }
+
+    /**
+     * 读入更多数据，必要时先把未处理的数据移到缓冲区头部或扩容。
+     *
+     * @return false表示流已结束
+     */
+    private boolean fill() throws IOException {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+        if (end == buffer.length) {
+            byte[] larger = new byte[buffer.length << 1];
+            System.arraycopy(buffer, 0, larger, 0, end);
+            buffer = larger;
+        }
+        int read = inputStream.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            return false;
+        }
+        end += read;
+        return true;
+    }
+
+    private int indexOf(byte target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean startsWith(int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer[from + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,521 @@
+package github.ag777.util.remote.ai.http.support;
+
+import github.ag777.util.remote.ai.http.model.AiHttpChunk;
+import github.ag777.util.remote.ai.http.model.AiHttpToolCallDelta;
+import github.ag777.util.remote.ai.http.model.AiHttpToolFunctionDelta;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OpenAI兼容流式分片的字节级解码器。
+ *
+ * <p>直接在UTF-8字节上扫描JSON，只提取
+ * {@code choices[0].delta.content / reasoning_content / reasoning / tool_calls}
+ * 和 {@code choices[0].finish_reason}，字段名按字节比较，不关心的字段原地跳过，
+ * 不会为它们创建任何对象；没有转义字符的字符串直接从字节解码，不经过中间缓冲。
+ *
+ * <p>解码结果不包含原始JSON，调用方可以通过 {@link AiHttpChunk#rawPayload(byte[], int, int)}
+ * 附上负载字节，由 {@link AiHttpChunk#raw()} 按需解析；{@link #needsRaw(AiHttpChunk)} 可判断该分片
+ * 是否携带了finish_reason或usage等需要保留原文的信息。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpStreamChunkDecoder {
+    private static final byte[] CHOICES = ascii("choices");
+    private static final byte[] DELTA = ascii("delta");
+    private static final byte[] CONTENT = ascii("content");
+    private static final byte[] REASONING_CONTENT = ascii("reasoning_content");
+    private static final byte[] REASONING = ascii("reasoning");
+    private static final byte[] TOOL_CALLS = ascii("tool_calls");
+    private static final byte[] FINISH_REASON = ascii("finish_reason");
+    private static final byte[] USAGE = ascii("usage");
+    private static final byte[] INDEX = ascii("index");
+    private static final byte[] ID = ascii("id");
+    private static final byte[] TYPE = ascii("type");
+    private static final byte[] FUNCTION = ascii("function");
+    private static final byte[] NAME = ascii("name");
+    private static final byte[] ARGUMENTS = ascii("arguments");
+
+    private final byte[] data;
+    private final int end;
+    private int pos;
+    // 当前key在data中的位置（不含引号）
+    private int keyStart;
+    private int keyEnd;
+    private boolean hasUsage;
+
+    /**
+     * 创建解码器，每个分片使用一个实例。
+     *
+     * @param data 字节数组
+     * @param offset 分片起始位置
+     * @param length 分片长度
+     */
+    public AiHttpStreamChunkDecoder(byte[] data, int offset, int length) {
+        this.data = data;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * 解码分片。
+     *
+     * @return 分片对象（不含raw）
+     * @throws IllegalArgumentException JSON格式错误
+     */
+    public AiHttpChunk decode() {
+        AiHttpChunk chunk = new AiHttpChunk();
+        expect('{');
+        if (!tryConsume('}')) {
+            do {
+                readKey();
+                expect(':');
+                if (keyIs(CHOICES)) {
+                    readChoices(chunk);
+                } else if (keyIs(USAGE)) {
+                    skipWhitespace();
+                    if (peek() != 'n') {
+                        hasUsage = true;
+                    }
+                    skipValue();
+                } else {
+                    skipValue();
+                }
+            } while (tryConsume(','));
+            expect('}');
+        }
+        return chunk;
+    }
+
+    /**
+     * 该分片是否携带了需要保留原文的信息（finish_reason或usage）。
+     * 需在 {@link #decode()} 之后调用。
+     *
+     * @param chunk decode返回的分片
+     * @return 是否需要解析原始JSON
+     */
+    public boolean needsRaw(AiHttpChunk chunk) {
+        return hasUsage || chunk.isFinished();
+    }
+
+    private void readChoices(AiHttpChunk chunk) {
+        skipWhitespace();
+        if (peek() != '[') {
+            skipValue();
+            return;
+        }
+        pos++;
+        if (tryConsume(']')) {
+            return;
+        }
+        boolean first = true;
+        do {
+            skipWhitespace();
+            if (first && peek() == '{') {
+                readChoice(chunk);
+            } else {
+                skipValue();
+            }
+            first = false;
+        } while (tryConsume(','));
+        expect(']');
+    }
+
+    private void readChoice(AiHttpChunk chunk) {
+        expect('{');
+        if (tryConsume('}')) {
+            return;
+        }
+        do {
+            readKey();
+            expect(':');
+            if (keyIs(FINISH_REASON)) {
+                chunk.finishReason(readString());
+            } else if (keyIs(DELTA)) {
+                readDelta(chunk);
+            } else {
+                skipValue();
+            }
+        } while (tryConsume(','));
+        expect('}');
+    }
+
+    private void readDelta(AiHttpChunk chunk) {
+        skipWhitespace();
+        if (peek() != '{') {
+            skipValue();
+            return;
+        }
+        pos++;
+        if (tryConsume('}')) {
+            return;
+        }
+        String reasoningContent = null;
+        String reasoning = null;
+        do {
+            readKey();
+            expect(':');
+            if (keyIs(CONTENT)) {
+                chunk.content(readString());
+            } else if (keyIs(REASONING_CONTENT)) {
+                reasoningContent = readString();
+            } else if (keyIs(REASONING)) {
+                reasoning = readString();
+            } else if (keyIs(TOOL_CALLS)) {
+                chunk.toolCalls(readToolCalls());
+            } else {
+                skipValue();
+            }
+        } while (tryConsume(','));
+        expect('}');
+        chunk.reasoning(reasoningContent != null ? reasoningContent : reasoning);
+    }
+
+    private List<AiHttpToolCallDelta> readToolCalls() {
+        List<AiHttpToolCallDelta> items = new ArrayList<>();
+        skipWhitespace();
+        if (peek() != '[') {
+            skipValue();
+            return items;
+        }
+        pos++;
+        if (tryConsume(']')) {
+            return items;
+        }
+        do {
+            skipWhitespace();
+            if (peek() == '{') {
+                items.add(readToolCall());
+            } else {
+                skipValue();
+            }
+        } while (tryConsume(','));
+        expect(']');
+        return items;
+    }
+
+    private AiHttpToolCallDelta readToolCall() {
+        AiHttpToolCallDelta delta = new AiHttpToolCallDelta();
+        expect('{');
+        if (tryConsume('}')) {
+            return delta;
+        }
+        do {
+            readKey();
+            expect(':');
+            if (keyIs(INDEX)) {
+                delta.index(readInteger());
+            } else if (keyIs(ID)) {
+                delta.id(readString());
+            } else if (keyIs(TYPE)) {
+                delta.type(readString());
+            } else if (keyIs(FUNCTION)) {
+                delta.function(readFunction());
+            } else {
+                skipValue();
+            }
+        } while (tryConsume(','));
+        expect('}');
+        return delta;
+    }
+
+    private AiHttpToolFunctionDelta readFunction() {
+        skipWhitespace();
+        if (peek() != '{') {
+            skipValue();
+            return null;
+        }
+        pos++;
+        AiHttpToolFunctionDelta function = new AiHttpToolFunctionDelta();
+        if (tryConsume('}')) {
+            return function;
+        }
+        do {
+            readKey();
+            expect(':');
+            if (keyIs(NAME)) {
+                function.name(readString());
+            } else if (keyIs(ARGUMENTS)) {
+                function.argumentsDelta(readString());
+            } else {
+                skipValue();
+            }
+        } while (tryConsume(','));
+        expect('}');
+        return function;
+    }
+
+    // ---------------- 基础扫描 ----------------
+
+    /**
+     * 读取对象的key，只记录位置，不创建String。
+     */
+    private void readKey() {
+        skipWhitespace();
+        if (peek() != '"') {
+            throw error("应为字段名");
+        }
+        keyStart = pos + 1;
+        skipString();
+        keyEnd = pos - 1;
+    }
+
+    private boolean keyIs(byte[] name) {
+        if (keyEnd - keyStart != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (data[keyStart + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取字符串值，null返回null，数字/布尔返回其文本，对象/数组跳过并返回null。
+     */
+    private String readString() {
+        skipWhitespace();
+        byte b = peek();
+        if (b == '"') {
+            return decodeString();
+        }
+        if (b == '{' || b == '[') {
+            skipValue();
+            return null;
+        }
+        int literalStart = pos;
+        skipLiteral();
+        if (pos - literalStart == 4 && data[literalStart] == 'n') {
+            return null;
+        }
+        return new String(data, literalStart, pos - literalStart, StandardCharsets.UTF_8);
+    }
+
+    private Integer readInteger() {
+        skipWhitespace();
+        byte b = peek();
+        if (b == '"') {
+            String text = decodeString();
+            try {
+                return Integer.valueOf(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        if (b != '-' && (b < '0' || b > '9')) {
+            skipValue();
+            return null;
+        }
+        boolean negative = b == '-';
+        if (negative) {
+            pos++;
+        }
+        int value = 0;
+        while (pos < end && data[pos] >= '0' && data[pos] <= '9') {
+            value = value * 10 + (data[pos] - '0');
+            pos++;
+        }
+        // 小数或指数部分直接忽略
+        skipLiteral();
+        return negative ? -value : value;
+    }
+
+    /**
+     * 解码当前位置的字符串，pos指向开头的引号。
+     */
+    private String decodeString() {
+        int contentStart = pos + 1;
+        int i = contentStart;
+        // 快速路径：没有转义字符时直接从字节构造
+        while (i < end) {
+            byte b = data[i];
+            if (b == '"') {
+                pos = i + 1;
+                return new String(data, contentStart, i - contentStart, StandardCharsets.UTF_8);
+            }
+            if (b == '\\') {
+                break;
+            }
+            i++;
+        }
+        StringBuilder sb = new StringBuilder(i - contentStart + 16);
+        int segmentStart = contentStart;
+        while (i < end) {
+            byte b = data[i];
+            if (b == '"') {
+                appendUtf8(sb, segmentStart, i);
+                pos = i + 1;
+                return sb.toString();
+            }
+            if (b != '\\') {
+                i++;
+                continue;
+            }
+            // UTF-8多字节序列中不会出现反斜杠，可以安全地按段解码
+            appendUtf8(sb, segmentStart, i);
+            if (i + 1 >= end) {
+                break;
+            }
+            byte escaped = data[i + 1];
+            switch (escaped) {
+                case 'n' -> sb.append('\n');
+                case 't' -> sb.append('\t');
+                case 'r' -> sb.append('\r');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    if (i + 6 > end) {
+                        throw error("非法的unicode转义");
+                    }
+                    sb.append((char) parseHex(i + 2));
+                    i += 4;
+                }
+                default -> sb.append((char) escaped);
+            }
+            i += 2;
+            segmentStart = i;
+        }
+        throw error("字符串未结束");
+    }
+
+    private void appendUtf8(StringBuilder sb, int from, int to) {
+        if (to <= from) {
+            return;
+        }
+        boolean ascii = true;
+        for (int i = from; i < to; i++) {
+            if (data[i] < 0) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            for (int i = from; i < to; i++) {
+                sb.append((char) data[i]);
+            }
+        } else {
+            sb.append(new String(data, from, to - from, StandardCharsets.UTF_8));
+        }
+    }
+
+    private int parseHex(int from) {
+        int value = 0;
+        for (int i = from; i < from + 4; i++) {
+            int digit = Character.digit(data[i], 16);
+            if (digit < 0) {
+                throw error("非法的unicode转义");
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private void skipValue() {
+        skipWhitespace();
+        byte b = peek();
+        if (b == '"') {
+            skipString();
+            return;
+        }
+        if (b != '{' && b != '[') {
+            skipLiteral();
+            return;
+        }
+        int depth = 0;
+        while (pos < end) {
+            b = data[pos];
+            if (b == '"') {
+                skipString();
+                continue;
+            }
+            if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 0) {
+                    pos++;
+                    return;
+                }
+            }
+            pos++;
+        }
+        throw error("对象或数组未结束");
+    }
+
+    /**
+     * 跳过字符串，pos指向开头的引号，结束后指向结尾引号之后。
+     */
+    private void skipString() {
+        int i = pos + 1;
+        while (i < end) {
+            byte b = data[i];
+            if (b == '\\') {
+                i += 2;
+                continue;
+            }
+            if (b == '"') {
+                pos = i + 1;
+                return;
+            }
+            i++;
+        }
+        throw error("字符串未结束");
+    }
+
+    private void skipLiteral() {
+        while (pos < end) {
+            byte b = data[pos];
+            if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < end) {
+            byte b = data[pos];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private byte peek() {
+        if (pos >= end) {
+            throw error("数据意外结束");
+        }
+        return data[pos];
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (peek() != c) {
+            throw error("应为 '" + c + "'");
+        }
+        pos++;
+    }
+
+    private boolean tryConsume(char c) {
+        skipWhitespace();
+        if (pos < end && data[pos] == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("流式分片JSON格式错误: " + message + "，位置: " + pos);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,160 @@
+package github.ag777.util.remote.ai.http.support;
+
+import github.ag777.util.remote.ai.http.model.AiHttpChunk;
+import github.ag777.util.remote.ai.http.model.AiHttpResponse;
+import github.ag777.util.remote.ai.http.model.AiHttpToolArgumentDelta;
+import github.ag777.util.remote.ai.http.model.AiHttpToolCall;
+import github.ag777.util.remote.ai.http.model.AiHttpToolCallDelta;
+import github.ag777.util.remote.ai.http.model.AiHttpToolFunctionDelta;
+import github.ag777.util.remote.ai.http.stream.AiHttpStreamHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式分片分发器。
+ *
+ * <p>把解析好的分片累积到 {@link AiHttpResponseAccumulator}，并按顺序转换为
+ * {@link AiHttpStreamHandler} 的各个回调，负责维护推理/内容段落的开始和结束事件。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * AiHttpStreamDispatcher dispatcher = new AiHttpStreamDispatcher(handler);
+ * for (AiHttpChunk chunk : chunks) {
+ *     dispatcher.dispatch(chunk);
+ * }
+ * AiHttpResponse response = dispatcher.complete();
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpStreamDispatcher {
+    private final AiHttpStreamHandler streamHandler;
+    private final AiHttpResponseAccumulator accumulator = new AiHttpResponseAccumulator();
+    private boolean reasoningStarted;
+    private boolean contentStarted;
+
+    /**
+     * 创建分发器。
+     *
+     * @param streamHandler 流式处理器，为null时只累积不回调
+     */
+    public AiHttpStreamDispatcher(AiHttpStreamHandler streamHandler) {
+        this.streamHandler = streamHandler;
+    }
+
+    /**
+     * 累积并分发一个分片。
+     *
+     * @param chunk 分片
+     */
+    public void dispatch(AiHttpChunk chunk) {
+        if (streamHandler == null) {
+            accumulator.append(chunk);
+            return;
+        }
+        List<AiHttpToolArgumentDelta> argumentDeltas = chunk.hasToolCalls() ? new ArrayList<>() : null;
+        accumulator.append(chunk, argumentDeltas == null ? null : argumentDeltas::add);
+        if (chunk.hasReasoning()) {
+            if (!reasoningStarted) {
+                streamHandler.onStartReasoning(chunk);
+                reasoningStarted = true;
+            }
+            streamHandler.onReasoning(chunk.reasoning(), chunk);
+        } else if (reasoningStarted) {
+            streamHandler.onEndReasoning(chunk);
+            reasoningStarted = false;
+        }
+        if (chunk.hasContent()) {
+            if (!contentStarted) {
+                streamHandler.onStartContent(chunk);
+                contentStarted = true;
+            }
+            streamHandler.onContent(chunk.content(), chunk);
+        } else if (contentStarted) {
+            streamHandler.onEndContent(chunk);
+            contentStarted = false;
+        }
+        if (chunk.hasToolCalls()) {
+            for (AiHttpToolCallDelta toolCall : chunk.toolCalls()) {
+                streamHandler.onToolCall(toolCall, chunk);
+            }
+            for (AiHttpToolArgumentDelta argumentDelta : argumentDeltas) {
+                streamHandler.onToolArgument(argumentDelta, chunk);
+            }
+        }
+        streamHandler.onChunk(chunk);
+    }
+
+    /**
+     * 结束流：补发未结束段落的结束事件，组装最终响应并回调onComplete。
+     *
+     * @return 组装完成的响应
+     */
+    public AiHttpResponse complete() {
+        return finish(accumulator.toResponse());
+    }
+
+    /**
+     * 把一个完整响应（如缓存结果）按推理、内容、工具调用的顺序转换为分片回放给处理器，
+     * 最后以原响应回调onComplete。
+     *
+     * @param response 完整响应
+     * @return 原响应
+     */
+    public AiHttpResponse replay(AiHttpResponse response) {
+        if (response.reasoning() != null && !response.reasoning().isEmpty()) {
+            dispatch(new AiHttpChunk().reasoning(response.reasoning()));
+        }
+        if (response.content() != null && !response.content().isEmpty()) {
+            dispatch(new AiHttpChunk().content(response.content()));
+        }
+        List<AiHttpToolCallDelta> toolCalls = new ArrayList<>();
+        if (response.toolCalls() != null) {
+            for (int i = 0; i < response.toolCalls().size(); i++) {
+                AiHttpToolCall toolCall = response.toolCalls().get(i);
+                AiHttpToolCallDelta delta = new AiHttpToolCallDelta()
+                        .index(toolCall.index() == null ? i : toolCall.index())
+                        .id(toolCall.id())
+                        .type(toolCall.type());
+                if (toolCall.hasFunction()) {
+                    delta.function(new AiHttpToolFunctionDelta()
+                            .name(toolCall.function().name())
+                            .argumentsDelta(toolCall.function().argumentsText()));
+                }
+                toolCalls.add(delta);
+            }
+        }
+        dispatch(new AiHttpChunk()
+                .toolCalls(toolCalls.isEmpty() ? null : toolCalls)
+                .finishReason(response.finishReason())
+                .raw(response.raw()));
+        return finish(response);
+    }
+
+    private AiHttpResponse finish(AiHttpResponse result) {
+        // 确保在流结束时调用结束回调
+        if (streamHandler != null) {
+            if (reasoningStarted) {
+                streamHandler.onEndReasoning(null);
+                reasoningStarted = false;
+            }
+            if (contentStarted) {
+                streamHandler.onEndContent(null);
+                contentStarted = false;
+            }
+            streamHandler.onComplete(result);
+        }
+        return result;
+    }
+
+    /**
+     * 获取内部累积器。
+     *
+     * @return 累积器
+     */
+    public AiHttpResponseAccumulator accumulator() {
+        return accumulator;
+    }
+}
@@ -0,0 +1,129 @@
+package github.ag777.util.remote.ai.http.support;
+
+import java.io.InputStream;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 通用的SSE流式处理引擎。
+ *
+ * <p>在 {@link AiHttpSseReader} 之上统一了流式读取的主循环：按字节切分事件、
+ * 交给可替换的分片解码器解码、检查取消、通知观察者（如指标采集）并分发给处理器，
+ * 新旧两套客户端共用同一条读取路径，不再各自维护逐行读取和JSON解析的逻辑。
+ *
+ * <p>解码器拿到的字节数组只在调用期间有效，需要保留的数据必须在解码时复制出来。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * new AiHttpStreamEngine<>(provider::parseStreamChunk)
+ *         .cancelWhen(future::isCancelled)
+ *         .observe(recorder::chunk)
+ *         .run(inputStream, dispatcher::dispatch);
+ * }</pre>
+ *
+ * @param <T> 解码后的分片类型
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpStreamEngine<T> {
+    private final ChunkDecoder<T> decoder;
+    private BooleanSupplier cancelled;
+    private Consumer<T> observer;
+
+    /**
+     * 分片解码器。
+     *
+     * @param <T> 解码后的分片类型
+     */
+    @FunctionalInterface
+    public interface ChunkDecoder<T> {
+        /**
+         * 解码一条data负载。
+         *
+         * @param data 字节缓冲区（仅在调用期间有效）
+         * @param offset 负载起始位置
+         * @param length 负载长度
+         * @return 解码后的分片，返回null时跳过该分片
+         * @throws Exception 解码失败
+         */
+        T decode(byte[] data, int offset, int length) throws Exception;
+    }
+
+    /**
+     * 分片处理器。
+     *
+     * @param <T> 分片类型
+     */
+    @FunctionalInterface
+    public interface ChunkHandler<T> {
+        /**
+         * 处理一个分片。
+         *
+         * @param chunk 解码后的分片
+         * @throws Exception 处理失败时抛出，会中止读取
+         */
+        void onChunk(T chunk) throws Exception;
+    }
+
+    /**
+     * 创建流式处理引擎。
+     *
+     * @param decoder 分片解码器
+     */
+    public AiHttpStreamEngine(ChunkDecoder<T> decoder) {
+        if (decoder == null) {
+            throw new IllegalArgumentException("decoder不能为空");
+        }
+        this.decoder = decoder;
+    }
+
+    /**
+     * 设置取消条件，每个分片解码前检查一次，满足时抛出 {@link CancellationException}。
+     *
+     * @param cancelled 取消条件，为null时不检查
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpStreamEngine<T> cancelWhen(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+        return this;
+    }
+
+    /**
+     * 设置分片观察者，在分片分发前调用，适合做指标采集。
+     *
+     * @param observer 观察者，为null时不通知
+     * @return 当前对象，支持链式调用
+     */
+    public AiHttpStreamEngine<T> observe(Consumer<T> observer) {
+        this.observer = observer;
+        return this;
+    }
+
+    /**
+     * 读取整个事件流，结束后关闭输入流。
+     *
+     * @param inputStream 响应输入流
+     * @param handler 分片处理器
+     * @throws CancellationException 满足取消条件
+     * @throws Exception 读取、解码或处理失败
+     */
+    public void run(InputStream inputStream, ChunkHandler<T> handler) throws Exception {
+        try (inputStream) {
+            new AiHttpSseReader(inputStream).read((buffer, offset, length) -> {
+                if (cancelled != null && cancelled.getAsBoolean()) {
+                    throw new CancellationException("请求已取消");
+                }
+                T chunk = decoder.decode(buffer, offset, length);
+                if (chunk == null) {
+                    return true;
+                }
+                if (observer != null) {
+                    observer.accept(chunk);
+                }
+                handler.onChunk(chunk);
+                return true;
+            });
+        }
+    }
+}
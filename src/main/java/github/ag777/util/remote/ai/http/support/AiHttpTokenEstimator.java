@@ -0,0 +1,113 @@
+package github.ag777.util.remote.ai.http.support;
+
+import github.ag777.util.remote.ai.http.openai.model.AiImageDetail;
+import github.ag777.util.remote.ai.http.openai.model.AiMessage;
+import github.ag777.util.remote.ai.http.openai.model.AiMessageContentPart;
+import github.ag777.util.remote.ai.http.openai.model.request.RequestToolCall;
+
+import java.util.List;
+
+/**
+ * 本地token数估算。
+ *
+ * <p>不依赖分词表，按字符类别粗略估算：中日韩字符按每字1个token，其它字符按每4个1个token，
+ * 每条消息另加4个token的格式开销，图片按细节级别计固定值（low为85，其它为765），
+ * data URL中的base64内容不计入文本。误差通常在±20%以内，适合做上下文窗口裁剪和限流预估。
+ *
+ * @author ag777
+ * @since 1.0
+ */
+public class AiHttpTokenEstimator {
+    private static final int MESSAGE_OVERHEAD = 4;
+    private static final int REQUEST_OVERHEAD = 3;
+    private static final int LOW_DETAIL_IMAGE_TOKENS = 85;
+    private static final int IMAGE_TOKENS = 765;
+
+    private AiHttpTokenEstimator() {
+    }
+
+    /**
+     * 估算文本的token数。
+     *
+     * @param text 文本
+     * @return 估算token数
+     */
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLowSurrogate(c)) {
+                continue;
+            }
+            if (isCjk(c)) {
+                cjk++;
+            } else {
+                other++;
+            }
+        }
+        return cjk + (other + 3) / 4;
+    }
+
+    /**
+     * 估算单条消息的token数。
+     *
+     * @param message 消息
+     * @return 估算token数
+     */
+    public static int estimate(AiMessage message) {
+        if (message == null) {
+            return 0;
+        }
+        int tokens = MESSAGE_OVERHEAD;
+        Object content = message.getContent();
+        if (content instanceof String text) {
+            tokens += estimate(text);
+        } else if (content instanceof List<?> parts) {
+            for (Object part : parts) {
+                if (part instanceof AiMessageContentPart.TextPart textPart) {
+                    tokens += estimate(textPart.getText());
+                } else if (part instanceof AiMessageContentPart.ImageUrlPart imagePart) {
+                    boolean low = imagePart.getImageUrl() != null && AiImageDetail.LOW.equals(imagePart.getImageUrl().detail());
+                    tokens += low ? LOW_DETAIL_IMAGE_TOKENS : IMAGE_TOKENS;
+                }
+            }
+        }
+        if (message.getToolCalls() != null) {
+            for (RequestToolCall toolCall : message.getToolCalls()) {
+                if (toolCall.function() != null) {
+                    tokens += MESSAGE_OVERHEAD + estimate(toolCall.function().name()) + estimate(toolCall.function().arguments());
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 估算消息列表的token数。
+     *
+     * @param messages 消息列表
+     * @return 估算token数
+     */
+    public static int estimate(List<AiMessage> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return 0;
+        }
+        int tokens = REQUEST_OVERHEAD;
+        for (AiMessage message : messages) {
+            tokens += estimate(message);
+        }
+        return tokens;
+    }
+
+    private static boolean isCjk(char c) {
+        return (c >= 0x2E80 && c <= 0x9FFF)      // CJK部首、符号、假名、统一表意文字
+                || (c >= 0xAC00 && c <= 0xD7AF)  // 韩文音节
+                || (c >= 0xF900 && c <= 0xFAFF)  // CJK兼容表意文字
+                || (c >= 0xFF00 && c <= 0xFFEF)  // 全角字符
+                || Character.isHighSurrogate(c); // 扩展区汉字、emoji等
+    }
+}
@@ -0,0 +1,32 @@
+package github.ag777.util.remote.ai.http.tool;
+
+import github.ag777.util.remote.ai.http.model.AiHttpToolCall;
+
+/**
+ * 工具调用处理器。
+ *
+ * <p>在 {@link github.ag777.util.remote.ai.http.client.AiHttpChatSession#chatWithTools(String)} 中按工具名注册，
+ * 同一轮的多个工具调用会在各自的虚拟线程上并行执行，处理器需要是线程安全的。
+ * 超时后执行线程会被中断，阻塞IO应能响应中断。
+ *
+ * <p>使用示例：
+ * <pre>{@code
+ * session.tool(RequestTool.of("get_weather", "查询天气").addParameter("city", "string", "城市", true, null),
+ *         call -> weatherService.query((String) call.function().arguments().get("city")));
+ * }</pre>
+ *
+ * @author ag777
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface AiHttpToolHandler {
+
+    /**
+     * 执行工具调用。
+     *
+     * @param toolCall 模型发起的工具调用，参数见 {@code toolCall.function().arguments()}
+     * @return 回传给模型的结果文本，通常为JSON
+     * @throws Exception 执行失败，异常信息会作为错误结果回传给模型
+     */
+    String handle(AiHttpToolCall toolCall) throws Exception;
+}
@@ -11,6 +11,8 @@ import github.ag777.util.lang.IOUtils;
 import github.ag777.util.lang.StringUtils;
 import github.ag777.util.lang.exception.model.GsonSyntaxException;
 import github.ag777.util.lang.exception.model.ValidateException;
+import github.ag777.util.remote.ai.http.provider.OpenAiCompatibleProvider;
+import github.ag777.util.remote.ai.http.support.AiHttpStreamEngine;
 import github.ag777.util.remote.ai.openai.http.interf.OpenaiOnMessage;
 import github.ag777.util.remote.ai.openai.http.request.OpenaiRequestChat;
 import github.ag777.util.remote.ai.openai.http.util.OpenaiResponseChatStreamUtil;
@@ -19,13 +21,12 @@ import github.ag777.util.remote.ai.openai.model.AiTool;
 import github.ag777.util.remote.ai.openai.model.request.RequestBase;
 import okhttp3.Response;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -36,6 +37,7 @@ import java.util.concurrent.TimeUnit;
  */
 public class OpenaiApiClient {
 //    private static final Pattern P_END_OF_THINKING = Pattern.compile("<(?:/(?:t(?:h(?:i(?:n(?:k)?)?)?)?)?)?$");
+    private static final OpenAiCompatibleProvider STREAM_PROVIDER = new OpenAiCompatibleProvider();
     private final HttpHelper httpHelper;
 
     private boolean https=false;
@@ -147,10 +149,9 @@ public class OpenaiApiClient {
         boolean[] isThinking= {false};
         String[] functionName = new String[1];
         StringBuilder toolParams = new StringBuilder();
-        postStream(request, "/v1/chat/completions", jo -> {
-            // {"model":"qwen2.5:14b","created_at":"2024-12-05T00:39:03.577136734Z","message":{"role":"assistant","content":"```"},"done":false}
-            // {"role":"assistant","content":"","tool_calls":[{"function":{"name":"get_current_weather","arguments":{"format":"celsius","location":"上海"}}}]}}
-            OpenaiResponseChatStreamUtil res = new OpenaiResponseChatStreamUtil(jo);
+        // 普通分片共用同一个空工具对象，只有工具调用结束时才创建新的
+        AiTool noTool = new AiTool();
+        postStream(request, "/v1/chat/completions", res -> {
             OpenaiResponseChatStreamUtil.Content message = res.getMessage();
             if (message == null) {
                 return;
@@ -158,7 +159,7 @@ public class OpenaiApiClient {
             String content = message.content();
             String thinking = message.thinking();
             OpenaiResponseChatStreamUtil.ToolCall toolCall = message.toolCall();
-            AiTool aiTool = new AiTool();
+            AiTool aiTool = noTool;
             if (content == null && thinking != null) {
                 if (!isThinking[0]) {
                     isThinking[0] = true;
@@ -172,7 +173,9 @@ public class OpenaiApiClient {
                 if (!StringUtils.isEmpty(toolCall.getName())) {
                     functionName[0] = toolCall.getName();
                 }
-                toolParams.append(toolCall.getArguments());
+                if (toolCall.getArguments() != null) {
+                    toolParams.append(toolCall.getArguments());
+                }
             }
             if ("tool_calls".equals(message.finishReason())) {
                 aiTool = new AiTool(functionName[0], GsonUtils.get().toMapWithException(toolParams.toString()));
@@ -269,7 +272,7 @@ public class OpenaiApiClient {
      * @throws IOException       IO异常
      * @throws ValidateException 验证异常
      */
-    private void postStream(RequestBase<?> request, String path, StreamHandler<JsonObject> consumer) throws IOException, ValidateException, InterruptedException {
+    private void postStream(RequestBase<?> request, String path, StreamHandler<OpenaiResponseChatStreamUtil> consumer) throws IOException, ValidateException, InterruptedException {
         request.stream(true);
         InputStreamResponse in = getInputStream(
                 request,
@@ -284,40 +287,33 @@ public class OpenaiApiClient {
 
     /**
      * 处理流式响应
+     * 基于 {@link AiHttpStreamEngine} 按字节读取SSE事件，分片由 {@link OpenAiCompatibleProvider} 直接从字节解码，
+     * 不再逐行创建字符串并构建完整的JSON树
      *
      * @param in       输入流
      * @param consumer 消费函数
      * @throws ValidateException    验证异常
      * @throws InterruptedException 线程中断异常
      */
-    private void handleStream(InputStream in, StreamHandler<JsonObject> consumer) throws ValidateException, InterruptedException {
+    private void handleStream(InputStream in, StreamHandler<OpenaiResponseChatStreamUtil> consumer) throws ValidateException, InterruptedException {
         try {
-            BufferedReader procin = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
-
-            String line;
-            String json;
-            while ((line = procin.readLine()) != null) {
-                if (line.isEmpty()) {
-                    continue;
-                }
-                if (!line.startsWith("data: ")) {
-                    continue;
-                }
-                json = line.substring(6);
-                if ("[DONE]".equals(json)) {
-                    continue;
-                }
-                JsonObject jo = GsonUtils.toJsonObjectWithException(json);
-                consumer.accept(jo);
-            }
-        } catch (GsonSyntaxException|IllegalStateException e) {
+            new AiHttpStreamEngine<OpenaiResponseChatStreamUtil>((buffer, offset, length) -> new OpenaiResponseChatStreamUtil(
+                    STREAM_PROVIDER.parseStreamChunk(buffer, offset, length)))
+                    .cancelWhen(Thread.currentThread()::isInterrupted)
+                    .run(in, consumer::accept);
+        } catch (ValidateException | InterruptedException e) {
+            throw e;
+        } catch (CancellationException e) {
+            throw new InterruptedException("流式读取被中断");
+        } catch (GsonSyntaxException | IllegalStateException e) {
             throw new ValidateException("解析返回出现异常", e);
         } catch (IOException e) {
             throw new ValidateException("解析返回出现IO异常", e);
+        } catch (Exception e) {
+            throw new ValidateException("处理流式返回出现异常", e);
         } finally {
             IOUtils.close(in);
         }
-
     }
 
     /**
@@ -2,8 +2,11 @@ package github.ag777.util.remote.ai.openai.http.util;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import github.ag777.util.gson.GsonUtils;
 import github.ag777.util.gson.JsonObjectUtils;
 import github.ag777.util.lang.exception.model.GsonSyntaxException;
+import github.ag777.util.remote.ai.http.model.AiHttpChunk;
+import github.ag777.util.remote.ai.http.model.AiHttpToolCallDelta;
 import github.ag777.util.remote.ai.openai.model.response.ResponseBaseUtil;
 import lombok.Data;
 import lombok.experimental.Accessors;
@@ -45,6 +48,8 @@ import lombok.experimental.Accessors;
  * @version 2025/3/24 上午10:20
  */
 public class OpenaiResponseChatStreamUtil extends ResponseBaseUtil {
+    // 按字节解码得到的分片，不为null时不需要JSON树，data在首次访问时才由分片解析
+    private final AiHttpChunk chunk;
 
     /**
      * 构造函数
@@ -52,6 +57,41 @@ public class OpenaiResponseChatStreamUtil extends ResponseBaseUtil {
      */
     public OpenaiResponseChatStreamUtil(JsonObject jo) {
         super(jo);
+        this.chunk = null;
+    }
+
+    /**
+     * 构造函数，用于流式引擎按字节解码后的分片
+     * 消息内容直接取自分片，原始JSON在调用 {@link #getData()} 时才由 {@link AiHttpChunk#raw()} 解析
+     *
+     * @param chunk 解码后的分片
+     */
+    public OpenaiResponseChatStreamUtil(AiHttpChunk chunk) {
+        super(null);
+        this.chunk = chunk;
+    }
+
+    /**
+     * 获取原始JSON对象，按分片创建时首次调用才解析
+     *
+     * @return 原始JSON对象
+     */
+    @Override
+    public JsonObject getData() {
+        if (data == null && chunk != null) {
+            data = chunk.raw();
+        }
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(getData());
+    }
+
+    @Override
+    public String prettyFormat() {
+        return GsonUtils.get().toPrettyJson(getData());
     }
 
     /**
@@ -62,6 +102,9 @@ public class OpenaiResponseChatStreamUtil extends ResponseBaseUtil {
      * @throws GsonSyntaxException 当JSON解析出错时抛出
      */
     public Content getMessage() throws GsonSyntaxException {
+        if (chunk != null) {
+            return getMessage(chunk);
+        }
         /*
         choices -> {JsonArray@3458} "[{"index":0,"delta":{"content":null,"reasoning_content":"好的","role":"assistant"},"finish_reason":null}]"
          */
@@ -108,6 +151,24 @@ public class OpenaiResponseChatStreamUtil extends ResponseBaseUtil {
         return new Content(content, thinking, toolCall, finishReason);
     }
 
+    private static Content getMessage(AiHttpChunk chunk) {
+        if (!chunk.hasContent() && !chunk.hasReasoning() && !chunk.hasToolCalls() && chunk.finishReason() == null) {
+            return null;
+        }
+        String content = chunk.content();
+        String thinking = content == null ? chunk.reasoning() : null;
+        ToolCall toolCall = null;
+        if (thinking == null && chunk.hasToolCalls()) {
+            AiHttpToolCallDelta delta = chunk.toolCalls().get(0);
+            if (delta.function() != null) {
+                toolCall = new ToolCall()
+                        .setName(delta.function().name())
+                        .setArguments(delta.function().argumentsDelta());
+            }
+        }
+        return new Content(content, thinking, toolCall, chunk.finishReason());
+    }
+
     public record Content(String content, String thinking, ToolCall toolCall, String finishReason) {}
     
     @Data
@@ -0,0 +1,308 @@
+package github.ag777.util.remote.http.apache;
+
+import github.ag777.util.remote.http.apache.model.ConnectionPoolListener;
+import github.ag777.util.remote.http.apache.model.PoolStatus;
+import github.ag777.util.remote.http.apache.model.PooledConnection;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolStats;
+
+import java.net.InetAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按路由划分的HTTP连接池
+ * 每个 目标主机+代理 组合对应一个独立的 {@link SimpleHttpConnectionPool}，
+ * 所有路由共用一个 {@link PoolingHttpClientConnectionManager}，由它统一限制单路由和全局的底层连接数
+ * <p>
+ * 慢主机最多只能占满自己路由的名额，不会拖住其它主机；
+ * 连接管理器使用严格并发策略，超出全局上限的请求按先来后到排队获取底层连接
+ *
+ * <pre>{@code
+ * RouteHttpConnectionPool pool = new RouteHttpConnectionPool(20, 200);
+ * pool.setMaxPerRoute(new HttpHost("https", "api.example.com", 443), null, 50);
+ * try (PooledConnection conn = pool.borrowConnection(new HttpHost("https", "api.example.com", 443))) {
+ *     conn.getHttpClient().execute(...);
+ * }
+ * }</pre>
+ */
+public class RouteHttpConnectionPool {
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final Map<RouteKey, SimpleHttpConnectionPool> routePools = new ConcurrentHashMap<>();
+    // 单独设置过上限的路由
+    private final Map<RouteKey, Integer> routeLimits = new ConcurrentHashMap<>();
+    private final int defaultMaxPerRoute;
+    private final int maxTotal;
+
+    // 默认超时配置
+    private final long defaultTimeout;
+    private final TimeUnit defaultTimeUnit;
+
+    // 请求配置构建器
+    private final RequestConfig.Builder requestConfigBuilder;
+
+    // 默认代理（borrowConnection未指定代理时使用）
+    private volatile HttpHost defaultProxy;
+
+    // 下发到各路由连接池的配置
+    private volatile ConnectionPoolListener listener;
+    private volatile long[] eviction;
+
+    private volatile boolean closed;
+
+    /**
+     * 构造函数
+     * @param maxPerRoute 单个路由的默认最大连接数
+     * @param maxTotal 所有路由合计的最大连接数
+     */
+    public RouteHttpConnectionPool(int maxPerRoute, int maxTotal) {
+        this(maxPerRoute, maxTotal, null, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 构造函数
+     * @param maxPerRoute 单个路由的默认最大连接数
+     * @param maxTotal 所有路由合计的最大连接数
+     * @param requestConfigBuilder 请求配置构建器，null表示使用默认配置
+     * @param defaultTimeout 默认借用超时时间
+     * @param defaultTimeUnit 默认超时时间单位
+     */
+    public RouteHttpConnectionPool(int maxPerRoute, int maxTotal, RequestConfig.Builder requestConfigBuilder, long defaultTimeout, TimeUnit defaultTimeUnit) {
+        if (maxPerRoute <= 0 || maxTotal <= 0) {
+            throw new IllegalArgumentException("连接池大小必须大于0");
+        }
+        if (maxPerRoute > maxTotal) {
+            throw new IllegalArgumentException("单路由最大连接数不能超过总连接数");
+        }
+        if (defaultTimeout <= 0) {
+            throw new IllegalArgumentException("超时时间必须大于0");
+        }
+        this.defaultMaxPerRoute = maxPerRoute;
+        this.maxTotal = maxTotal;
+        this.requestConfigBuilder = requestConfigBuilder;
+        this.defaultTimeout = defaultTimeout;
+        this.defaultTimeUnit = defaultTimeUnit;
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .build();
+    }
+
+    /**
+     * 设置默认代理，borrowConnection未指定代理时使用
+     * @param proxyHost 代理服务器，null表示不使用代理
+     */
+    public RouteHttpConnectionPool setProxy(HttpHost proxyHost) {
+        this.defaultProxy = proxyHost;
+        return this;
+    }
+
+    /**
+     * 设置默认代理
+     * @param host 代理主机
+     * @param port 代理端口
+     */
+    public RouteHttpConnectionPool setProxy(String host, int port) {
+        return setProxy(new HttpHost(host, port));
+    }
+
+    /**
+     * 设置Clash代理（默认端口10801）
+     */
+    public RouteHttpConnectionPool setClashProxy() {
+        return setClashProxy(10801);
+    }
+
+    /**
+     * 设置Clash代理
+     * @param port Clash代理端口
+     */
+    public RouteHttpConnectionPool setClashProxy(int port) {
+        return setProxy("127.0.0.1", port);
+    }
+
+    /**
+     * 单独设置某个路由的最大连接数
+     * 需在该路由首次借用连接之前设置，之后修改只影响底层连接数，不影响已创建的路由连接池的客户端数量
+     * @param target 目标主机
+     * @param proxy 代理，null表示直连
+     * @param max 最大连接数
+     */
+    public RouteHttpConnectionPool setMaxPerRoute(HttpHost target, HttpHost proxy, int max) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("连接池大小必须大于0");
+        }
+        RouteKey key = RouteKey.of(target, proxy);
+        // 单路由上限不超过全局上限，连接池与底层连接管理器使用同一个值
+        int limit = Math.min(max, maxTotal);
+        routeLimits.put(key, limit);
+        connectionManager.setMaxPerRoute(key.toHttpRoute(), limit);
+        return this;
+    }
+
+    /**
+     * 设置连接池监听器，对已有和之后创建的路由连接池都生效
+     * @param listener 监听器实例，null表示移除监听器
+     */
+    public RouteHttpConnectionPool setListener(ConnectionPoolListener listener) {
+        this.listener = listener;
+        routePools.values().forEach(pool -> pool.setListener(listener));
+        return this;
+    }
+
+    /**
+     * 开启空闲连接回收，对已有和之后创建的路由连接池都生效
+     * @see SimpleHttpConnectionPool#setEviction(long, long, long, TimeUnit)
+     */
+    public RouteHttpConnectionPool setEviction(long idleTimeout, long maxLifetime, long checkInterval, TimeUnit unit) {
+        this.eviction = new long[]{unit.toMillis(idleTimeout), unit.toMillis(maxLifetime), unit.toMillis(checkInterval)};
+        routePools.values().forEach(pool -> pool.setEviction(idleTimeout, maxLifetime, checkInterval, unit));
+        return this;
+    }
+
+    /**
+     * 借用访问指定主机的连接（使用默认代理和默认超时时间）
+     * @param target 目标主机
+     * @return 连接对象，使用完后必须调用close()方法归还，null表示超时
+     * @throws InterruptedException 如果等待连接时被中断
+     */
+    public PooledConnection borrowConnection(HttpHost target) throws InterruptedException {
+        return borrowConnection(target, defaultProxy, defaultTimeout, defaultTimeUnit);
+    }
+
+    /**
+     * 借用访问指定主机的连接（使用默认超时时间）
+     * @param target 目标主机
+     * @param proxy 代理，null表示直连
+     * @return 连接对象，使用完后必须调用close()方法归还，null表示超时
+     * @throws InterruptedException 如果等待连接时被中断
+     */
+    public PooledConnection borrowConnection(HttpHost target, HttpHost proxy) throws InterruptedException {
+        return borrowConnection(target, proxy, defaultTimeout, defaultTimeUnit);
+    }
+
+    /**
+     * 借用访问指定主机的连接
+     * @param target 目标主机
+     * @param proxy 代理，null表示直连
+     * @param timeout 超时时间
+     * @param unit 时间单位
+     * @return 连接对象，使用完后必须调用close()方法归还，null表示超时或连接池已关闭
+     * @throws InterruptedException 如果等待连接时被中断
+     */
+    public PooledConnection borrowConnection(HttpHost target, HttpHost proxy, long timeout, TimeUnit unit) throws InterruptedException {
+        SimpleHttpConnectionPool pool = getRoutePool(target, proxy);
+        return pool == null ? null : pool.borrowConnection(timeout, unit);
+    }
+
+    /**
+     * 获取指定路由的连接池，不存在时创建
+     * @param target 目标主机
+     * @param proxy 代理，null表示直连
+     * @return 路由连接池，连接池已关闭时返回null
+     */
+    public SimpleHttpConnectionPool getRoutePool(HttpHost target, HttpHost proxy) {
+        if (closed) {
+            return null;
+        }
+        return routePools.computeIfAbsent(RouteKey.of(target, proxy), this::createRoutePool);
+    }
+
+    private SimpleHttpConnectionPool createRoutePool(RouteKey key) {
+        int max = routeLimits.getOrDefault(key, defaultMaxPerRoute);
+        SimpleHttpConnectionPool pool = new SimpleHttpConnectionPool(
+                0, max, requestConfigBuilder, defaultTimeout, defaultTimeUnit, connectionManager, key.proxy());
+        pool.setListener(listener);
+        long[] currentEviction = eviction;
+        if (currentEviction != null) {
+            pool.setEviction(currentEviction[0], currentEviction[1], currentEviction[2], TimeUnit.MILLISECONDS);
+        }
+        return pool;
+    }
+
+    /**
+     * 获取各路由连接池的状态
+     * @return key为路由描述（目标主机[ via 代理]）
+     */
+    public Map<String, PoolStatus> getRouteStatus() {
+        Map<String, PoolStatus> result = new LinkedHashMap<>();
+        routePools.forEach((key, pool) -> result.put(key.toString(), pool.getPoolStatus()));
+        return result;
+    }
+
+    /**
+     * 获取底层连接的全局统计（租用中、等待中、空闲、上限）
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * 获取单个路由的底层连接统计
+     * @param target 目标主机
+     * @param proxy 代理，null表示直连
+     */
+    public PoolStats getRouteStats(HttpHost target, HttpHost proxy) {
+        return connectionManager.getStats(RouteKey.of(target, proxy).toHttpRoute());
+    }
+
+    /**
+     * 关闭所有路由连接池及共享的连接管理器
+     */
+    public void shutdown() {
+        closed = true;
+        routePools.values().forEach(SimpleHttpConnectionPool::shutdown);
+        routePools.clear();
+        try {
+            connectionManager.close();
+        } catch (Exception e) {
+            // 忽略关闭时的异常
+        }
+    }
+
+    /**
+     * 路由标识：目标主机 + 代理
+     * 目标主机的端口会按协议补全，保证与HttpClient路由规划出的路由一致
+     */
+    private record RouteKey(HttpHost target, HttpHost proxy) {
+
+        static RouteKey of(HttpHost target, HttpHost proxy) {
+            if (target == null) {
+                throw new IllegalArgumentException("目标主机不能为空");
+            }
+            return new RouteKey(normalize(target), proxy);
+        }
+
+        private static HttpHost normalize(HttpHost host) {
+            if (host.getPort() >= 0) {
+                return host;
+            }
+            int port = isSecure(host) ? 443 : 80;
+            return new HttpHost(host.getSchemeName(), host.getHostName(), port);
+        }
+
+        private static boolean isSecure(HttpHost host) {
+            return "https".equalsIgnoreCase(host.getSchemeName());
+        }
+
+        HttpRoute toHttpRoute() {
+            boolean secure = isSecure(target);
+            return proxy == null
+                    ? new HttpRoute(target, (InetAddress) null, secure)
+                    : new HttpRoute(target, (InetAddress) null, proxy, secure);
+        }
+
+        @Override
+        public String toString() {
+            return proxy == null ? target.toURI() : target.toURI() + " via " + proxy.toURI();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package github.ag777.util.remote.http.apache;
 
 import github.ag777.util.remote.http.apache.model.ConnectionPoolListener;
+import github.ag777.util.remote.http.apache.model.PoolMetrics;
+import github.ag777.util.remote.http.apache.model.PoolMetricsSnapshot;
 import github.ag777.util.remote.http.apache.model.PoolStatus;
 import github.ag777.util.remote.http.apache.model.PooledConnection;
 import org.apache.hc.client5.http.config.RequestConfig;
@@ -11,21 +13,45 @@ import org.apache.hc.client5.http.impl.routing.DefaultProxyRoutePlanner;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.util.Timeout;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * 简单的定长HTTP连接池
+ * 简单的HTTP连接池
  * 支持轮询使用连接：从队列头部获取，从队列尾部归还
+ * 借还路径无全局锁：空闲连接放在无锁队列中，没有空闲连接时借用者进入等待队列，
+ * 归还的连接直接交给最早的等待者
+ * 支持弹性伸缩：启动时只创建minIdle个连接，负载上来后按需增长到maxTotal，
+ * 开启回收后由后台线程关闭空闲过久或存活过久的连接
  */
 public class SimpleHttpConnectionPool {
-    private final BlockingQueue<PooledConnection> connectionQueue;
-    private final int poolSize;
+    // 空闲连接（无锁队列，头部借出、尾部归还）
+    private final ConcurrentLinkedQueue<PooledConnection> idleConnections = new ConcurrentLinkedQueue<>();
+    // 等待连接的借用者（先到先得）
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    // 已创建且未销毁的连接数（包括借出的和空闲的）
+    private final AtomicInteger totalConnections = new AtomicInteger(0);
+    // 当前借出未归还的连接数
+    private final AtomicInteger activeConnections = new AtomicInteger(0);
+    // 当前在等待队列中挂起的借用者数
+    private final AtomicInteger waitingBorrowers = new AtomicInteger(0);
+    // 运行指标
+    private final PoolMetrics metrics = new PoolMetrics();
+    // 最少保持的空闲连接数
+    private final int minIdle;
+    // 最大连接数
+    private final int maxTotal;
     private final PoolingHttpClientConnectionManager connectionManager;
-//    private final AtomicInteger activeConnections = new AtomicInteger(0);
-    private final ReentrantLock poolLock = new ReentrantLock();
+    // 底层连接管理器是否由外部共享（共享时关闭连接池不关闭连接管理器）
+    private final boolean sharedConnectionManager;
+
+    private volatile boolean closed;
 
     // 默认超时配置
     private final long defaultTimeout;
@@ -40,6 +66,17 @@ public class SimpleHttpConnectionPool {
     // 连接池监听器
     private volatile ConnectionPoolListener listener;
 
+    // 空闲回收配置（毫秒，<=0表示不限制）
+    private volatile long idleTimeoutMillis;
+    private volatile long maxLifetimeMillis;
+    private ScheduledFuture<?> evictionTask;
+    private ScheduledFuture<?> metricsReportTask;
+
+    /**
+     * 所有连接池共用的后台线程（空闲回收、指标上报），避免每个连接池单独占用一个线程
+     */
+    private static volatile ScheduledExecutorService maintenanceExecutor;
+
     /**
      * 构造函数
      * @param poolSize 连接池大小
@@ -65,19 +102,54 @@ public class SimpleHttpConnectionPool {
      * @param defaultTimeUnit 默认超时时间单位
      */
     public SimpleHttpConnectionPool(int poolSize, RequestConfig.Builder requestConfigBuilder, long defaultTimeout, TimeUnit defaultTimeUnit) {
-        if (poolSize <= 0) {
+        this(poolSize, poolSize, requestConfigBuilder, defaultTimeout, defaultTimeUnit);
+    }
+
+    /**
+     * 构造函数（弹性大小）
+     * 初始化时只创建minIdle个连接，借用时没有空闲连接且未达到maxTotal则按需创建
+     * @param minIdle 最少保持的空闲连接数
+     * @param maxTotal 最大连接数
+     * @param requestConfigBuilder 请求配置构建器，null表示使用默认配置
+     * @param defaultTimeout 默认超时时间
+     * @param defaultTimeUnit 默认超时时间单位
+     */
+    public SimpleHttpConnectionPool(int minIdle, int maxTotal, RequestConfig.Builder requestConfigBuilder, long defaultTimeout, TimeUnit defaultTimeUnit) {
+        this(minIdle, maxTotal, requestConfigBuilder, defaultTimeout, defaultTimeUnit, null, null);
+    }
+
+    /**
+     * 构造函数（使用外部共享的连接管理器，供 {@link RouteHttpConnectionPool} 按路由创建子连接池）
+     * @param connectionManager 共享的连接管理器，null表示自行创建
+     * @param proxyHost 代理服务器，null表示不使用代理
+     */
+    SimpleHttpConnectionPool(int minIdle, int maxTotal, RequestConfig.Builder requestConfigBuilder, long defaultTimeout, TimeUnit defaultTimeUnit,
+                             PoolingHttpClientConnectionManager connectionManager, HttpHost proxyHost) {
+        if (maxTotal <= 0) {
             throw new IllegalArgumentException("连接池大小必须大于0");
         }
+        if (minIdle < 0 || minIdle > maxTotal) {
+            throw new IllegalArgumentException("最小空闲连接数必须在0到连接池大小之间");
+        }
         if (defaultTimeout <= 0) {
             throw new IllegalArgumentException("超时时间必须大于0");
         }
 
-        this.poolSize = poolSize;
+        this.minIdle = minIdle;
+        this.maxTotal = maxTotal;
         this.requestConfigBuilder = requestConfigBuilder != null ? requestConfigBuilder : createDefaultRequestConfigBuilder();
         this.defaultTimeout = defaultTimeout;
         this.defaultTimeUnit = defaultTimeUnit;
-        this.connectionQueue = new ArrayBlockingQueue<>(poolSize);
-        this.connectionManager = new PoolingHttpClientConnectionManager();
+        this.proxyHost = proxyHost;
+        this.sharedConnectionManager = connectionManager != null;
+        if (connectionManager != null) {
+            this.connectionManager = connectionManager;
+        } else {
+            this.connectionManager = new PoolingHttpClientConnectionManager();
+            // 每个借出的客户端同一时间最多占用一个底层连接，放开默认的总数25/单路由5的限制，避免被隐性限流
+            this.connectionManager.setMaxTotal(maxTotal);
+            this.connectionManager.setDefaultMaxPerRoute(maxTotal);
+        }
 
         initializePool();
     }
@@ -145,19 +217,181 @@ public class SimpleHttpConnectionPool {
         return listener;
     }
 
+    /**
+     * 开启空闲连接回收
+     * 后台定期检查空闲连接，关闭空闲超过idleTimeout（保留minIdle个）或存活超过maxLifetime的连接，
+     * 每次回收都会通过监听器的onConnectionDestroyed通知
+     * @param idleTimeout 空闲超时时间，<=0表示不按空闲时间回收
+     * @param maxLifetime 最大存活时间（从连接创建开始算），<=0表示不限制
+     * @param checkInterval 检查间隔
+     * @param unit 时间单位
+     */
+    public synchronized SimpleHttpConnectionPool setEviction(long idleTimeout, long maxLifetime, long checkInterval, TimeUnit unit) {
+        if (checkInterval <= 0) {
+            throw new IllegalArgumentException("检查间隔必须大于0");
+        }
+        this.idleTimeoutMillis = unit.toMillis(idleTimeout);
+        this.maxLifetimeMillis = unit.toMillis(maxLifetime);
+        if (evictionTask != null) {
+            evictionTask.cancel(false);
+        }
+        if (!closed) {
+            evictionTask = getMaintenanceExecutor().scheduleWithFixedDelay(
+                    this::evict, checkInterval, checkInterval, unit);
+        }
+        return this;
+    }
+
+    /**
+     * 开启指标定期上报
+     * 按固定间隔生成指标快照，通过监听器的onMetricsReport回调上报
+     * @param interval 上报间隔，<=0表示关闭上报
+     * @param unit 时间单位
+     */
+    public synchronized SimpleHttpConnectionPool setMetricsReportInterval(long interval, TimeUnit unit) {
+        if (metricsReportTask != null) {
+            metricsReportTask.cancel(false);
+            metricsReportTask = null;
+        }
+        if (interval > 0 && !closed) {
+            metricsReportTask = getMaintenanceExecutor().scheduleAtFixedRate(
+                    this::reportMetrics, interval, interval, unit);
+        }
+        return this;
+    }
+
+    /**
+     * 获取当前指标快照
+     * 包含实时的借出/空闲/等待数量，以及借用等待时间、连接占用时间的分布和各类累计计数
+     */
+    public PoolMetricsSnapshot getMetrics() {
+        return metrics.snapshot(
+                activeConnections.get(),
+                idleConnections.size(),
+                waitingBorrowers.get(),
+                maxTotal
+        );
+    }
+
+    private void reportMetrics() {
+        ConnectionPoolListener currentListener = listener;
+        if (currentListener == null || closed) {
+            return;
+        }
+        try {
+            currentListener.onMetricsReport(this, getMetrics());
+        } catch (Exception e) {
+            // 上报失败不影响下次执行
+        }
+    }
+
+    /**
+     * 获取最少保持的空闲连接数
+     */
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    /**
+     * 获取最大连接数
+     */
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
     /**
      * 初始化连接池
      */
     private void initializePool() {
-        for (int i = 0; i < poolSize; i++) {
+        ensureMinIdle();
+    }
+
+    /**
+     * 补充空闲连接直到达到minIdle（受maxTotal限制）
+     */
+    private void ensureMinIdle() {
+        while (!closed && idleConnections.size() < minIdle && totalConnections.get() < maxTotal) {
             addNewConnectionToPool();
         }
     }
 
     /**
-     * 创建新连接并添加到池中
+     * 回收空闲过久或存活过久的连接
+     */
+    private void evict() {
+        if (closed) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            long idleTimeout = idleTimeoutMillis;
+            for (PooledConnection connection : idleConnections) {
+                String reason = null;
+                if (isExpired(connection, now)) {
+                    reason = "超过最大存活时间，连接被回收";
+                } else if (idleTimeout > 0 && now - connection.getLastUsedTime() > idleTimeout
+                        && idleConnections.size() > minIdle) {
+                    reason = "空闲超时，连接被回收";
+                }
+                // remove成功说明该连接没有同时被借出，可以安全销毁
+                if (reason != null && idleConnections.remove(connection)) {
+                    destroyConnection(connection, reason);
+                }
+            }
+            ensureMinIdle();
+        } catch (Exception e) {
+            // 回收失败不影响下次执行
+        }
+    }
+
+    /**
+     * 连接是否超过最大存活时间
+     */
+    private boolean isExpired(PooledConnection connection, long now) {
+        long maxLifetime = maxLifetimeMillis;
+        return maxLifetime > 0 && now - connection.getCreateTime() > maxLifetime;
+    }
+
+    private static ScheduledExecutorService getMaintenanceExecutor() {
+        if (maintenanceExecutor == null) {
+            synchronized (SimpleHttpConnectionPool.class) {
+                if (maintenanceExecutor == null) {
+                    maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread t = new Thread(r, "http-pool-maintenance");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+            }
+        }
+        return maintenanceExecutor;
+    }
+
+    /**
+     * 创建新连接并添加到池中（优先交给等待中的借用者）
+     * 连接总数达到上限时不会创建
      */
     private void addNewConnectionToPool() {
+        PooledConnection newConnection = createConnection();
+        if (newConnection != null) {
+            release(newConnection);
+        }
+    }
+
+    /**
+     * 创建新连接（不放入池中）
+     * @return 新连接，连接总数达到上限或创建失败时返回null
+     */
+    private PooledConnection createConnection() {
+        // 先占用名额，避免并发补充时创建多余连接
+        int current;
+        do {
+            current = totalConnections.get();
+            if (current >= maxTotal) {
+                return null;
+            }
+        } while (!totalConnections.compareAndSet(current, current + 1));
+
         PooledConnection newConnection = null;
         try {
             var clientBuilder = HttpClients.custom()
@@ -173,31 +407,18 @@ public class SimpleHttpConnectionPool {
 
             CloseableHttpClient httpClient = clientBuilder.build();
             newConnection = new PooledConnection(httpClient, this);
-
-            // 尝试将连接添加到队列
-            if (connectionQueue.offer(newConnection)) {
-                // 连接创建成功，通知监听器
-                if (listener != null) {
-                    listener.onConnectionCreated(this, newConnection);
-                }
-            } else {
-                // 队列已满，销毁刚创建的连接
-                newConnection.destroy();
-                // 通知监听器连接被销毁
-                if (listener != null) {
-                    listener.onConnectionDestroyed(this, newConnection, "队列已满，连接被丢弃");
-                }
-            }
         } catch (Exception e) {
-            // 创建连接失败，清理资源
-            if (newConnection != null) {
-                newConnection.destroy();
-                // 通知监听器连接创建失败被销毁
-                if (listener != null) {
-                    listener.onConnectionDestroyed(this, newConnection, "连接创建失败: " + e.getMessage());
-                }
-            }
+            // 创建连接失败，释放名额
+            totalConnections.decrementAndGet();
+            return null;
         }
+
+        // 连接创建成功，通知监听器
+        metrics.recordCreated();
+        if (listener != null) {
+            listener.onConnectionCreated(this, newConnection);
+        }
+        return newConnection;
     }
 
     /**
@@ -229,7 +450,8 @@ public class SimpleHttpConnectionPool {
 
     /**
      * 从连接池借用连接（从队列头部获取），指定超时时间
-     * 这个方法是线程安全的
+     * 这个方法是线程安全的，空闲队列无锁；没有空闲连接时进入等待队列挂起，
+     * 由归还方直接把连接交到等待者手里，无需轮询
      *
      * @param timeout 超时时间
      * @param unit 时间单位
@@ -237,97 +459,200 @@ public class SimpleHttpConnectionPool {
      * @throws InterruptedException 如果等待连接时被中断
      */
     public PooledConnection borrowConnection(long timeout, TimeUnit unit) throws InterruptedException {
-        long startTime = System.nanoTime();
-        long remainingTimeout = unit.toNanos(timeout);
-
-        while (remainingTimeout > 0) {
-            // 先尝试快速获取连接（非阻塞）
-            PooledConnection connection = connectionQueue.poll();
-
-            if (connection != null) {
-                // 检查连接是否仍然有效
-                if (!connection.isValid()) {
-                    // 连接无效，销毁并补充新连接
-                    connection.destroy();
-                    // 通知监听器连接因无效而被销毁
-                    if (listener != null) {
-                        listener.onConnectionDestroyed(this, connection, "借用时发现连接无效");
-                    }
-                    // 补充新连接（加锁保护，避免并发创建多余连接）
-                    poolLock.lock();
-                    try {
-                        // 检查队列大小，如果队列已满或接近满，说明已经有足够的连接，不需要补充
-                        if (connectionQueue.size() < poolSize) {
-                            addNewConnectionToPool();
-                        }
-                    } finally {
-                        poolLock.unlock();
-                    }
-                    // 继续循环获取连接
-                    // 重新计算剩余时间
-                    long elapsed = System.nanoTime() - startTime;
-                    remainingTimeout = unit.toNanos(timeout) - elapsed;
-                    continue;
-                } else {
-                    // 标记借出
-                    connection.markBorrowed();
-                    // 连接有效，通知监听器连接被借用
-                    if (listener != null) {
-                        listener.onConnectionBorrowed(this, connection);
-                    }
-                    // 返回连接
-                    return connection;
+        final long startTime = System.nanoTime();
+        final long deadline = startTime + unit.toNanos(timeout);
+
+        while (!closed) {
+            // 先尝试快速获取连接（非阻塞），没有空闲连接时在上限内按需创建
+            PooledConnection connection = idleConnections.poll();
+            if (connection == null) {
+                connection = createConnection();
+            }
+            if (connection == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                connection = awaitConnection(remaining);
+                if (connection == null) {
+                    // 超时或连接池已关闭
+                    break;
                 }
             }
 
-            // 队列为空，等待一段时间后重试
-            // 修复：使用 Math.min 而不是 Math.max，确保不会等待超过剩余时间
-            long currentTimeout = Math.min(remainingTimeout, TimeUnit.MILLISECONDS.toNanos(100));
-
-            poolLock.lock();
-            try {
-                // 使用阻塞方式等待连接
-                connection = connectionQueue.poll(currentTimeout, TimeUnit.NANOSECONDS);
-
-                if (connection != null) {
-                    // 检查连接是否仍然有效
-                    if (!connection.isValid()) {
-                        // 连接无效，销毁并补充新连接
-                        connection.destroy();
-                        // 通知监听器连接因无效而被销毁
-                        if (listener != null) {
-                            listener.onConnectionDestroyed(this, connection, "借用时发现连接无效");
-                        }
-                        // 补充新连接（已经在锁内，检查队列大小避免创建多余连接）
-                        if (connectionQueue.size() < poolSize) {
-                            addNewConnectionToPool();
-                        }
-                        // 继续循环获取连接
-                    } else {
-                        // 标记借出
-                        connection.markBorrowed();
-                        // 连接有效，通知监听器连接被借用
-                        if (listener != null) {
-                            listener.onConnectionBorrowed(this, connection);
-                        }
-                        // 返回连接
-                        return connection;
-                    }
-                }
-                // 如果 connection == null，继续下一次循环
-            } finally {
-                poolLock.unlock();
+            // 检查连接是否仍然有效
+            if (!connection.isValid()) {
+                // 连接无效，销毁并补充新连接，然后继续获取
+                metrics.recordInvalidReplacement();
+                discardAndReplenish(connection, "借用时发现连接无效");
+                continue;
+            }
+            if (isExpired(connection, System.currentTimeMillis())) {
+                discardAndReplenish(connection, "超过最大存活时间，连接被回收");
+                continue;
             }
 
-            // 计算剩余超时时间（从最初开始计算总的已用时间）
-            long elapsed = System.nanoTime() - startTime;
-            remainingTimeout = unit.toNanos(timeout) - elapsed;
+            // 标记借出
+            connection.markBorrowed();
+            activeConnections.incrementAndGet();
+            metrics.recordBorrow(System.nanoTime() - startTime);
+            // 连接有效，通知监听器连接被借用
+            if (listener != null) {
+                listener.onConnectionBorrowed(this, connection);
+            }
+            return connection;
         }
 
-        // 所有重试都超时，返回null
+        // 超时或连接池已关闭，返回null
+        if (!closed) {
+            metrics.recordTimeout();
+        }
         return null;
     }
 
+    /**
+     * 进入等待队列，挂起直到归还方交付连接、超时或被中断
+     *
+     * @param timeoutNanos 最长等待时间（纳秒）
+     * @return 交付的连接，null表示超时或连接池已关闭
+     * @throws InterruptedException 如果等待连接时被中断
+     */
+    private PooledConnection awaitConnection(long timeoutNanos) throws InterruptedException {
+        waitingBorrowers.incrementAndGet();
+        try {
+            return doAwaitConnection(timeoutNanos);
+        } finally {
+            waitingBorrowers.decrementAndGet();
+        }
+    }
+
+    private PooledConnection doAwaitConnection(long timeoutNanos) throws InterruptedException {
+        Waiter waiter = new Waiter();
+        waiters.offer(waiter);
+
+        // 入队后再检查一次空闲队列，避免与同时发生的归还擦肩而过
+        PooledConnection connection = idleConnections.poll();
+        if (connection != null) {
+            if (waiter.cancel()) {
+                waiters.remove(waiter);
+                return connection;
+            }
+            // 在此期间已经有归还方把连接交给了当前等待者，多拿的那个重新放回
+            release(connection);
+            return waiter.take();
+        }
+
+        final long deadline = System.nanoTime() + timeoutNanos;
+        while (true) {
+            PooledConnection handed = waiter.take();
+            if (handed != null) {
+                return handed;
+            }
+            if (Thread.interrupted()) {
+                if (waiter.cancel()) {
+                    waiters.remove(waiter);
+                    throw new InterruptedException();
+                }
+                // 已经拿到连接，保留中断标记并正常返回
+                Thread.currentThread().interrupt();
+                return waiter.take();
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || closed) {
+                if (waiter.cancel()) {
+                    waiters.remove(waiter);
+                    return null;
+                }
+                return waiter.take();
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    /**
+     * 将空闲连接交给等待者，没有等待者时放回空闲队列尾部
+     */
+    private void release(PooledConnection connection) {
+        if (handOff(connection)) {
+            return;
+        }
+        idleConnections.offer(connection);
+        if (drainIfClosed()) {
+            return;
+        }
+
+        // 放回后再次检查等待者：可能有借用者在我们检查等待队列之后、放回之前入队
+        while (!waiters.isEmpty()) {
+            PooledConnection idle = idleConnections.poll();
+            if (idle == null) {
+                return;
+            }
+            if (!handOff(idle)) {
+                idleConnections.offer(idle);
+                drainIfClosed();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 放回空闲队列后再次检查连接池是否已关闭：shutdown()可能在调用方检查closed之后、放回之前清空了空闲队列，
+     * 此时放回的连接不会再被任何人销毁（共享连接管理器下还会一直占着租约），需要在这里补充销毁
+     *
+     * @return 连接池是否已关闭
+     */
+    private boolean drainIfClosed() {
+        if (!closed) {
+            return false;
+        }
+        PooledConnection idle;
+        while ((idle = idleConnections.poll()) != null) {
+            destroyConnection(idle, "连接池关闭");
+        }
+        return true;
+    }
+
+    /**
+     * 依次尝试把连接交给等待队列中的借用者（跳过已超时或被中断的等待者）
+     *
+     * @return 是否交付成功
+     */
+    private boolean handOff(PooledConnection connection) {
+        Waiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            if (waiter.offer(connection)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 销毁无效连接，有借用者在等待或空闲连接不足minIdle时补充新连接
+     */
+    private void discardAndReplenish(PooledConnection connection, String reason) {
+        destroyConnection(connection, reason);
+        if (!closed && (!waiters.isEmpty() || idleConnections.size() < minIdle)) {
+            addNewConnectionToPool();
+        }
+    }
+
+    /**
+     * 销毁连接并释放其占用的名额
+     */
+    private void destroyConnection(PooledConnection connection, String reason) {
+        if (!connection.destroy()) {
+            // 已经销毁过（例如被替换后又被close），不重复释放名额
+            return;
+        }
+        totalConnections.decrementAndGet();
+        metrics.recordDestroyed(reason);
+        // 通知监听器连接被销毁
+        if (listener != null) {
+            listener.onConnectionDestroyed(this, connection, reason);
+        }
+    }
+
     /**
      * 将连接返回连接池（放回队列尾部，内部方法，由PooledConnection.close()调用）
      */
@@ -337,41 +662,27 @@ public class SimpleHttpConnectionPool {
         }
 
         // 无论连接是否有效，都先通知监听器连接被归还（外部主动处理了连接）
+        recordReturned(connection);
         if (listener != null) {
             listener.onConnectionReturned(this, connection);
         }
 
-        // 在归还前测试连接是否仍然有效
-        boolean isValid = connection.isValid();
-
-        poolLock.lock();
-        try {
-            if (!isValid) {
-                // 连接无效，销毁并补充新连接
-                connection.destroy();
-                // 通知监听器连接因无效而被销毁
-                if (listener != null) {
-                    listener.onConnectionDestroyed(this, connection, "连接无效");
-                }
-                // 检查队列大小，避免创建多余连接
-                if (connectionQueue.size() < poolSize) {
-                    addNewConnectionToPool();
-                }
-                return;
-            }
+        if (closed) {
+            destroyConnection(connection, "连接池关闭");
+            return;
+        }
 
-            // 如果队列已满，销毁这个连接
-            if (!connectionQueue.offer(connection)) {
-                connection.destroy();
-                // 通知监听器连接因队列满而被销毁
-                if (listener != null) {
-                    listener.onConnectionDestroyed(this, connection, "归还时队列已满，连接被销毁");
-                }
-            }
-            // 如果成功归还到队列，不需要额外操作（已经在上面触发了onConnectionReturned）
-        } finally {
-            poolLock.unlock();
+        // 在归还前测试连接是否仍然有效
+        if (!connection.isValid()) {
+            // 连接无效，销毁并补充新连接
+            metrics.recordInvalidReplacement();
+            discardAndReplenish(connection, "连接无效");
+            return;
         }
+
+        // 优先直接交给等待中的借用者，否则放回队列尾部
+        connection.markReturned();
+        release(connection);
     }
 
     /**
@@ -380,73 +691,117 @@ public class SimpleHttpConnectionPool {
      */
     public void replaceConnection(PooledConnection connection) {
         if (connection != null) {
-            // 先通知监听器连接被归还（外部主动处理了连接）
+            // 标记为已归还，避免之后再调用close()时重复归还；
+            // 已经归还过的连接可能正在空闲队列中或已被其他借用者取走，不能再销毁
+            if (!connection.tryMarkReturned()) {
+                return;
+            }
+            recordReturned(connection);
+            // 通知监听器连接被归还（外部主动处理了连接）
             if (listener != null) {
                 listener.onConnectionReturned(this, connection);
             }
 
             connection.markInvalid();
-            connection.destroy();
-            // 通知监听器连接被替换销毁
-            if (listener != null) {
-                listener.onConnectionDestroyed(this, connection, "连接被主动替换");
-            }
-
-            poolLock.lock();
-            try {
-                // 检查队列大小，避免创建多余连接
-                if (connectionQueue.size() < poolSize) {
-                    addNewConnectionToPool();
-                }
-            } finally {
-                poolLock.unlock();
-            }
+            metrics.recordInvalidReplacement();
+            discardAndReplenish(connection, "连接被主动替换");
         }
     }
 
+    /**
+     * 记录一次归还：更新借出数和占用时间
+     */
+    private void recordReturned(PooledConnection connection) {
+        activeConnections.decrementAndGet();
+        metrics.recordReturn(connection.getHoldNanos());
+    }
+
     /**
      * 获取连接池状态信息
-     * 注意：activeCount 是基于 poolSize 和 availableCount 的估算值，
-     * 如果连接被销毁但还没补充，这个值可能不准确
+     * 更详细的统计（等待时间、占用时间分布等）见 {@link #getMetrics()}
      */
     public PoolStatus getPoolStatus() {
-        poolLock.lock();
-        try {
-            // availableConnections: 队列中可用的连接数
-            int availableCount = connectionQueue.size();
-            // activeConnections: 当前被借出使用的连接数 = 总连接数 - 队列中可用连接数
-            // 注意：这是估算值，实际值可能因为连接被销毁但还没补充而略有偏差
-            int activeCount = Math.max(0, poolSize - availableCount);
-            return new PoolStatus(
-                    activeCount,        // 活跃连接数（被借出的，估算值）
-                    availableCount,     // 可用连接数（队列中的）
-                    poolSize           // 连接池目标大小
-            );
-        } finally {
-            poolLock.unlock();
-        }
+        return new PoolStatus(
+                activeConnections.get(),    // 活跃连接数（被借出未归还的）
+                idleConnections.size(),     // 可用连接数（队列中的）
+                maxTotal                    // 连接池最大连接数
+        );
     }
 
     /**
      * 清理并关闭连接池
+     * 正在等待的借用者会被唤醒并返回null，之后归还的连接会被直接销毁
      */
     public void shutdown() {
-        poolLock.lock();
+        closed = true;
+        synchronized (this) {
+            if (evictionTask != null) {
+                evictionTask.cancel(false);
+                evictionTask = null;
+            }
+            if (metricsReportTask != null) {
+                metricsReportTask.cancel(false);
+                metricsReportTask = null;
+            }
+        }
         try {
+            // 唤醒所有等待者
+            Waiter waiter;
+            while ((waiter = waiters.poll()) != null) {
+                waiter.wakeUp();
+            }
+
             PooledConnection connection;
-            while ((connection = connectionQueue.poll()) != null) {
-                connection.destroy();
+            while ((connection = idleConnections.poll()) != null) {
                 // 通知监听器连接因连接池关闭而被销毁
-                if (listener != null) {
-                    listener.onConnectionDestroyed(this, connection, "连接池关闭");
-                }
+                destroyConnection(connection, "连接池关闭");
             }
 
-            connectionManager.close();
+            if (!sharedConnectionManager) {
+                connectionManager.close();
+            }
         } catch (Exception e) {
             // 忽略关闭时的异常
-        } finally {
-            poolLock.unlock();
+        }
+    }
+
+    /**
+     * 等待连接的借用者
+     * 状态只会从"等待中"单向变为"已交付"或"已取消"，由CAS保证交付与超时/中断不会同时成功
+     */
+    private static final class Waiter {
+        private static final Object CANCELLED = new Object();
+
+        private final Thread thread = Thread.currentThread();
+        private final AtomicReference<Object> slot = new AtomicReference<>();
+
+        /**
+         * 交付连接
+         * @return false表示等待者已取消
+         */
+        boolean offer(PooledConnection connection) {
+            if (slot.compareAndSet(null, connection)) {
+                LockSupport.unpark(thread);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 取消等待
+         * @return false表示连接已经交付，调用方需要通过take()取走
+         */
+        boolean cancel() {
+            return slot.compareAndSet(null, CANCELLED);
+        }
+
+        PooledConnection take() {
+            Object value = slot.get();
+            return value instanceof PooledConnection ? (PooledConnection) value : null;
+        }
+
+        void wakeUp() {
+            LockSupport.unpark(thread);
         }
     }
 }
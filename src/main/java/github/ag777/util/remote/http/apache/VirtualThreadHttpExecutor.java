@@ -0,0 +1,182 @@
+package github.ag777.util.remote.http.apache;
+
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.BasicHttpClientResponseHandler;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.routing.DefaultProxyRoutePlanner;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.util.Timeout;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 基于虚拟线程的HTTP异步执行器
+ * 每个请求在独立的虚拟线程上用阻塞方式执行，并发数由信号量限制，而不是由池中客户端对象的数量限制，
+ * 因此可以同时挂起成千上万个请求而不占用等量的平台线程
+ * <p>
+ * 与 {@link SimpleHttpConnectionPool} 不同，这里所有请求共用一个 {@link CloseableHttpClient}，
+ * 底层连接管理器的总数和单路由上限都等于最大并发数
+ *
+ * <pre>{@code
+ * try (VirtualThreadHttpExecutor executor = new VirtualThreadHttpExecutor(2000)) {
+ *     CompletableFuture<String> future = executor.executeForString(new HttpGet("https://example.com"));
+ *     future.thenAccept(System.out::println);
+ * }
+ * }</pre>
+ */
+public class VirtualThreadHttpExecutor implements AutoCloseable {
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    /**
+     * 构造函数
+     * @param maxConcurrency 最大并发请求数
+     */
+    public VirtualThreadHttpExecutor(int maxConcurrency) {
+        this(maxConcurrency, null, null);
+    }
+
+    /**
+     * 构造函数
+     * @param maxConcurrency 最大并发请求数
+     * @param requestConfigBuilder 请求配置构建器，null表示使用默认配置
+     * @param proxyHost 代理服务器，null表示不使用代理
+     */
+    public VirtualThreadHttpExecutor(int maxConcurrency, RequestConfig.Builder requestConfigBuilder, HttpHost proxyHost) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("最大并发数必须大于0");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConcurrency)
+                .setMaxConnPerRoute(maxConcurrency)
+                .build();
+        RequestConfig.Builder configBuilder = requestConfigBuilder != null ? requestConfigBuilder : RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(10000))
+                .setResponseTimeout(Timeout.ofMilliseconds(30000));
+        var clientBuilder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(configBuilder.build());
+        if (proxyHost != null) {
+            clientBuilder.setRoutePlanner(new DefaultProxyRoutePlanner(proxyHost));
+        }
+        this.httpClient = clientBuilder.build();
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("http-vt-", 0).factory());
+    }
+
+    /**
+     * 异步执行请求
+     * 超过最大并发数的请求会在虚拟线程上排队等待（公平信号量，先到先执行）；
+     * 取消返回的Future会中止尚未完成的请求（请求需实现 {@link Cancellable}，如HttpGet/HttpPost）
+     *
+     * @param request 请求
+     * @param responseHandler 响应处理器，在执行线程上消费响应体
+     * @return 处理结果
+     */
+    public <T> CompletableFuture<T> execute(ClassicHttpRequest request, HttpClientResponseHandler<? extends T> responseHandler) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                try {
+                    if (!future.isDone()) {
+                        future.complete(httpClient.execute(request, responseHandler));
+                    }
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (request instanceof Cancellable cancellable) {
+            future.whenComplete((result, e) -> {
+                if (future.isCancelled()) {
+                    cancellable.cancel();
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * 异步执行请求，响应体按字符串返回（非2xx状态码会以异常结束）
+     * @param request 请求
+     * @return 响应体
+     */
+    public CompletableFuture<String> executeForString(ClassicHttpRequest request) {
+        return execute(request, new BasicHttpClientResponseHandler());
+    }
+
+    /**
+     * 获取最大并发请求数
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 获取当前正在执行的请求数
+     */
+    public int getInFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * 获取当前排队等待执行的请求数（估算值）
+     */
+    public int getQueued() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * 获取底层HTTP客户端，用于需要同步调用的场景
+     */
+    public CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * 关闭执行器，不再接收新请求，并等待已提交的请求执行完毕后释放连接
+     */
+    @Override
+    public void close() {
+        executor.close();
+        try {
+            httpClient.close();
+        } catch (Exception e) {
+            // 忽略关闭时的异常
+        }
+        try {
+            connectionManager.close();
+        } catch (Exception e) {
+            // 忽略关闭时的异常
+        }
+    }
+}
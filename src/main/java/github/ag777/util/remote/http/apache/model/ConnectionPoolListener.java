@@ -48,4 +48,15 @@ public interface ConnectionPoolListener {
     default void onConnectionReturned(SimpleHttpConnectionPool pool, PooledConnection connection) {
         // 默认空实现，子类可以选择实现
     }
+
+    /**
+     * 指标上报事件
+     * 通过 {@link SimpleHttpConnectionPool#setMetricsReportInterval} 开启后按固定间隔调用
+     *
+     * @param pool 连接池实例
+     * @param metrics 指标快照
+     */
+    default void onMetricsReport(SimpleHttpConnectionPool pool, PoolMetricsSnapshot metrics) {
+        // 默认空实现，子类可以选择实现
+    }
 }
@@ -0,0 +1,124 @@
+package github.ag777.util.remote.http.apache.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁延迟直方图
+ * 以微秒为单位按对数分桶（每个2的幂区间再线性分8个子桶），分位数相对误差约12.5%，
+ * 记录操作只有几次原子加，适合放在借还连接的热路径上；
+ * 也可以通过 {@link #record(long)} 记录其他单位的非负整数值，快照各项与记录值同单位
+ */
+public class LatencyHistogram {
+    // 每个2的幂区间的子桶数（2^SUB_BITS）
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    // 最大记录到 2^40 微秒（约12天），超出部分计入最后一个桶
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = SUB_COUNT + (MAX_EXPONENT - SUB_BITS + 1) * SUB_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sumMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * 记录一次耗时
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordNanos(long nanos) {
+        record(nanos / 1000);
+    }
+
+    /**
+     * 记录一个值，单位由调用方决定（按微秒记录时与 {@link #recordNanos(long)} 相同）
+     * @param value 值，负数按0记录
+     */
+    public void record(long value) {
+        long micros = Math.max(0, value);
+        buckets.incrementAndGet(bucketIndex(micros));
+        sumMicros.add(micros);
+        long currentMax;
+        while (micros > (currentMax = maxMicros.get())) {
+            if (maxMicros.compareAndSet(currentMax, micros)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 生成当前统计快照
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long sum = sumMicros.sum();
+        long max = maxMicros.get();
+        return new Snapshot(
+                total,
+                total == 0 ? 0 : sum / total,
+                max,
+                percentile(counts, total, 0.50, max),
+                percentile(counts, total, 0.90, max),
+                percentile(counts, total, 0.99, max),
+                percentile(counts, total, 0.999, max)
+        );
+    }
+
+    private static int bucketIndex(long micros) {
+        if (micros < SUB_COUNT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) ((micros >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1));
+        return SUB_COUNT + (exponent - SUB_BITS) * SUB_COUNT + sub;
+    }
+
+    /**
+     * 桶的上边界（微秒）
+     */
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int exponent = (index - SUB_COUNT) / SUB_COUNT + SUB_BITS;
+        int sub = (index - SUB_COUNT) % SUB_COUNT;
+        return ((long) (SUB_COUNT + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 直方图快照，所有耗时单位均为微秒
+     * @param count 记录次数
+     * @param meanMicros 平均值
+     * @param maxMicros 最大值
+     * @param p50Micros 50分位
+     * @param p90Micros 90分位
+     * @param p99Micros 99分位
+     * @param p999Micros 99.9分位
+     */
+    public record Snapshot(long count, long meanMicros, long maxMicros,
+                           long p50Micros, long p90Micros, long p99Micros, long p999Micros) {
+    }
+}
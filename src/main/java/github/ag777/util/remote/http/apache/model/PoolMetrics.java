@@ -0,0 +1,99 @@
+package github.ag777.util.remote.http.apache.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 连接池运行指标
+ * 由连接池在借还路径上更新，计数器均为无锁实现
+ */
+public class PoolMetrics {
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder returned = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder invalidReplacements = new LongAdder();
+    private final Map<String, LongAdder> destroyReasons = new ConcurrentHashMap<>();
+    private final LatencyHistogram borrowWait = new LatencyHistogram();
+    private final LatencyHistogram holdTime = new LatencyHistogram();
+
+    /**
+     * 记录一次成功借用
+     * @param waitNanos 借用等待时间（纳秒）
+     */
+    public void recordBorrow(long waitNanos) {
+        borrowed.increment();
+        borrowWait.recordNanos(waitNanos);
+    }
+
+    /**
+     * 记录一次归还
+     * @param holdNanos 连接被借出的时长（纳秒）
+     */
+    public void recordReturn(long holdNanos) {
+        returned.increment();
+        holdTime.recordNanos(holdNanos);
+    }
+
+    /**
+     * 记录一次借用超时（borrowConnection返回null）
+     */
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * 记录一次连接创建
+     */
+    public void recordCreated() {
+        created.increment();
+    }
+
+    /**
+     * 记录一次连接销毁
+     * @param reason 销毁原因
+     */
+    public void recordDestroyed(String reason) {
+        destroyed.increment();
+        destroyReasons.computeIfAbsent(reason, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * 记录一次因连接无效而进行的替换
+     */
+    public void recordInvalidReplacement() {
+        invalidReplacements.increment();
+    }
+
+    /**
+     * 生成当前指标快照
+     * @param activeConnections 当前借出的连接数
+     * @param idleConnections 当前空闲的连接数
+     * @param waitingBorrowers 当前等待连接的借用者数
+     * @param maxTotal 最大连接数
+     */
+    public PoolMetricsSnapshot snapshot(int activeConnections, int idleConnections, int waitingBorrowers, int maxTotal) {
+        Map<String, Long> reasons = new LinkedHashMap<>();
+        destroyReasons.forEach((reason, count) -> reasons.put(reason, count.sum()));
+        return new PoolMetricsSnapshot(
+                System.currentTimeMillis(),
+                activeConnections,
+                idleConnections,
+                waitingBorrowers,
+                maxTotal,
+                borrowed.sum(),
+                returned.sum(),
+                created.sum(),
+                destroyed.sum(),
+                timeouts.sum(),
+                invalidReplacements.sum(),
+                Collections.unmodifiableMap(reasons),
+                borrowWait.snapshot(),
+                holdTime.snapshot()
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package github.ag777.util.remote.http.apache.model;
+
+import java.util.Map;
+
+/**
+ * 连接池指标快照，计数类字段均为连接池创建以来的累计值
+ *
+ * @param timestamp 快照时间（毫秒时间戳）
+ * @param activeConnections 当前借出的连接数
+ * @param idleConnections 当前空闲的连接数
+ * @param waitingBorrowers 当前等待连接的借用者数
+ * @param maxTotal 最大连接数
+ * @param borrowCount 成功借用次数
+ * @param returnCount 归还次数
+ * @param createdCount 创建连接数
+ * @param destroyedCount 销毁连接数
+ * @param timeoutCount 借用超时次数
+ * @param invalidReplacementCount 因连接无效而替换的次数
+ * @param destroyReasons 各销毁原因的次数
+ * @param borrowWait 借用等待时间分布
+ * @param holdTime 连接占用时间分布
+ */
+public record PoolMetricsSnapshot(
+        long timestamp,
+        int activeConnections,
+        int idleConnections,
+        int waitingBorrowers,
+        int maxTotal,
+        long borrowCount,
+        long returnCount,
+        long createdCount,
+        long destroyedCount,
+        long timeoutCount,
+        long invalidReplacementCount,
+        Map<String, Long> destroyReasons,
+        LatencyHistogram.Snapshot borrowWait,
+        LatencyHistogram.Snapshot holdTime) {
+}
@@ -13,15 +13,22 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class PooledConnection implements AutoCloseable {
     @Getter
     private final CloseableHttpClient httpClient;
+    @Getter
     private final long createTime;
     @Getter
+    private volatile long lastUsedTime;
+    // 最近一次借出的时间（System.nanoTime）
+    private volatile long borrowNanos;
+    @Getter
     private volatile boolean valid = true;
     private final AtomicBoolean returned = new AtomicBoolean(true);
+    private final AtomicBoolean destroyed = new AtomicBoolean(false);
     private final SimpleHttpConnectionPool pool;
 
     public PooledConnection(CloseableHttpClient httpClient, SimpleHttpConnectionPool pool) {
         this.httpClient = httpClient;
         this.createTime = System.currentTimeMillis();
+        this.lastUsedTime = createTime;
         this.pool = pool;
     }
 
@@ -33,26 +40,58 @@ public class PooledConnection implements AutoCloseable {
      * 标记：该连接被借出，等待归还
      */
     public void markBorrowed() {
+        borrowNanos = System.nanoTime();
         returned.set(false);
     }
 
+    /**
+     * 标记：该连接已归还
+     * @return false表示该连接并未处于借出状态（已经归还过）
+     */
+    public boolean tryMarkReturned() {
+        return returned.compareAndSet(false, true);
+    }
+
+    /**
+     * 获取最近一次借出到现在的时长
+     * @return 占用时长（纳秒）
+     */
+    public long getHoldNanos() {
+        return System.nanoTime() - borrowNanos;
+    }
+
+    /**
+     * 记录归还时间，用于空闲回收判断
+     */
+    public void markReturned() {
+        lastUsedTime = System.currentTimeMillis();
+    }
+
     /**
      * 将连接归还给连接池（放回队列尾部）
      */
     @Override
     public void close() {
         // 仅在“借出未归还”时归还一次
-        if (returned.compareAndSet(false, true)) {
+        if (tryMarkReturned()) {
             pool.returnConnection(this);
         }
     }
 
-    public void destroy() {
+    /**
+     * 关闭底层客户端，重复调用只会生效一次
+     * @return 本次调用是否真正执行了销毁
+     */
+    public boolean destroy() {
+        valid = false;
+        if (!destroyed.compareAndSet(false, true)) {
+            return false;
+        }
         try {
             httpClient.close();
         } catch (IOException e) {
             // 忽略关闭异常
         }
-        valid = false;
+        return true;
     }
 }